@@ -0,0 +1,355 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Compact binary alternative to the xml data file. <br />
+ * Ids and dates are stored as fixed width big-endian ints and longs rather
+ * than decimal text, strings as a varint byte length followed by UTF-8, and
+ * each meeting's contact ids sorted and delta encoded as varints. Files are
+ * read through a memory-mapped FileChannel, so loading does not copy the file
+ * through stream buffers.
+ *
+ * The layout is:
+ * <pre>
+ * magic "CMGR" (int), version (int)
+ * records, each starting with a tag byte:
+ *   1 contact:        id (int), name (string), notes (string)
+ *   2 past meeting:   id (int), date (long), contact ids, notes (string)
+ *   3 future meeting: id (int), date (long), contact ids
+ *   0 end of file
+ * contact ids: count (varint), first id (varint), gaps to following ids (varint)
+ * </pre>
+ *
+ * Files larger than 2GB cannot be mapped in one piece and are not supported.
+ *
+ * Notes may also be left in the mapped file when reading (see readLazily), as
+ * each string's length is stored before it and it can be skipped unread.
+ *
+ * @author caleb
+ *
+ */
+public final class BinarySnapshot {
+
+	private static final int MAGIC = 0x434D4752;
+	private static final int VERSION = 1;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final byte END = 0;
+	private static final byte CONTACT = 1;
+	private static final byte PAST_MEETING = 2;
+	private static final byte FUTURE_MEETING = 3;
+
+	private DataOutputStream out;
+
+	private BinarySnapshot(OutputStream out) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE));
+		this.out.writeInt(MAGIC);
+		this.out.writeInt(VERSION);
+	}
+
+	/**
+	 * Reads every record in the file and passes it to the handler in file order.
+	 *
+	 * @param file the snapshot to read
+	 * @param handler receiver of the records
+	 * @throws IOException if the file cannot be read or is not a valid snapshot
+	 */
+	public static void read(File file, DataRecordHandler handler) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel()) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Snapshot is too large to map!");
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			read(buffer, handler, null);
+		}
+	}
+
+	/**
+	 * Reads every record in the file and passes it to the handler in file order,
+	 * leaving the notes in the file. The handler is given a NotesBuffer for each
+	 * record's notes, which reads them from the mapped file when first asked for.
+	 *
+	 * @param file the snapshot to read
+	 * @param handler receiver of the records
+	 * @param cacheSize maximum number of notes kept in memory once read
+	 * @throws IOException if the file cannot be read or is not a valid snapshot
+	 */
+	public static void readLazily(File file, DataRecordHandler handler, int cacheSize) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+				FileChannel channel = raf.getChannel()) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("Snapshot is too large to map!");
+			// the mapping stays valid once the channel is closed
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			read(buffer, handler, new NotesFile(buffer, cacheSize));
+		}
+	}
+
+	/**
+	 * Reads every record in the buffer and passes it to the handler in order.
+	 *
+	 * @param buffer holding a complete snapshot from its position onwards
+	 * @param handler receiver of the records
+	 * @param notes reading notes left in the buffer, or null to read notes straight away
+	 * @throws IOException if the buffer does not hold a valid snapshot
+	 */
+	static void read(ByteBuffer buffer, DataRecordHandler handler, NotesFile notes) throws IOException {
+		try {
+			if (buffer.getInt() != MAGIC) throw new IOException("Not a contact manager snapshot!");
+			int version = buffer.getInt();
+			if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+			while (true){
+				byte tag = buffer.get();
+				switch (tag){
+				case CONTACT:
+					if (notes == null)
+						handler.restoreContact(buffer.getInt(), readString(buffer), readString(buffer));
+					else
+						handler.restoreContact(buffer.getInt(), readString(buffer), skipNotes(buffer, notes));
+					break;
+				case PAST_MEETING:
+					if (notes == null)
+						handler.restorePastMeeting(buffer.getInt(), buffer.getLong(),
+								readIds(buffer), readString(buffer));
+					else
+						handler.restorePastMeeting(buffer.getInt(), buffer.getLong(),
+								readIds(buffer), skipNotes(buffer, notes));
+					break;
+				case FUTURE_MEETING:
+					handler.restoreFutureMeeting(buffer.getInt(), buffer.getLong(), readIds(buffer));
+					break;
+				case END:
+					return;
+				default:
+					throw new IOException("Unknown snapshot record type " + tag);
+				}
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Snapshot is truncated!", e);
+		}
+	}
+
+	/**
+	 * Writes all records to the file, replacing its contents.
+	 *
+	 * @param file the snapshot to write
+	 * @param contacts contacts to write
+	 * @param pastMeetings past meetings to write
+	 * @param futureMeetings future meetings to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(File file, Iterable<? extends Contact> contacts,
+			Iterable<? extends PastMeeting> pastMeetings,
+			Iterable<? extends FutureMeeting> futureMeetings) throws IOException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			write(out, contacts, pastMeetings, futureMeetings);
+		}
+	}
+
+	/**
+	 * Writes all records to the stream. The stream is flushed but left open.
+	 *
+	 * @param out the stream to write to
+	 * @param contacts contacts to write
+	 * @param pastMeetings past meetings to write
+	 * @param futureMeetings future meetings to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	public static void write(OutputStream out, Iterable<? extends Contact> contacts,
+			Iterable<? extends PastMeeting> pastMeetings,
+			Iterable<? extends FutureMeeting> futureMeetings) throws IOException {
+		BinarySnapshot snapshot = new BinarySnapshot(out);
+		for (Contact contact : contacts){
+			snapshot.writeContact(contact.getId(), contact.getName(), contact.getNotes());
+		}
+		for (PastMeeting meeting : pastMeetings){
+			snapshot.writePastMeeting(meeting.getId(), meeting.getTimeInMillis(),
+					meeting.getContactIds(), meeting.getNotes());
+		}
+		for (FutureMeeting meeting : futureMeetings){
+			snapshot.writeFutureMeeting(meeting.getId(), meeting.getTimeInMillis(),
+					meeting.getContactIds());
+		}
+		snapshot.finish();
+	}
+
+	/**
+	 * Converts an xml data file into a binary snapshot, one record at a time.
+	 *
+	 * @param xmlData the xml file to read
+	 * @param file the snapshot to write
+	 * @throws IOException if either file cannot be accessed
+	 * @throws XMLStreamException if the xml file is not well formed
+	 */
+	public static void importXml(File xmlData, File file) throws IOException, XMLStreamException {
+		try (OutputStream out = new FileOutputStream(file)) {
+			final BinarySnapshot snapshot = new BinarySnapshot(out);
+			final IOException[] failure = new IOException[1];
+			ContactManagerXml.read(xmlData, new DataRecordHandler() {
+				@Override
+				public void restoreContact(int id, String name, String notes) {
+					try {
+						snapshot.writeContact(id, name, notes);
+					} catch (IOException e) {
+						if (failure[0] == null) failure[0] = e;
+					}
+				}
+
+				@Override
+				public void restorePastMeeting(int id, long date, int[] contactIds, String notes) {
+					try {
+						snapshot.writePastMeeting(id, date, contactIds, notes);
+					} catch (IOException e) {
+						if (failure[0] == null) failure[0] = e;
+					}
+				}
+
+				@Override
+				public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+					try {
+						snapshot.writeFutureMeeting(id, date, contactIds);
+					} catch (IOException e) {
+						if (failure[0] == null) failure[0] = e;
+					}
+				}
+			});
+			if (failure[0] != null) throw failure[0];
+			snapshot.finish();
+		}
+	}
+
+	/**
+	 * Converts an xml data file into a binary snapshot from the command line.
+	 *
+	 * @param args the xml file and the snapshot file, default "data.xml" and "data.bin"
+	 */
+	public static void main(String[] args) {
+		File xmlData = new File(args.length > 0 ? args[0] : DataFormat.XML.getFileName());
+		File file = new File(args.length > 1 ? args[1] : DataFormat.BINARY.getFileName());
+		try {
+			importXml(xmlData, file);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (XMLStreamException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void writeContact(int id, String name, String notes) throws IOException {
+		out.writeByte(CONTACT);
+		out.writeInt(id);
+		writeString(name);
+		writeString(notes);
+	}
+
+	private void writePastMeeting(int id, long date, int[] contactIds, String notes) throws IOException {
+		out.writeByte(PAST_MEETING);
+		out.writeInt(id);
+		out.writeLong(date);
+		writeIds(contactIds);
+		writeString(notes);
+	}
+
+	private void writeFutureMeeting(int id, long date, int[] contactIds) throws IOException {
+		out.writeByte(FUTURE_MEETING);
+		out.writeInt(id);
+		out.writeLong(date);
+		writeIds(contactIds);
+	}
+
+	private void finish() throws IOException {
+		out.writeByte(END);
+		out.flush();
+	}
+
+	private void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarint(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Helper function which writes ids in ascending order, each as the gap
+	 * from the previous id so that most take a single byte.
+	 */
+	private void writeIds(int[] ids) throws IOException {
+		int[] sorted = ids.clone();
+		Arrays.sort(sorted);
+		writeVarint(sorted.length);
+		int previous = 0;
+		for (int id : sorted){
+			writeVarint(id - previous);
+			previous = id;
+		}
+	}
+
+	private void writeVarint(int value) throws IOException {
+		while ((value & ~0x7F) != 0){
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	static String readString(ByteBuffer buffer) throws IOException {
+		int length = readVarint(buffer);
+		if (length < 0 || length > buffer.remaining())
+			throw new IOException("Malformed string in snapshot!");
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Helper function which moves past a string of notes without decoding it,
+	 * returning notes which read it from the buffer later. Empty notes are
+	 * not worth leaving behind.
+	 */
+	private static NotesBuffer skipNotes(ByteBuffer buffer, NotesFile notes) throws IOException {
+		int position = buffer.position();
+		int length = readVarint(buffer);
+		if (length == 0) return new NotesBuffer("");
+		if (length < 0) throw new IOException("Malformed string in snapshot!");
+		if (length > buffer.remaining()) throw new BufferUnderflowException();
+		buffer.position(buffer.position() + length);
+		return notes.notesAt(position);
+	}
+
+	private static int[] readIds(ByteBuffer buffer) throws IOException {
+		// every id takes at least a byte, so a count beyond the remaining bytes is corrupt
+		int count = readVarint(buffer);
+		if (count < 0 || count > buffer.remaining())
+			throw new IOException("Malformed ids in snapshot!");
+		int[] ids = new int[count];
+		int previous = 0;
+		for (int i = 0; i < ids.length; i++){
+			previous += readVarint(buffer);
+			ids[i] = previous;
+		}
+		return ids;
+	}
+
+	private static int readVarint(ByteBuffer buffer) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7){
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed varint in snapshot!");
+	}
+}
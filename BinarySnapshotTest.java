@@ -0,0 +1,184 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * BinarySnapshot Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class BinarySnapshotTest {
+
+	private File file;
+	private List<Contact> contacts;
+	private List<PastMeeting> pastMeetings;
+	private List<FutureMeeting> futureMeetings;
+	private List<String> records;
+	private DataRecordHandler handler;
+
+	@Before
+	public void buildUp() throws IOException {
+		file = File.createTempFile("contact_manager", ".bin");
+		contacts = new ArrayList<Contact>();
+		contacts.add(new ContactImpl(0, "Joe", "notes\nwith é accents"));
+		contacts.add(new ContactImpl(300, "Kevin", ""));
+		Set<Contact> attendees = new HashSet<Contact>(contacts);
+		pastMeetings = new ArrayList<PastMeeting>();
+		pastMeetings.add(new PastMeetingImpl(0, new GregorianCalendar(2015, 0, 1), attendees, "past"));
+		futureMeetings = new ArrayList<FutureMeeting>();
+		futureMeetings.add(new FutureMeetingImpl(1, new GregorianCalendar(2099, 0, 1), attendees));
+
+		records = new ArrayList<String>();
+		handler = new DataRecordHandler() {
+			@Override
+			public void restoreContact(int id, String name, String notes) {
+				records.add("contact " + id + " " + name + " " + notes);
+			}
+
+			@Override
+			public void restorePastMeeting(int id, long date, int[] contactIds, String notes) {
+				records.add("past " + id + " " + date + " " + Arrays.toString(contactIds) + " " + notes);
+			}
+
+			@Override
+			public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+				records.add("future " + id + " " + date + " " + Arrays.toString(contactIds));
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void read_writtenSnapshot_returnSameRecords() throws IOException {
+		BinarySnapshot.write(file, contacts, pastMeetings, futureMeetings);
+		BinarySnapshot.read(file, handler);
+		long pastDate = pastMeetings.get(0).getDate().getTimeInMillis();
+		long futureDate = futureMeetings.get(0).getDate().getTimeInMillis();
+		List<String> expected = Arrays.asList("contact 0 Joe notes\nwith é accents", "contact 300 Kevin ",
+				"past 0 " + pastDate + " [0, 300] past", "future 1 " + futureDate + " [0, 300]");
+		assertEquals(expected, records);
+	}
+
+	@Test
+	public void importXml_xmlDataFile_returnSameRecordsAsXml() throws IOException, XMLStreamException {
+		File xmlData = File.createTempFile("contact_manager", ".xml");
+		xmlData.deleteOnExit();
+		ContactManagerXml.write(xmlData, contacts, pastMeetings, futureMeetings);
+		ContactManagerXml.read(xmlData, handler);
+		List<String> xmlRecords = new ArrayList<String>(records);
+		records.clear();
+
+		BinarySnapshot.importXml(xmlData, file);
+		BinarySnapshot.read(file, handler);
+		// contact ids of meetings come back sorted from the snapshot
+		assertEquals(xmlRecords.size(), records.size());
+		assertEquals(xmlRecords.get(0), records.get(0));
+		assertEquals(true, records.get(2).contains("[0, 300]"));
+	}
+
+	@Test
+	public void readLazily_writtenSnapshot_returnSameRecords() throws IOException {
+		BinarySnapshot.write(file, contacts, pastMeetings, futureMeetings);
+		BinarySnapshot.read(file, handler);
+		List<String> expected = new ArrayList<String>(records);
+		records.clear();
+		BinarySnapshot.readLazily(file, handler, 1);
+		assertEquals(expected, records);
+	}
+
+	@Test
+	public void readLazily_notesReadAgainAndAdded_returnNotesFromFile() throws IOException {
+		BinarySnapshot.write(file, contacts, pastMeetings, futureMeetings);
+		final List<NotesBuffer> notes = new ArrayList<NotesBuffer>();
+		BinarySnapshot.readLazily(file, new DataRecordHandler() {
+			@Override
+			public void restoreContact(int id, String name, NotesBuffer contactNotes) {
+				notes.add(contactNotes);
+			}
+
+			@Override
+			public void restorePastMeeting(int id, long date, int[] contactIds, NotesBuffer meetingNotes) {
+				notes.add(meetingNotes);
+			}
+
+			@Override
+			public void restoreContact(int id, String name, String contactNotes) {
+			}
+
+			@Override
+			public void restorePastMeeting(int id, long date, int[] contactIds, String meetingNotes) {
+			}
+
+			@Override
+			public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+			}
+		}, 1);
+		// with room for one note in the cache each read below misses
+		boolean readAgain = notes.get(0).toString().equals("notes\nwith é accents")
+				&& notes.get(2).toString().equals("past")
+				&& notes.get(0).length() == "notes\nwith é accents".length();
+		notes.get(2).append("more");
+		assertEquals(true, readAgain && notes.size() == 3 && notes.get(1).toString().isEmpty()
+				&& notes.get(2).toString().equals("past\nmore"));
+	}
+
+	@Test (expected = IOException.class)
+	public void read_truncatedSnapshot_throwIOEx() throws IOException {
+		BinarySnapshot.write(file, contacts, pastMeetings, futureMeetings);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 5);
+		}
+		BinarySnapshot.read(file, handler);
+	}
+
+	@Test (expected = IOException.class)
+	public void read_corruptStringLength_throwIOEx() throws IOException {
+		BinarySnapshot.write(file, contacts, pastMeetings, futureMeetings);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			// the first contact's name length, after the header, tag and id
+			raf.seek(13);
+			raf.write(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+		}
+		BinarySnapshot.read(file, handler);
+	}
+
+	@Test (expected = IOException.class)
+	public void read_negativeIdCount_throwIOEx() throws IOException {
+		BinarySnapshot.write(file, new ArrayList<Contact>(), pastMeetings, futureMeetings);
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			// the past meeting's number of contacts, after the header, tag, id and date
+			raf.seek(21);
+			raf.write(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+		}
+		BinarySnapshot.read(file, handler);
+	}
+
+	@Test (expected = IOException.class)
+	public void read_notSnapshot_throwIOEx() throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.writeInt(42);
+			raf.writeInt(1);
+		}
+		BinarySnapshot.read(file, handler);
+	}
+}
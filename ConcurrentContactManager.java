@@ -0,0 +1,581 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A thread-safe implementation of contact manager
+ *
+ * Many threads may read and change the data at the same time without any global
+ * lock. It follows the same indexing scheme as ContactManagerImpl, built from
+ * concurrent collections:
+ *
+ * Contacts and meetings are held in concurrent maps keyed by id, and ids are
+ * handed out by atomic counters.
+ *
+ * The per-contact meeting index, the time index and the trigram name index are
+ * filled in before a new record is published in its id map. Queries resolve index
+ * entries through the id maps and skip ids not published yet, so a record becomes
+ * visible everywhere at the moment it is put in its map.
+ *
+ * Adding notes to a meeting happens inside a single compute call on the meeting
+ * map, which promotes a future meeting or replaces a past meeting with a copy
+ * holding the new notes, so both are atomic and no notes are lost when threads
+ * add notes to one meeting at the same time. Meetings are never changed once
+ * published, so a flush can save the ones it copied after releasing its lock.
+ *
+ * Changes share a read lock which flush takes exclusively, only while copying
+ * references to all records, so the data saved is a consistent point in time.
+ *
+ * @author caleb
+ *
+ */
+public class ConcurrentContactManager implements ContactManager {
+
+	private static final int GRAM_LENGTH = 3;
+	private static final Comparator<Meeting> CHRONOLOGICAL =
+			Comparator.comparingLong(Meeting::getTimeInMillis);
+
+	private final ConcurrentMap<Integer, Contact> contacts;
+	private final ConcurrentMap<String, Set<Integer>> contactNames;
+	private final ConcurrentMap<Integer, Meeting> meetings;
+	private final ConcurrentMap<Integer, Set<Integer>> meetingsByContact;
+	private final ConcurrentNavigableMap<Long, Set<Integer>> meetingsByTime;
+	private final AtomicInteger currentMeetingId;
+	private final AtomicInteger currentContactId;
+	private final ReadWriteLock snapshotLock;
+	private final DataFormat format;
+	private final IntFunction<Contact> contactDirectory;
+
+	/**
+	 * Constructor to initialize new contact manager.
+	 * If previous data has been saved to an xml file the file will be loaded
+	 */
+	public ConcurrentContactManager() {
+		this(true);
+	}
+
+	/**
+	 * Constructor to initialize new contact manager.
+	 * Includes parameter to ignore saved data if desired.
+	 *
+	 * @param restoreData boolean, false ignores saved data and loads initial values
+	 */
+	public ConcurrentContactManager(boolean restoreData) {
+		this(restoreData, DataFormat.XML);
+	}
+
+	/**
+	 * Constructor to initialize new contact manager which saves its data
+	 * in the given format.
+	 *
+	 * @param restoreData boolean, false ignores saved data and loads initial values
+	 * @param format of the data file read on startup and written by flush
+	 */
+	public ConcurrentContactManager(boolean restoreData, DataFormat format) {
+		contacts = new ConcurrentHashMap<Integer, Contact>();
+		contactDirectory = contacts::get;
+		contactNames = new ConcurrentHashMap<String, Set<Integer>>();
+		meetings = new ConcurrentHashMap<Integer, Meeting>();
+		meetingsByContact = new ConcurrentHashMap<Integer, Set<Integer>>();
+		meetingsByTime = new ConcurrentSkipListMap<Long, Set<Integer>>();
+		currentMeetingId = new AtomicInteger();
+		currentContactId = new AtomicInteger();
+		snapshotLock = new ReentrantReadWriteLock();
+		this.format = format;
+
+		File data = new File(format.getFileName());
+		if (restoreData && data.exists()) restoreData(data);
+	}
+
+	/**
+	 * Helper function used by constructors to restore previously saved data.
+	 *
+	 * @param data file containing data to be loaded
+	 */
+	private void restoreData(File data) {
+		try {
+			format.read(data, new DataRecordHandler() {
+				@Override
+				public void restoreContact(int id, String name, String notes) {
+					restoreContact(id, name, new NotesBuffer(notes));
+				}
+
+				@Override
+				public void restoreContact(int id, String name, NotesBuffer notes) {
+					addContact(ContactImpl.restored(id, name, notes));
+					currentContactId.accumulateAndGet(id + 1, Math::max);
+				}
+
+				@Override
+				public void restorePastMeeting(int id, long date, int[] contactIds, String notes) {
+					restorePastMeeting(id, date, contactIds, new NotesBuffer(notes));
+				}
+
+				@Override
+				public void restorePastMeeting(int id, long date, int[] contactIds, NotesBuffer notes) {
+					addMeeting(PastMeetingImpl.restored(id, date, knownAttendees(contactIds), contactDirectory, notes));
+					currentMeetingId.accumulateAndGet(id + 1, Math::max);
+				}
+
+				@Override
+				public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+					addMeeting(new FutureMeetingImpl(id, date, knownAttendees(contactIds), contactDirectory));
+					currentMeetingId.accumulateAndGet(id + 1, Math::max);
+				}
+			});
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int addFutureMeeting(Set<Contact> contacts, Calendar date) {
+		if (contacts == null || date == null)
+			throw new NullPointerException("Null parameter!");
+		if (contacts.isEmpty())
+			throw new IllegalArgumentException("Must supply contacts!");
+		if (date.getTimeInMillis() < System.currentTimeMillis())
+			throw new IllegalArgumentException("Date is in the past already!");
+		checkContacts(contacts);
+
+		snapshotLock.readLock().lock();
+		try {
+			int id = currentMeetingId.getAndIncrement();
+			addMeeting(new FutureMeetingImpl(id, date.getTimeInMillis(), MeetingImpl.idsOf(contacts),
+					contactDirectory));
+			return id;
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PastMeeting getPastMeeting(int id) {
+		Meeting meeting = meetings.get(id);
+		if (meeting instanceof FutureMeeting)
+			throw new IllegalArgumentException("Meeting ID represents future meeting!");
+		return (PastMeeting) meeting;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FutureMeeting getFutureMeeting(int id) {
+		Meeting meeting = meetings.get(id);
+		if (meeting instanceof PastMeeting)
+			throw new IllegalArgumentException("Meeting ID represents past meeting!");
+		return (FutureMeeting) meeting;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Meeting getMeeting(int id) {
+		return meetings.get(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getFutureMeetingList(Contact contact) {
+		if (contact == null)
+			throw new IllegalArgumentException("Null contact provided!");
+		if (!isInDb(contact))
+			throw new IllegalArgumentException("Contact does not exist!");
+
+		return meetingsOf(contact).stream()
+				.filter(meeting -> meeting instanceof FutureMeeting)
+				.sorted(CHRONOLOGICAL)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Selects matches from the start of the given day up to the start of the
+	 * next day, as seen from the time zone of the date provided.
+	 */
+	@Override
+	public List<Meeting> getFutureMeetingList(Calendar date) {
+		if (date == null)
+			throw new IllegalArgumentException("Null date provided!");
+		Calendar dayStart = (Calendar) date.clone();
+		dayStart.set(Calendar.HOUR_OF_DAY, 0);
+		dayStart.set(Calendar.MINUTE, 0);
+		dayStart.set(Calendar.SECOND, 0);
+		dayStart.set(Calendar.MILLISECOND, 0);
+		Calendar dayEnd = (Calendar) dayStart.clone();
+		dayEnd.add(Calendar.DAY_OF_YEAR, 1);
+
+		return getMeetingsInRange(dayStart.getTimeInMillis(), dayEnd.getTimeInMillis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getMeetingsBetween(Calendar start, Calendar end) {
+		if (start == null || end == null)
+			throw new IllegalArgumentException("Null date provided!");
+		if (end.before(start))
+			throw new IllegalArgumentException("End of range is before its start!");
+
+		return getMeetingsInRange(start.getTimeInMillis(), end.getTimeInMillis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<PastMeeting> getPastMeetingList(Contact contact) {
+		if (!isInDb(contact))
+			throw new IllegalArgumentException("Contact does not exist!");
+
+		return meetingsOf(contact).stream()
+				.filter(meeting -> meeting instanceof PastMeeting)
+				.sorted(CHRONOLOGICAL)
+				.map(meeting -> (PastMeeting) meeting)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addNewPastMeeting(Set<Contact> contacts, Calendar date, String text) {
+		if (contacts == null || date == null || text == null)
+			throw new NullPointerException("Null parameter!");
+		if (contacts.isEmpty())
+			throw new IllegalArgumentException("Must supply contacts!");
+		checkContacts(contacts);
+
+		snapshotLock.readLock().lock();
+		try {
+			addMeeting(new PastMeetingImpl(currentMeetingId.getAndIncrement(), date.getTimeInMillis(),
+					MeetingImpl.idsOf(contacts), contactDirectory, text));
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * The meeting is replaced atomically, so concurrent notes on the
+	 * same meeting are all kept. Notes on a past meeting are added to a copy,
+	 * so a flush saving the meeting keeps the notes it copied.
+	 */
+	@Override
+	public void addMeetingNotes(int id, String text) {
+		if (text == null) throw new NullPointerException("Notes are null!");
+
+		snapshotLock.readLock().lock();
+		try {
+			Meeting updated = meetings.computeIfPresent(id, (key, meeting) -> {
+				if (meeting instanceof PastMeetingImpl)
+					return ((PastMeetingImpl) meeting).withNotes(text);
+				if (meeting instanceof PastMeeting)
+					return new PastMeetingImpl(id, meeting.getTimeInMillis(), meeting.getContactIds(),
+							contactDirectory, String.format("%s\n%s", ((PastMeeting) meeting).getNotes(), text));
+				if (meeting.getTimeInMillis() > System.currentTimeMillis())
+					throw new IllegalStateException("Meeting is still scheduled for the future!");
+				return new PastMeetingImpl(id, meeting.getTimeInMillis(), meeting.getContactIds(),
+						contactDirectory, text);
+			});
+			if (updated == null)
+				throw new IllegalArgumentException("ID does not represent meeting!");
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addNewContact(String name, String notes) {
+		if (name == null || notes == null)
+			throw new NullPointerException("Neither name nor notes may be null!");
+
+		snapshotLock.readLock().lock();
+		try {
+			addContact(new ContactImpl(currentContactId.getAndIncrement(), name, notes));
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * The whole range of ids is taken from the counter at once.
+	 */
+	@Override
+	public int addNewContacts(Collection<? extends Contact> newContacts) {
+		if (newContacts == null) throw new NullPointerException("Null parameter!");
+		for (Contact contact : newContacts){
+			if (contact == null || contact.getName() == null || contact.getNotes() == null)
+				throw new NullPointerException("Neither name nor notes may be null!");
+		}
+
+		snapshotLock.readLock().lock();
+		try {
+			int firstId = currentContactId.getAndAdd(newContacts.size());
+			int id = firstId;
+			for (Contact contact : newContacts){
+				addContact(new ContactImpl(id++, contact.getName(), contact.getNotes()));
+			}
+			return firstId;
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * All meetings are checked before the whole range of ids is taken
+	 * from the counter at once.
+	 */
+	@Override
+	public int addNewPastMeetings(Collection<? extends PastMeeting> newMeetings) {
+		if (newMeetings == null) throw new NullPointerException("Null parameter!");
+		for (PastMeeting meeting : newMeetings){
+			if (meeting == null || meeting.getNotes() == null)
+				throw new NullPointerException("Null parameter!");
+			checkNewMeeting(meeting);
+		}
+
+		snapshotLock.readLock().lock();
+		try {
+			int firstId = currentMeetingId.getAndAdd(newMeetings.size());
+			int id = firstId;
+			for (PastMeeting meeting : newMeetings){
+				addMeeting(new PastMeetingImpl(id++, meeting.getTimeInMillis(),
+						meeting.getContactIds(), contactDirectory, meeting.getNotes()));
+			}
+			return firstId;
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * All meetings are checked before the whole range of ids is taken
+	 * from the counter at once.
+	 */
+	@Override
+	public int addFutureMeetings(Collection<? extends FutureMeeting> newMeetings) {
+		if (newMeetings == null) throw new NullPointerException("Null parameter!");
+		long now = System.currentTimeMillis();
+		for (FutureMeeting meeting : newMeetings){
+			if (meeting == null) throw new NullPointerException("Null parameter!");
+			checkNewMeeting(meeting);
+			if (meeting.getTimeInMillis() < now)
+				throw new IllegalArgumentException("Date is in the past already!");
+		}
+
+		snapshotLock.readLock().lock();
+		try {
+			int firstId = currentMeetingId.getAndAdd(newMeetings.size());
+			int id = firstId;
+			for (FutureMeeting meeting : newMeetings){
+				addMeeting(new FutureMeetingImpl(id++, meeting.getTimeInMillis(),
+						meeting.getContactIds(), contactDirectory));
+			}
+			return firstId;
+		} finally {
+			snapshotLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Contact> getContacts(int... ids) {
+		Set<Contact> foundContacts = new HashSet<Contact>();
+		for (int id : ids){
+			Contact contact = contacts.get(id);
+			if (contact != null) foundContacts.add(contact);
+		}
+
+		if (foundContacts.isEmpty())
+			throw new IllegalArgumentException("Id not found!");
+		return foundContacts;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Note: the empty String returns all contacts.
+	 */
+	@Override
+	public Set<Contact> getContacts(String name) {
+		if (name == null) throw new NullPointerException("Name is null!");
+		Set<Contact> foundContacts = new HashSet<Contact>();
+
+		if (name.length() < GRAM_LENGTH) {
+			for (Contact contact : contacts.values()){
+				if (contact.getName().contains(name)) foundContacts.add(contact);
+			}
+		} else {
+			Set<Integer> candidateIds = null;
+			for (int i = 0; i + GRAM_LENGTH <= name.length(); i++){
+				Set<Integer> ids = contactNames.get(name.substring(i, i + GRAM_LENGTH));
+				if (ids == null) throw new IllegalArgumentException("Name not found!");
+				if (candidateIds == null || ids.size() < candidateIds.size()) candidateIds = ids;
+			}
+			for (int id : candidateIds){
+				Contact contact = contacts.get(id);
+				if (contact != null && contact.getName().contains(name)) foundContacts.add(contact);
+			}
+		}
+
+		if (foundContacts.isEmpty())
+			throw new IllegalArgumentException("Name not found!");
+		return foundContacts;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Changes are held off only while references to all records are copied,
+	 * then the copy is written to a new file which replaces the old one.
+	 */
+	@Override
+	public void flush() {
+		List<Contact> savedContacts;
+		List<PastMeeting> savedPastMeetings = new ArrayList<PastMeeting>();
+		List<FutureMeeting> savedFutureMeetings = new ArrayList<FutureMeeting>();
+
+		snapshotLock.writeLock().lock();
+		try {
+			savedContacts = new ArrayList<Contact>(contacts.values());
+			for (Meeting meeting : meetings.values()){
+				if (meeting instanceof PastMeeting) savedPastMeetings.add((PastMeeting) meeting);
+				else savedFutureMeetings.add((FutureMeeting) meeting);
+			}
+		} finally {
+			snapshotLock.writeLock().unlock();
+		}
+
+		savedContacts.sort(Comparator.comparingInt(Contact::getId));
+		try {
+			format.save(new File(format.getFileName()), savedContacts,
+					savedPastMeetings, savedFutureMeetings);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Helper function which indexes a contact's name and then publishes it.
+	 *
+	 * @param contact the contact to add
+	 */
+	private void addContact(Contact contact) {
+		String name = contact.getName();
+		for (int i = 0; i + GRAM_LENGTH <= name.length(); i++){
+			contactNames.computeIfAbsent(name.substring(i, i + GRAM_LENGTH),
+					gram -> ConcurrentHashMap.newKeySet()).add(contact.getId());
+		}
+		contacts.put(contact.getId(), contact);
+	}
+
+	/**
+	 * Helper function which indexes a new meeting by time and attendees
+	 * and then publishes it.
+	 *
+	 * @param meeting the meeting to add
+	 */
+	private void addMeeting(Meeting meeting) {
+		Integer id = meeting.getId();
+		meetingsByTime.computeIfAbsent(meeting.getTimeInMillis(),
+				time -> ConcurrentHashMap.newKeySet()).add(id);
+		for (int contactId : meeting.getContactIds()){
+			meetingsByContact.computeIfAbsent(contactId,
+					key -> ConcurrentHashMap.newKeySet()).add(id);
+		}
+		meetings.put(id, meeting);
+	}
+
+	/**
+	 * Helper function which collects the published meetings held from one
+	 * time up to another in chronological order.
+	 *
+	 * @param from time in ms, inclusive
+	 * @param to time in ms, exclusive
+	 * @return list of meetings within the range
+	 */
+	private List<Meeting> getMeetingsInRange(long from, long to) {
+		List<Meeting> found = new ArrayList<Meeting>();
+		for (Set<Integer> ids : meetingsByTime.subMap(from, true, to, false).values()){
+			for (int id : ids){
+				Meeting meeting = meetings.get(id);
+				if (meeting != null) found.add(meeting);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Helper function which collects the published meetings of a contact.
+	 *
+	 * @param contact whose meetings are wanted
+	 * @return the contact's meetings in no particular order
+	 */
+	private List<Meeting> meetingsOf(Contact contact) {
+		List<Meeting> found = new ArrayList<Meeting>();
+		Set<Integer> ids = meetingsByContact.get(contact.getId());
+		if (ids == null) return found;
+		for (int id : ids){
+			Meeting meeting = meetings.get(id);
+			if (meeting != null) found.add(meeting);
+		}
+		return found;
+	}
+
+	private void checkNewMeeting(Meeting meeting) {
+		if (meeting.getContacts() == null)
+			throw new NullPointerException("Null parameter!");
+		if (meeting.getContacts().isEmpty())
+			throw new IllegalArgumentException("Must supply contacts!");
+		checkContacts(meeting.getContacts());
+	}
+
+	private void checkContacts(Set<Contact> contacts) {
+		for (Contact contact : contacts){
+			if (!isInDb(contact))
+				throw new IllegalArgumentException("Unknown Contact!");
+		}
+	}
+
+	private boolean isInDb(Contact contact) {
+		return contact != null && contacts.containsKey(contact.getId());
+	}
+
+	private int[] knownAttendees(int[] ids) {
+		return MeetingImpl.sortedIds(Arrays.stream(ids).filter(contacts::containsKey).toArray());
+	}
+}
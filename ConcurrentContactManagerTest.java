@@ -0,0 +1,205 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * ConcurrentContactManager Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class ConcurrentContactManagerTest {
+
+	private static final int THREADS = 8;
+	private static final int CHANGES_PER_THREAD = 500;
+
+	private ContactManager cm = new ConcurrentContactManager(false);
+
+	@Test
+	public void addNewContact_manyThreads_uniqueIds() throws Exception {
+		runInParallel(() -> {
+			for (int i = 0; i < CHANGES_PER_THREAD; i++){
+				cm.addNewContact("Contact", "");
+			}
+			return null;
+		});
+		Set<Integer> ids = new HashSet<Integer>();
+		for (Contact contact : cm.getContacts("")){
+			ids.add(contact.getId());
+		}
+		assertEquals(true, ids.size() == THREADS * CHANGES_PER_THREAD);
+	}
+
+	@Test
+	public void addNewContacts_manyThreads_consecutiveIdsPerBatch() throws Exception {
+		List<Contact> batch = new ArrayList<Contact>();
+		for (int i = 0; i < CHANGES_PER_THREAD; i++){
+			batch.add(new ContactImpl(-1, "Contact", ""));
+		}
+		Set<Integer> firstIds = ConcurrentHashMap.newKeySet();
+		runInParallel(() -> {
+			firstIds.add(cm.addNewContacts(batch));
+			return null;
+		});
+		boolean consecutive = firstIds.size() == THREADS;
+		for (int firstId : firstIds){
+			if (firstId % CHANGES_PER_THREAD != 0) consecutive = false;
+		}
+		assertEquals(true, consecutive && cm.getContacts("").size() == THREADS * CHANGES_PER_THREAD);
+	}
+
+	@Test
+	public void addNewPastMeeting_manyThreads_allMeetingsListed() throws Exception {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		runInParallel(() -> {
+			for (int i = 0; i < CHANGES_PER_THREAD; i++){
+				cm.addNewPastMeeting(contacts, pastDate(i), "");
+			}
+			return null;
+		});
+		List<PastMeeting> meetings = cm.getPastMeetingList(contacts.iterator().next());
+		boolean inOrder = true;
+		for (int i = 1; i < meetings.size(); i++){
+			if (meetings.get(i).getDate().before(meetings.get(i - 1).getDate())) inOrder = false;
+		}
+		assertEquals(true, meetings.size() == THREADS * CHANGES_PER_THREAD && inOrder);
+	}
+
+	@Test
+	public void addMeetingNotes_manyThreadsOneMeeting_noNotesLost() throws Exception {
+		cm.addNewContact("John", "");
+		cm.addNewPastMeeting(cm.getContacts("John"), pastDate(0), "Start");
+		int id = cm.getPastMeetingList(cm.getContacts("John").iterator().next()).get(0).getId();
+		runInParallel(() -> {
+			for (int i = 0; i < CHANGES_PER_THREAD; i++){
+				cm.addMeetingNotes(id, "Note");
+			}
+			return null;
+		});
+		String[] lines = cm.getPastMeeting(id).getNotes().split("\n");
+		assertEquals(true, lines.length == THREADS * CHANGES_PER_THREAD + 1);
+	}
+
+	@Test (expected = IllegalStateException.class)
+	public void addMeetingNotes_meetingInFuture_throwIllStateEx() {
+		cm.addNewContact("John", "");
+		Calendar date = Calendar.getInstance();
+		date.add(Calendar.YEAR, 1);
+		int id = cm.addFutureMeeting(cm.getContacts("John"), date);
+		cm.addMeetingNotes(id, "Notes");
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void addMeetingNotes_unknownMeeting_throwIllArgEx() {
+		cm.addMeetingNotes(1, "Notes");
+	}
+
+	@Test
+	public void getMeetingsBetween_validRange_returnMeetingsInOrder() {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		cm.addNewPastMeeting(contacts, pastDate(3), "");
+		cm.addNewPastMeeting(contacts, pastDate(1), "");
+		cm.addNewPastMeeting(contacts, pastDate(10), "");
+		List<Meeting> meetings = cm.getMeetingsBetween(pastDate(0), pastDate(5));
+		assertEquals(true, meetings.size() == 2 && meetings.get(0).getDate().equals(pastDate(1)));
+	}
+
+	@Test
+	public void getContacts_longSubstring_returnAsscContacts() {
+		cm.addNewContact("John Smith", "");
+		cm.addNewContact("Jane Smithers", "");
+		cm.addNewContact("Joan Smyth", "");
+		assertEquals(true, cm.getContacts("Smith").size() == 2 && cm.getContacts("ane").size() == 1);
+	}
+
+	@Test
+	public void streamContacts_matchesAndNoMatch_contactsByIdOrEmpty() {
+		cm.addNewContact("John Smith", "");
+		cm.addNewContact("Jane Smithers", "");
+		List<Contact> found = cm.streamContacts("Smith").collect(Collectors.toList());
+		assertEquals(true, found.size() == 2 && found.get(0).getId() == 0
+				&& cm.streamContacts("Smyth").count() == 0);
+	}
+
+	@Test
+	public void flush_savedData_restoreAllData() {
+		cm.addNewContact("John", "Notes");
+		cm.addNewPastMeeting(cm.getContacts("John"), pastDate(0), "Meeting notes");
+		cm.flush();
+		ContactManager restored = new ConcurrentContactManager();
+		Contact contact = restored.getContacts("John").iterator().next();
+		assertEquals(true, restored.getPastMeetingList(contact).get(0).getNotes().equals("Meeting notes"));
+	}
+
+	@Test
+	public void flush_notesAddedWhileSaving_savedNotesFromOnePointInTime() throws Exception {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		cm.addNewPastMeeting(contacts, pastDate(0), "Start");
+		cm.addNewPastMeeting(contacts, pastDate(1), "Start");
+		ExecutorService writer = Executors.newSingleThreadExecutor();
+		boolean consistent = true;
+		try {
+			// notes always go to the first meeting before the second
+			Future<?> notes = writer.submit(() -> {
+				for (int i = 0; i < 20000; i++){
+					cm.addMeetingNotes(0, "Note");
+					cm.addMeetingNotes(1, "Note");
+				}
+			});
+			while (!notes.isDone() && consistent){
+				cm.flush();
+				ContactManager restored = new ConcurrentContactManager();
+				int first = restored.getPastMeeting(0).getNotes().split("\n").length;
+				int second = restored.getPastMeeting(1).getNotes().split("\n").length;
+				consistent = first == second || first == second + 1;
+			}
+			notes.get();
+		} finally {
+			writer.shutdown();
+		}
+		assertEquals(true, consistent);
+	}
+
+	/**
+	 * Runs the task on several threads at once and waits for all of them,
+	 * passing on any exception thrown.
+	 */
+	private void runInParallel(Callable<Void> task) throws Exception {
+		ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (int i = 0; i < THREADS; i++){
+				results.add(threads.submit(task));
+			}
+			for (Future<Void> result : results){
+				result.get();
+			}
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+	private static Calendar pastDate(int daysAfter) {
+		Calendar date = Calendar.getInstance();
+		date.clear();
+		date.set(2015, Calendar.JANUARY, 1, 12, 0);
+		date.add(Calendar.DAY_OF_YEAR, daysAfter);
+		return date;
+	}
+}
@@ -9,7 +9,7 @@ public class ContactImpl implements Contact {
 
 	private int id;
 	private String name;
-	private String notes;
+	private NotesBuffer notes;
 	/**
 	 * Initializes new contact
 	 * 
@@ -20,7 +20,22 @@ public class ContactImpl implements Contact {
 	public ContactImpl(int id, String name, String notes) {
 		this.id = id;
 		this. name = name;
-		this.notes = notes;
+		this.notes = (notes == null) ? null : new NotesBuffer(notes);
+	}
+
+	/**
+	 * Returns a restored contact whose notes are already held in a buffer,
+	 * such as notes left in a data file until they are read.
+	 * 
+	 * @param id unique identifier
+	 * @param name of contact
+	 * @param notes associated with contact
+	 * @return the contact
+	 */
+	static ContactImpl restored(int id, String name, NotesBuffer notes) {
+		ContactImpl contact = new ContactImpl(id, name, "");
+		contact.notes = notes;
+		return contact;
 	}
 
 	/**
@@ -44,17 +59,35 @@ public class ContactImpl implements Contact {
 	 */
 	@Override
 	public String getNotes() {
-		return notes;
+		return (notes == null) ? null : notes.toString();
 	}
 
 	/**
 	 * {@inheritDoc} <br />
 	 * Existing notes are not overwritten but new notes are instead added
-	 * on a new line each time.
+	 * on a new line each time. Adding notes does not copy the notes so far.
 	 */
 	@Override
 	public void addNotes(String note) {
-		notes = (notes.isEmpty()) ? note : String.format("%s\n%s", notes, note);	
+		notes.append(note);
+	}
+
+	/**
+	 * Contacts are equal if they have the same id, as a contact manager
+	 * hands out one contact per id. Meetings look their contacts up by id,
+	 * so the objects they return need not be those they were created with.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof ContactImpl && ((ContactImpl) other).id == id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		return Integer.hashCode(id);
 	}
 
 }
@@ -1,8 +1,11 @@
 
 
 import java.util.Calendar; 
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List; 
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * A class to manage your contacts and meetings. 
@@ -73,6 +76,21 @@ public interface ContactManager {
 	 */
 	List<Meeting> getFutureMeetingList(Calendar date);
 	
+	/**
+	 * Returns the list of meetings that are scheduled for, or that took
+	 * place at, a time from start (inclusive) up to end (exclusive).
+	 * 
+	 * If there are none, the returned list will be empty. Otherwise,
+	 * the list will be chronologically sorted and will not contain any 
+	 * duplicates.
+	 *
+	 * @param start the beginning of the range
+	 * @param end the end of the range
+	 * @return the list of meetings 
+	 * @throws IllegalArgumentException if either date is null or end is before start
+	 */
+	List<Meeting> getMeetingsBetween(Calendar start, Calendar end);
+	
 	/**
 	 * Returns the list of past meetings in which this contact has participated. 
 	 * If there are none, the returned list will be empty. Otherwise,
@@ -85,6 +103,40 @@ public interface ContactManager {
 	 */
 	List<PastMeeting> getPastMeetingList(Contact contact);
 	
+	/**
+	 * Returns the future meetings scheduled with this contact as a stream, 
+	 * chronologically sorted and without duplicates, for callers which only 
+	 * need some of them, e.g. one page with skip(offset).limit(size). 
+	 * 
+	 * Implementations may evaluate the stream lazily, so that meetings 
+	 * past those consumed are never sorted or looked up. By default the
+	 * full list is built first.
+	 *
+	 * @param contact one of the user’s contacts
+	 * @return the future meeting(s) scheduled with this contact (maybe none).
+	 * @throws IllegalArgumentException if the contact does not exist 
+	 */
+	default Stream<Meeting> streamFutureMeetings(Contact contact) {
+		return getFutureMeetingList(contact).stream();
+	}
+	
+	/**
+	 * Returns the past meetings in which this contact has participated as a 
+	 * stream, chronologically sorted and without duplicates, for callers which 
+	 * only need some of them, e.g. one page with skip(offset).limit(size). 
+	 * 
+	 * Implementations may evaluate the stream lazily, so that meetings 
+	 * past those consumed are never sorted or looked up. By default the
+	 * full list is built first.
+	 *
+	 * @param contact one of the user’s contacts
+	 * @return the past meeting(s) this contact participated in (maybe none).
+	 * @throws IllegalArgumentException if the contact does not exist 
+	 */
+	default Stream<PastMeeting> streamPastMeetings(Contact contact) {
+		return getPastMeetingList(contact).stream();
+	}
+	
 	/**
 	 * Create a new record for a meeting that took place in the past
 	 * 
@@ -122,6 +174,50 @@ public interface ContactManager {
 	 */
 	void addNewContact(String name, String notes);
 	
+	/**
+	 * Create a new contact for each of the given contacts, with its name and notes. 
+	 * Their ids are ignored: the new contacts are given consecutive ids in the 
+	 * order of the collection. Either all contacts are added or none is. 
+	 * 
+	 * @param contacts the contacts to add
+	 * @return the ID of the first new contact; the last is this plus the 
+	 * 	number of contacts minus one
+	 * @throws NullPointerException if the collection, a contact, or any 
+	 * 	name or notes is null
+	 */
+	int addNewContacts(Collection<? extends Contact> contacts);
+	
+	/**
+	 * Create a new record for each of the given meetings that took place in the past,
+	 * with its participants, date and notes. Their ids are ignored: the new meetings 
+	 * are given consecutive ids in the order of the collection. Either all meetings 
+	 * are added or none is. 
+	 * 
+	 * @param meetings the meetings to add
+	 * @return the ID of the first new meeting; the last is this plus the 
+	 * 	number of meetings minus one
+	 * @throws IllegalArgumentException if the list of contacts of any meeting
+	 * 	is empty, or any of the contacts does not exist
+	 * @throws NullPointerException if the collection, a meeting, or any
+	 * 	list of contacts or notes is null 
+	 */
+	int addNewPastMeetings(Collection<? extends PastMeeting> meetings);
+	
+	/**
+	 * Add each of the given meetings, with its participants and date, to be held 
+	 * in the future. Their ids are ignored: the new meetings are given consecutive
+	 * ids in the order of the collection. Either all meetings are added or none is. 
+	 * 
+	 * @param meetings the meetings to add
+	 * @return the ID of the first new meeting; the last is this plus the 
+	 * 	number of meetings minus one
+	 * @throws IllegalArgumentException if any meeting is set for a time in the past,
+	 * 	has no contacts, or if any contact is unknown / non-existent.
+	 * @throws NullPointerException if the collection, a meeting, or any
+	 * 	list of contacts is null 
+	 */
+	int addFutureMeetings(Collection<? extends FutureMeeting> meetings);
+	
 	/**
 	 * Returns a list containing the contacts that correspond to the IDs.
 	 * 
@@ -140,6 +236,30 @@ public interface ContactManager {
 	 */
 	Set<Contact> getContacts(String name);
 	
+	/**
+	 * Returns the contacts whose name contains that string as a stream, sorted
+	 * by ID, for callers which only need some of them, e.g. one page with 
+	 * skip(offset).limit(size). Unlike getContacts, no match is not an error.
+	 * 
+	 * Implementations may evaluate the stream lazily, so that names past 
+	 * the contacts consumed are never checked. By default all matches are 
+	 * found first.
+	 *
+	 * @param name the string to search for
+	 * @return the contacts whose name contains that string (maybe none).
+	 * @throws NullPointerException if the parameter is null 
+	 */
+	default Stream<Contact> streamContacts(String name) {
+		if (name == null) throw new NullPointerException("Name is null!");
+		Set<Contact> found;
+		try {
+			found = getContacts(name);
+		} catch (IllegalArgumentException e) {
+			return Stream.empty();
+		}
+		return found.stream().sorted(Comparator.comparingInt(Contact::getId));
+	}
+	
 	/**
 	 * Save all data to disk. 
 	 * 
@@ -1,29 +1,26 @@
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerConfigurationException;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.TransformerFactoryConfigurationError;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An implementation of contact manager
@@ -42,21 +39,87 @@ import javax.xml.transform.stream.StreamResult;
  * give some direction as to where the meeting will likely be found and can reduce
  * the size of collection to search.
  * 
+ * Contacts are kept in a table indexed directly by their (sequentially assigned) id,
+ * which makes checking that a contact exists a single array access. Contact names
+ * are indexed by trigram so a name search only has to check a few candidates.
+ * 
+ * Every meeting is additionally indexed by id in a primitive int-keyed map, so
+ * lookups by id and the past/future check required by the interface do not
+ * need to search either collection.
+ * 
+ * Each contact has two timelines, holding the ids of the past and of the future
+ * meetings the contact attends in date order (see MeetingTimeline). The per-contact
+ * meeting lists read just that contact's timeline, start to end, without sorting.
+ * A meeting is placed by binary search as it is added, and moves from the future
+ * to the past timeline when it is promoted or given notes. As timelines hold ids
+ * rather than meeting objects they stay valid when a meeting is replaced.
+ * 
+ * Meeting ids are also kept in a map ordered by meeting time (in ms), so queries
+ * for a day or any other time range are a range seek over that map and come back
+ * already in chronological order.
+ * 
  * Data is stored permanently in an xml file, one advantage of this format is that it
- * can be imported into other programs without a lot of trouble.
+ * can be imported into other programs without a lot of trouble. A compact binary
+ * snapshot may be chosen instead where startup time matters more (see DataFormat).
+ * 
+ * In journaled mode every change is also appended to a small binary journal as it
+ * is made, so nothing is lost between flushes. Flushing then compacts: the data file
+ * is rewritten and the journal emptied, which also happens on its own once the
+ * journal grows long. Saved data is always restored as the data file plus any
+ * journal left behind.
+ * 
+ * Flushing never overwrites the data file in place: a new file is written next to it
+ * and renamed over it, so a crash leaves either the old or the new data. Flushing may
+ * also be left to a background thread, which saves a snapshot on a schedule or once
+ * enough changes have been made. The snapshot is taken under this object's lock (the
+ * methods making changes hold it too) and written to disk after the lock is released,
+ * so callers only ever wait for the in-memory copy. Apart from that background thread
+ * the contact manager is meant to be used from one thread.
+ * 
+ * Readers on other threads may instead query a snapshot, an unchanging view of the
+ * data at one point in time. Snapshots are kept in persistent maps which are only
+ * built once the first snapshot is asked for; from then on each change also makes
+ * the next snapshot from the last in O(log n), and taking one costs nothing.
+ * 
+ * Future meetings are also queued by date, so a future meeting becomes a past meeting
+ * (without notes) as soon as its date has passed. Each query first checks the earliest
+ * date in the queue and promotes whatever is due, in O(log n) per meeting, so no query
+ * ever sees a future meeting that has already taken place. Promotions are not journaled,
+ * as replaying the changes made before them brings back the same elapsed meetings.
+ * Only queries promote: snapshots and flushes, which may run on other threads, treat
+ * future meetings whose date has passed as past meetings instead.
  * 
  * @author caleb
  *
  */
 public class ContactManagerImpl implements ContactManager {
 	
-	private static final String XML_DATA_FILENAME = "data.xml";	
+	private static final String JOURNAL_FILENAME = "data.journal";
+	private static final int JOURNAL_COMPACTION_THRESHOLD = 10000;
 	
-	private Set<Contact> contacts;
+	private ContactTable contacts;
+	private NameIndex contactNames;
 	private Set<PastMeeting> pastMeetings;
 	private Set<FutureMeeting> futureMeetings;
+	private IntObjectMap<Meeting> meetingsById;
+	private IntObjectMap<MeetingTimeline> pastMeetingsByContact;
+	private IntObjectMap<MeetingTimeline> futureMeetingsByContact;
+	private IntArrayPool attendeeLists;
+	private final IntFunction<Contact> contactDirectory = id -> contacts.get(id);
+	private NavigableMap<Long, IntList> meetingsByTime;
 	private int currentMeetingId;
 	private int currentContactId;
+	private DataFormat format;
+	private ContactManagerJournal journal;
+	private final Object flushLock = new Object();
+	private ScheduledExecutorService flusher;
+	private int dirtyThreshold;
+	private int changesSinceFlush;
+	private boolean flushRequested;
+	private ContactManagerSnapshot latestSnapshot;
+	private PriorityQueue<FutureMeeting> promotionQueue;
+	private volatile long nextPromotionTime;
+	private boolean promoteOnQuery = true;
 		
 	/**
 	 * Constructor to initialize new contact manager.
@@ -66,9 +129,7 @@ public class ContactManagerImpl implements ContactManager {
 	 * 		passing true yields the same result as the default constructor
 	 */
 	public ContactManagerImpl(boolean restoreData) {
-		setInitAttributes();
-		File xmlData = new File(XML_DATA_FILENAME);
-		if (restoreData && xmlData.exists()) restoreData(xmlData);		
+		this(restoreData, false);
 	}
 	
 	/**
@@ -77,18 +138,68 @@ public class ContactManagerImpl implements ContactManager {
 	 * 
 	 */
 	public ContactManagerImpl(){
+		this(true, false);
+	}
+	
+	/**
+	 * Constructor to initialize new contact manager, optionally in journaled mode.<br />
+	 * In journaled mode each change is appended to the journal file as it is
+	 * made. Ignoring saved data in journaled mode discards it straight away, as
+	 * the new journal could not otherwise be replayed on top of it.
+	 * 
+	 * @param restoreData boolean, false ignores saved data and loads initial values
+	 * @param journaled boolean, true to journal every change
+	 */
+	public ContactManagerImpl(boolean restoreData, boolean journaled) {
+		this(restoreData, journaled, DataFormat.XML);
+	}
+	
+	/**
+	 * Constructor to initialize new contact manager which saves its data
+	 * in the given format.
+	 * 
+	 * @param restoreData boolean, false ignores saved data and loads initial values
+	 * @param journaled boolean, true to journal every change
+	 * @param format of the data file read on startup and written by flush
+	 */
+	public ContactManagerImpl(boolean restoreData, boolean journaled, DataFormat format) {
 		setInitAttributes();
-		File xmlData = new File(XML_DATA_FILENAME);
-		if (xmlData.exists()) restoreData(xmlData);
+		this.format = format;
+		File data = new File(format.getFileName());
+		File journalData = new File(JOURNAL_FILENAME);
+		if (restoreData && data.exists()) restoreData(data);
+		
+		File rotatedJournalData = ContactManagerJournal.rotatedFile(journalData);
+		boolean interruptedFlush = restoreData && rotatedJournalData.exists();
+		if (interruptedFlush) replayJournal(rotatedJournalData);
+		long journalLength = 0;
+		if (restoreData && journalData.exists()) journalLength = replayJournal(journalData);
+		if (journaled) {
+			try {
+				journal = new ContactManagerJournal(journalData, journalLength);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		// fold a journal left behind by an interrupted flush before rotating again
+		if (interruptedFlush || (journaled && !restoreData)) recover();
 	}
 	
 	/**
 	 * Helper function used by constructors to initialize values.
 	 */
 	private void setInitAttributes(){
-		contacts = new HashSet<Contact>();
+		contacts = new ContactTable();
+		contactNames = new NameIndex();
 		pastMeetings = new HashSet<PastMeeting>();
 		futureMeetings = new HashSet<FutureMeeting>();
+		meetingsById = new IntObjectMap<Meeting>();
+		pastMeetingsByContact = new IntObjectMap<MeetingTimeline>();
+		futureMeetingsByContact = new IntObjectMap<MeetingTimeline>();
+		attendeeLists = new IntArrayPool();
+		meetingsByTime = new TreeMap<Long, IntList>();
+		promotionQueue = new PriorityQueue<FutureMeeting>(Comparator.comparingLong(Meeting::getTimeInMillis));
+		nextPromotionTime = Long.MAX_VALUE;
 		currentMeetingId = 0;
 		currentContactId = 0;		
 	}
@@ -96,152 +207,226 @@ public class ContactManagerImpl implements ContactManager {
 	
 	/**
 	 * Helper function used by constructors to restore previously
-	 * saved data
+	 * saved data.<br />
+	 * The file is streamed record by record, and each meeting's contacts
+	 * are looked up directly by id in the contact table.
 	 * 
-	 * @param File (xml) containing data to be loaded.
-	 * @return boolean, true if method executes.
+	 * @param File (in this manager's format) containing data to be loaded.
+	 * @return boolean, true if the data was read completely.
 	 */
-	private boolean restoreData(File xmlData){
-		
-		DocumentBuilder builder = null;
+	private boolean restoreData(File data){
 		try {
-			builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-		} catch (ParserConfigurationException e) {
+			format.read(data, new Restorer());
+		} catch (IOException e) {
 			e.printStackTrace();
+			return false;
 		}
 		
-		Document doc = null;
+		return true;
+	}
+	
+	/**
+	 * Helper function used by constructors to replay the journal
+	 * on top of the restored xml data.
+	 * 
+	 * @param journalData the journal file
+	 * @return length of the journal's complete records
+	 */
+	private long replayJournal(File journalData) {
 		try {
-			doc = builder.parse(xmlData);
-		} catch (SAXException e) {
-			e.printStackTrace();
+			return ContactManagerJournal.replay(journalData, new Restorer());
 		} catch (IOException e) {
 			e.printStackTrace();
+			return 0;
 		}
-				
-		NodeList contactNodes = doc.getElementsByTagName("contact");
-		for (int i = 0; i < contactNodes.getLength(); i++){
-			Node currentNode = contactNodes.item(i);
-			NamedNodeMap attributes = currentNode.getAttributes();
-			String id = attributes.getNamedItem("id").getNodeValue();
-			String name = attributes.getNamedItem("name").getNodeValue();
-			String notes = attributes.getNamedItem("notes").getNodeValue();
-			contacts.add(new ContactImpl(Integer.parseInt(id), name, notes));
-			currentContactId++;
+	}
+	
+	/**
+	 * Rebuilds state from the records of a data file or journal.<br />
+	 * Id counters are moved past the highest id restored. Records for
+	 * contacts and meetings already restored are skipped, as a journal
+	 * left behind by an interrupted compaction repeats records which the
+	 * xml file holds in a more recent state.
+	 */
+	private class Restorer implements JournalRecordHandler {
 
+		@Override
+		public void restoreContact(int id, String name, String notes) {
+			restoreContact(id, name, new NotesBuffer(notes));
 		}
-		
-		NodeList pastMeetingNodes = doc.getElementsByTagName("past_meeting");
-		for (int i = 0; i < pastMeetingNodes.getLength(); i++){
-			Node currentNode = pastMeetingNodes.item(i);
-			NamedNodeMap attributes = currentNode.getAttributes();
-			
-			String id = attributes.getNamedItem("id").getNodeValue();
-			
-			String dateInMs = attributes.getNamedItem("date").getNodeValue();
-			Calendar date = Calendar.getInstance();
-			date.setTimeInMillis(Long.parseLong(dateInMs));
-			
-			String[] contactList = attributes.getNamedItem("contact_id_list")
-					.getNodeValue().split(", ");
-			int[] contactIdList = new int[contactList.length];
-			for (int j = 0; j < contactList.length; j++){
-				contactIdList[j] = Integer.parseInt(contactList[j]);	
-			}
+
+		@Override
+		public void restoreContact(int id, String name, NotesBuffer notes) {
+			if (!contacts.contains(id)) addContact(ContactImpl.restored(id, name, notes));
+			currentContactId = Math.max(currentContactId, id + 1);
+		}
+
+		@Override
+		public void restorePastMeeting(int id, long date, int[] contactIds, String notes) {
+			restorePastMeeting(id, date, contactIds, new NotesBuffer(notes));
+		}
+
+		@Override
+		public void restorePastMeeting(int id, long date, int[] contactIds, NotesBuffer notes) {
+			if (!meetingsById.containsKey(id))
+				addPastMeeting(PastMeetingImpl.restored(id, date, knownAttendees(contactIds), 
+						contactDirectory, notes));
+			currentMeetingId = Math.max(currentMeetingId, id + 1);
+		}
+
+		@Override
+		public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+			if (!meetingsById.containsKey(id))
+				addFutureMeeting(new FutureMeetingImpl(id, date, knownAttendees(contactIds), 
+						contactDirectory));
+			currentMeetingId = Math.max(currentMeetingId, id + 1);
+		}
+
+		/**
+		 * The notes are only added if the meeting is still in the state
+		 * they were first added to, which keeps replaying idempotent.
+		 */
+		@Override
+		public void restoreMeetingNotes(int id, int previousLength, String text) {
+			Meeting meeting = meetingsById.get(id);
+			// a meeting promoted without notes matches either length before any notes
+			if (meeting != null && Math.max(notesLength(meeting), 0) == Math.max(previousLength, 0)) 
+				addNotes(meeting, text);
+		}
+	}
+	
+	/**
+	 * Helper function which turns the contact ids of a restored meeting into
+	 * the sorted ids meetings hold, skipping any id without a contact.
+	 * 
+	 * @param ids of the meeting's contacts
+	 * @return the pooled ids
+	 */
+	private int[] knownAttendees(int[] ids) {
+		return attendeeLists.intern(MeetingImpl.sortedIds(
+				Arrays.stream(ids).filter(contacts::contains).toArray()));
+	}
 	
-			String notes = attributes.getNamedItem("notes").getNodeValue();
-			
-			pastMeetings.add(new PastMeetingImpl(Integer.parseInt(id), date, 
-					getContacts(contactIdList), notes));
-			currentMeetingId++;
+	/**
+	 * Helper function which turns a set of contacts into the sorted ids
+	 * meetings hold. Meetings of the same contacts share one array.
+	 * 
+	 * @param attendees the meeting's contacts
+	 * @return the pooled ids
+	 */
+	private int[] attendees(Set<Contact> attendees) {
+		return attendeeLists.intern(MeetingImpl.idsOf(attendees));
+	}
+	
+	/**
+	 * Helper function called by every change. Appends the record to the
+	 * journal, if journaling, and flushes once the journal has grown long
+	 * or, with a background flusher, once enough changes have been made.
+	 * 
+	 * @param record writes the record to the journal
+	 */
+	private void log(JournalRecord record) {
+		log(record, 1);
+	}
+	
+	/**
+	 * Helper function called by a batch of changes, which appends all their
+	 * records to the journal before checking once whether to flush.
+	 * 
+	 * @param records writes the records to the journal
+	 * @param changes number of changes in the batch
+	 */
+	private void log(JournalRecord records, int changes) {
+		changesSinceFlush += changes;
+		if (journal != null) {
+			try {
+				records.appendTo(journal);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
 		}
-		
-		NodeList futureMeetingNodes = doc.getElementsByTagName("future_meeting");
-		for (int i = 0; i < futureMeetingNodes.getLength(); i++){
-			Node currentNode = futureMeetingNodes.item(i);
-			NamedNodeMap attributes = currentNode.getAttributes();
-			
-			String id = attributes.getNamedItem("id").getNodeValue();
-			
-			String dateInMs = attributes.getNamedItem("date").getNodeValue();
-			Calendar date = Calendar.getInstance();
-			date.setTimeInMillis(Long.parseLong(dateInMs));
-			
-			String[] contactList = attributes.getNamedItem("contact_id_list")
-					.getNodeValue().split(", ");
-			int[] contactIdList = new int[contactList.length];
-			for (int j = 0; j < contactList.length; j++){
-				contactIdList[j] = Integer.parseInt(contactList[j]);	
+		boolean compactionDue = journal != null 
+				&& journal.getRecordCount() >= JOURNAL_COMPACTION_THRESHOLD;
+		if (flusher != null) {
+			if (!flushRequested && (compactionDue || changesSinceFlush >= dirtyThreshold)) {
+				flushRequested = true;
+				flusher.execute(this::flush);
 			}
-				
-			futureMeetings.add(new FutureMeetingImpl(Integer.parseInt(id), date, 
-					getContacts(contactIdList)));
-			currentMeetingId++;
+		} else if (compactionDue) {
+			flush();
 		}
-		
-		return true;
 	}
+	
+	/**
+	 * A change to be written to the journal.
+	 */
+	private interface JournalRecord {
+		void appendTo(ContactManagerJournal journal) throws IOException;
+	}
+	
+	private static int notesLength(Meeting meeting) {
+		if (meeting instanceof PastMeetingImpl) return ((PastMeetingImpl) meeting).notesLength();
+		return (meeting instanceof PastMeeting) ? ((PastMeeting) meeting).getNotes().length() : -1;
+	}
+	
 	/**
 	 * {@inheritDoc}<br />
 	 * ID for future meeting is generated by the contact manager
 	 * and identifies the unique record within contact manager as opposed
-	 * to the object itself.
+	 * to the object itself. The set of contacts is copied, so later changes
+	 * to the caller's set do not alter the meeting.
 	 */
 	@Override
-	public int addFutureMeeting(Set<Contact> contacts, Calendar date) {
+	public synchronized int addFutureMeeting(Set<Contact> contacts, Calendar date) {
 		if (contacts == null || date == null) 
 			throw new NullPointerException("Null parameter!");
 		if (contacts.isEmpty()) 
 			throw new IllegalArgumentException("Must supply contacts!");
-		if (date.before(Calendar.getInstance())) 
+		if (date.getTimeInMillis() < System.currentTimeMillis()) 
 			throw new IllegalArgumentException("Date is in the past already!");
 		
 		for (Contact contact : contacts){
 			if (!isInDb(contact)) 
 				throw new IllegalArgumentException("Unknown Contact!");
 		}
-		futureMeetings.add(new FutureMeetingImpl(currentMeetingId, (Calendar) date.clone(), contacts));
+		FutureMeeting meeting = new FutureMeetingImpl(currentMeetingId, date.getTimeInMillis(), 
+				attendees(contacts), contactDirectory);
+		addFutureMeeting(meeting);
+		log(journal -> journal.appendFutureMeeting(meeting.getId(), 
+				meeting.getTimeInMillis(), meeting.getContactIds()));
 		
 		return currentMeetingId++;
 	}
 
 	/**
 	 * {@inheritDoc}<br />
-	 * All past meetings are checked before checking future meetings
-	 * as ID should be found among past meetings.
+	 * The meeting is found through the id index, its type tells
+	 * whether it is a past or future meeting.
 	 * 
 	 */
 	@Override
 	public PastMeeting getPastMeeting(int id) {
-		for (PastMeeting meeting : pastMeetings){
-			if (meeting.getId() == id) 
-				return meeting;
-		}
-		for (FutureMeeting meeting : futureMeetings){
-			if (meeting.getId() == id) 
-				throw new IllegalArgumentException("Meeting ID represents future meeting!");
-		}
+		promoteIfDue();
+		Meeting meeting = meetingsById.get(id);
+		if (meeting instanceof FutureMeeting) 
+			throw new IllegalArgumentException("Meeting ID represents future meeting!");
 		
-		return null;
+		return (PastMeeting) meeting;
 	}
 
 	/**
 	 * {@inheritDoc}<br />
-	 * All future meetings check prior to past meetings as that is the
-	 * expected location
+	 * The meeting is found through the id index, its type tells
+	 * whether it is a past or future meeting.
 	 */
 	@Override
 	public FutureMeeting getFutureMeeting(int id) {
-		for (FutureMeeting meeting : futureMeetings){
-			if (meeting.getId() == id) 
-				return meeting;
-		}
-		for (PastMeeting meeting : pastMeetings){
-			if (meeting.getId() == id)
-				throw new IllegalArgumentException("Meeting ID represents past meeting!");
-		}
+		promoteIfDue();
+		Meeting meeting = meetingsById.get(id);
+		if (meeting instanceof PastMeeting)
+			throw new IllegalArgumentException("Meeting ID represents past meeting!");
 		
-		return null;
+		return (FutureMeeting) meeting;
 	}
 
 	/**
@@ -249,97 +434,142 @@ public class ContactManagerImpl implements ContactManager {
 	 */
 	@Override
 	public Meeting getMeeting(int id) {
-		for (Meeting meeting : futureMeetings){
-			if (meeting.getId() == id) 
-				return meeting;
-		}
-
-		for (Meeting meeting : pastMeetings){
-			if (meeting.getId() == id) 
-				return meeting;
-		}
-		
-		return null;
+		promoteIfDue();
+		return meetingsById.get(id);
 	}
 
 	/**
 	 * {@inheritDoc}<br />
-	 * Matches based on contact's id
+	 * Matches based on contact's id, using the contact's entry in the
+	 * inverted meeting index.
 	 */
 	@Override
 	public List<Meeting> getFutureMeetingList(Contact contact) {
+		return streamFutureMeetings(contact).collect(Collectors.toList());
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * The ids of the contact's future meetings are copied from its timeline when
+	 * the stream is created, and each meeting is looked up as the stream is
+	 * consumed. Meetings promoted or given notes meanwhile come out as they are
+	 * by then, and meetings added meanwhile are left out.
+	 */
+	@Override
+	public Stream<Meeting> streamFutureMeetings(Contact contact) {
+		promoteIfDue();
 		if (contact == null) 
 			throw new IllegalArgumentException("Null contact provided!");
 		if (!isInDb (contact)) 
 			throw new IllegalArgumentException("Contact does not exist!");
-		List<Meeting> meetings = new LinkedList<Meeting>();
 		
-		for (Meeting meeting : futureMeetings)
-			for (Contact member : meeting.getContacts())
-				if (member.getId() == contact.getId())
-					meetings.add(meeting);
-		
-		return meetings.stream()
-				.sorted((meeting, nextMeeting) -> meeting.getDate().compareTo(nextMeeting.getDate()))
-				.collect(Collectors.toList());
+		return streamTimeline(futureMeetingsByContact.get(contact.getId()));
 	}
 
 	/**
 	 * {@inheritDoc}<br />
-	 * Selects matches by year and day of year
+	 * Selects matches from the start of the given day up to the start of the
+	 * next day, as seen from the time zone of the date provided.
 	 */
 	@Override
 	public List<Meeting> getFutureMeetingList(Calendar date) {
+		promoteIfDue();
 		if (date == null) 
 			throw new IllegalArgumentException("Null date provided!");
-		List<Meeting> meetings = new LinkedList<Meeting>();
-		int year = date.get(Calendar.YEAR);
-		int day = date.get(Calendar.DAY_OF_YEAR);
+		Calendar dayStart = (Calendar) date.clone();
+		dayStart.set(Calendar.HOUR_OF_DAY, 0);
+		dayStart.set(Calendar.MINUTE, 0);
+		dayStart.set(Calendar.SECOND, 0);
+		dayStart.set(Calendar.MILLISECOND, 0);
+		Calendar dayEnd = (Calendar) dayStart.clone();
+		dayEnd.add(Calendar.DAY_OF_YEAR, 1);
 		
-		for (Meeting meeting : futureMeetings){
-			if (meeting.getDate().get(Calendar.YEAR) == year
-					&& meeting.getDate().get(Calendar.DAY_OF_YEAR) == day)
-				meetings.add(meeting);
-		}
-		for (Meeting meeting : pastMeetings){
-			if (meeting.getDate().get(Calendar.YEAR) == year
-					&& meeting.getDate().get(Calendar.DAY_OF_YEAR) == day)
-				meetings.add(meeting);
+		return getMeetingsInRange(dayStart.getTimeInMillis(), dayEnd.getTimeInMillis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getMeetingsBetween(Calendar start, Calendar end) {
+		promoteIfDue();
+		if (start == null || end == null) 
+			throw new IllegalArgumentException("Null date provided!");
+		if (end.before(start)) 
+			throw new IllegalArgumentException("End of range is before its start!");
+		
+		return getMeetingsInRange(start.getTimeInMillis(), end.getTimeInMillis());
+	}
+
+	/**
+	 * Helper function which collects the meetings held from one time up to
+	 * another from the time index. Meetings come out in chronological order.
+	 * 
+	 * @param from time in ms, inclusive
+	 * @param to time in ms, exclusive
+	 * @return list of meetings within the range
+	 */
+	private List<Meeting> getMeetingsInRange(long from, long to) {
+		List<Meeting> meetings = new ArrayList<Meeting>();
+		
+		for (IntList meetingIds : meetingsByTime.subMap(from, true, to, false).values()){
+			for (int i = 0; i < meetingIds.size(); i++){
+				meetings.add(meetingsById.get(meetingIds.get(i)));
+			}
 		}
 		
-		return meetings.stream()
-				.sorted((meeting, nextMeeting) -> meeting.getDate().compareTo(nextMeeting.getDate()))
-				.collect(Collectors.toList());
+		return meetings;
 	}
 
 	
 	/**
 	 * {@inheritDoc}<br />
-	 * Matches based on contact id
+	 * Matches based on contact id, using the contact's entry in the
+	 * inverted meeting index.
 	 */
 	@Override
 	public List<PastMeeting> getPastMeetingList(Contact contact) {
+		return streamPastMeetings(contact).collect(Collectors.toList());
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * The ids of the contact's past meetings are copied from its timeline when
+	 * the stream is created, and each meeting is looked up as the stream is
+	 * consumed. Meetings promoted or given notes meanwhile come out as they are
+	 * by then, and meetings added meanwhile are left out.
+	 */
+	@Override
+	public Stream<PastMeeting> streamPastMeetings(Contact contact) {
+		promoteIfDue();
 		if (!isInDb (contact)) 
 			throw new IllegalArgumentException("Contact does not exist!");
-		List<PastMeeting> meetings = new LinkedList<PastMeeting>();
-		
-		for (PastMeeting meeting : pastMeetings){
-			for (Contact member : meeting.getContacts()){
-				if (member.getId() == contact.getId())
-					meetings.add(meeting);
-			}
-		}
 		
-		return meetings.stream()
-				.sorted((meeting, nextMeeting) -> meeting.getDate().compareTo(nextMeeting.getDate()))
-				.collect(Collectors.toList());
+		return streamTimeline(pastMeetingsByContact.get(contact.getId()));
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Helper function which looks up the meetings of a timeline by id, in
+	 * date order, as the stream is consumed. The ids are copied first, as
+	 * queries run while the stream is consumed may promote meetings and so
+	 * take them out of the timeline.
+	 * 
+	 * @param timeline the meetings to stream, or null if there are none
+	 * @return the meetings
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends Meeting> Stream<T> streamTimeline(MeetingTimeline timeline) {
+		if (timeline == null) return Stream.empty();
+		return IntStream.of(timeline.copyIds()).mapToObj(id -> (T) meetingsById.get(id));
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * The set of contacts is copied, so later changes to the caller's
+	 * set do not alter the meeting.
 	 */
 	@Override
-	public void addNewPastMeeting(Set<Contact> contacts, Calendar date,
+	public synchronized void addNewPastMeeting(Set<Contact> contacts, Calendar date,
 			String text) {
 		if (contacts == null || date == null || text == null) 
 			throw new NullPointerException("Null parameter!");
@@ -351,7 +581,112 @@ public class ContactManagerImpl implements ContactManager {
 				throw new IllegalArgumentException("Unknown Contact!");
 		}
 		
-		pastMeetings.add(new PastMeetingImpl(currentMeetingId++, (Calendar) date.clone(), contacts, text));
+		PastMeeting meeting = new PastMeetingImpl(currentMeetingId++, date.getTimeInMillis(), 
+				attendees(contacts), contactDirectory, text);
+		addPastMeeting(meeting);
+		log(journal -> journal.appendPastMeeting(meeting.getId(), 
+				meeting.getTimeInMillis(), meeting.getContactIds(), text));
+	}
+
+	/**
+	 * Helper function which stores a past meeting and indexes it by id,
+	 * replacing any meeting previously stored under the same id.
+	 * 
+	 * @param meeting the meeting to store
+	 */
+	private void addPastMeeting(PastMeeting meeting) {
+		Meeting previous = removeMeeting(meeting.getId());
+		if (previous == null) {
+			indexMeeting(meeting);
+		} else if (previous instanceof FutureMeeting) {
+			unlinkAttendees(previous, futureMeetingsByContact);
+			linkAttendees(meeting, pastMeetingsByContact);
+		}
+		pastMeetings.add(meeting);
+		meetingsById.put(meeting.getId(), meeting);
+		if (latestSnapshot != null) latestSnapshot = latestSnapshot.withMeeting(meeting);
+	}
+
+	/**
+	 * Helper function which stores a future meeting and indexes it by id,
+	 * replacing any meeting previously stored under the same id.
+	 * 
+	 * @param meeting the meeting to store
+	 */
+	private void addFutureMeeting(FutureMeeting meeting) {
+		if (removeMeeting(meeting.getId()) == null) indexMeeting(meeting);
+		futureMeetings.add(meeting);
+		meetingsById.put(meeting.getId(), meeting);
+		if (latestSnapshot != null) latestSnapshot = latestSnapshot.withMeeting(meeting);
+		promotionQueue.add(meeting);
+		long time = meeting.getTimeInMillis();
+		if (time < nextPromotionTime) nextPromotionTime = time;
+	}
+
+	/**
+	 * Helper function which removes a meeting from storage and the id index.
+	 * The time index and timelines are left as is, since a removed meeting is always
+	 * replaced by one with the same id, date and attendees.
+	 * 
+	 * @param id of the meeting to remove
+	 * @return the removed meeting, or null if there was none
+	 */
+	private Meeting removeMeeting(int id) {
+		Meeting meeting = meetingsById.remove(id);
+		if (meeting instanceof PastMeeting) pastMeetings.remove(meeting);
+		else if (meeting instanceof FutureMeeting) futureMeetings.remove(meeting);
+		return meeting;
+	}
+
+	/**
+	 * Helper function which adds a new meeting's id to the time index
+	 * and to the past or future timeline of each of its attendees.
+	 * 
+	 * @param meeting the meeting to index
+	 */
+	private void indexMeeting(Meeting meeting) {
+		long time = meeting.getTimeInMillis();
+		IntList sameTimeIds = meetingsByTime.get(time);
+		if (sameTimeIds == null) {
+			sameTimeIds = new IntList();
+			meetingsByTime.put(time, sameTimeIds);
+		}
+		sameTimeIds.add(meeting.getId());
+		
+		linkAttendees(meeting, (meeting instanceof PastMeeting) 
+				? pastMeetingsByContact : futureMeetingsByContact);
+	}
+
+	/**
+	 * Helper function which adds a meeting to the timeline of each of its
+	 * attendees.
+	 * 
+	 * @param meeting the meeting to add
+	 * @param timelines the attendees' past or future timelines
+	 */
+	private void linkAttendees(Meeting meeting, IntObjectMap<MeetingTimeline> timelines) {
+		for (int contactId : meeting.getContactIds()){
+			MeetingTimeline timeline = timelines.get(contactId);
+			if (timeline == null) {
+				timeline = new MeetingTimeline();
+				timelines.put(contactId, timeline);
+			}
+			timeline.add(meeting.getTimeInMillis(), meeting.getId());
+		}
+	}
+
+	/**
+	 * Helper function which removes a meeting from the timeline of each
+	 * of its attendees.
+	 * 
+	 * @param meeting the meeting to remove
+	 * @param timelines the attendees' past or future timelines
+	 */
+	private void unlinkAttendees(Meeting meeting, IntObjectMap<MeetingTimeline> timelines) {
+		for (int contactId : meeting.getContactIds()){
+			MeetingTimeline timeline = timelines.get(contactId);
+			if (timeline != null) timeline.remove(meeting.getTimeInMillis(), meeting.getId());
+		}
 	}
 
 	/**
@@ -362,65 +697,199 @@ public class ContactManagerImpl implements ContactManager {
 	 * @return boolean, true if found
 	 */
 	private boolean isInDb(Contact contact) {
-		for (Contact conFromDb : contacts){
-			if (contact.getId() == conFromDb.getId()) return true;
-		}
-		
-		return false;
+		return contact != null && contacts.contains(contact.getId());
 	}
 
 	/**
 	 * {@inheritDoc}<br />
 	 * In the case of a future meeting, a new past meeting is created and the
-	 * old future meeting is removed.
+	 * old future meeting is removed. Notes on a past meeting are added in place,
+	 * without copying the notes so far, unless a snapshot may hold the meeting.
 	 */
 	@Override
-	public void addMeetingNotes(int id, String text) {
+	public synchronized void addMeetingNotes(int id, String text) {
 		if (text == null) throw new NullPointerException("Notes are null!");		
 		
-		for (PastMeeting meeting : pastMeetings){
-			if (meeting.getId() == id) {
-				pastMeetings.add(new PastMeetingImpl(id, meeting.getDate(),
-						meeting.getContacts(), String.format("%s\n%s", meeting.getNotes(), text)));
-				pastMeetings.remove(meeting);
-				return;
-			}
-		}
-		for (FutureMeeting meeting : futureMeetings){
-			if (meeting.getId() == id){
-				if (meeting.getDate().after(Calendar.getInstance())) 
-					throw new IllegalStateException("Meeting is still scheduled for the future!");
-				pastMeetings.add(new PastMeetingImpl(id, meeting.getDate(), 
-						meeting.getContacts(), text));
-				futureMeetings.remove(meeting);
-				return;
-			}
-		}
+		Meeting meeting = meetingsById.get(id);
+		if (meeting == null) 
+			throw new IllegalArgumentException("ID does not represent meeting!");
+		if (meeting instanceof FutureMeeting && meeting.getTimeInMillis() > System.currentTimeMillis()) 
+			throw new IllegalStateException("Meeting is still scheduled for the future!");
 		
-		throw new IllegalArgumentException("ID does not represent meeting!");		
+		int previousLength = notesLength(meeting);
+		addNotes(meeting, text);
+		log(journal -> journal.appendMeetingNotes(id, previousLength, text));
+	}
+
+	/**
+	 * Helper function which adds notes to a meeting, replacing a future
+	 * meeting with a past meeting holding just those notes. A past meeting
+	 * is changed in place while there are no snapshots; once there are, it is
+	 * replaced with a copy so that snapshots keep the notes they were taken with.
+	 * 
+	 * @param meeting the meeting to add notes to
+	 * @param text the notes to add
+	 */
+	private void addNotes(Meeting meeting, String text) {
+		if (meeting instanceof PastMeetingImpl) {
+			PastMeetingImpl pastMeeting = (PastMeetingImpl) meeting;
+			if (latestSnapshot == null) pastMeeting.addNotes(text);
+			else addPastMeeting(pastMeeting.withNotes(text));
+			return;
+		}
+		String notes = (notesLength(meeting) > 0) 
+				? String.format("%s\n%s", ((PastMeeting) meeting).getNotes(), text) : text;
+		addPastMeeting(new PastMeetingImpl(meeting.getId(), meeting.getTimeInMillis(), 
+				attendeeLists.intern(meeting.getContactIds()), contactDirectory, notes));
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public void addNewContact(String name, String notes) {
+	public synchronized void addNewContact(String name, String notes) {
 		if (name == null || notes == null) 
 			throw new NullPointerException("Neither name nor notes may be null!");	
-		contacts.add(new ContactImpl(currentContactId++, name, notes));
+		Contact contact = new ContactImpl(currentContactId++, name, notes);
+		addContact(contact);
+		log(journal -> journal.appendContact(contact.getId(), name, notes));
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * {@inheritDoc}<br />
+	 * The contact table is grown once for the whole batch, and all
+	 * records are journaled together.
+	 */
+	@Override
+	public synchronized int addNewContacts(Collection<? extends Contact> newContacts) {
+		if (newContacts == null) throw new NullPointerException("Null parameter!");
+		for (Contact contact : newContacts){
+			if (contact == null || contact.getName() == null || contact.getNotes() == null) 
+				throw new NullPointerException("Neither name nor notes may be null!");
+		}
+		
+		int firstId = currentContactId;
+		contacts.ensureCapacity(firstId + newContacts.size());
+		List<Contact> added = new ArrayList<Contact>(newContacts.size());
+		for (Contact contact : newContacts){
+			Contact newContact = new ContactImpl(currentContactId++, contact.getName(), contact.getNotes());
+			addContact(newContact);
+			added.add(newContact);
+		}
+		log(journal -> {
+			for (Contact contact : added){
+				journal.appendContact(contact.getId(), contact.getName(), contact.getNotes());
+			}
+		}, added.size());
+		return firstId;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * All meetings are checked before any is added, each contact
+	 * with a single lookup in the contact table. The id index is grown
+	 * once for the whole batch, and all records are journaled together.
+	 */
+	@Override
+	public synchronized int addNewPastMeetings(Collection<? extends PastMeeting> meetings) {
+		if (meetings == null) throw new NullPointerException("Null parameter!");
+		for (PastMeeting meeting : meetings){
+			if (meeting == null || meeting.getNotes() == null) 
+				throw new NullPointerException("Null parameter!");
+			checkNewMeeting(meeting);
+		}
+		
+		int firstId = currentMeetingId;
+		meetingsById.ensureCapacity(meetingsById.size() + meetings.size());
+		List<PastMeeting> added = new ArrayList<PastMeeting>(meetings.size());
+		for (PastMeeting meeting : meetings){
+			PastMeeting newMeeting = new PastMeetingImpl(currentMeetingId++, meeting.getTimeInMillis(), 
+					attendeeLists.intern(meeting.getContactIds()), contactDirectory, meeting.getNotes());
+			addPastMeeting(newMeeting);
+			added.add(newMeeting);
+		}
+		log(journal -> {
+			for (PastMeeting meeting : added){
+				journal.appendPastMeeting(meeting.getId(), meeting.getTimeInMillis(), 
+						meeting.getContactIds(), meeting.getNotes());
+			}
+		}, added.size());
+		return firstId;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * All meetings are checked against the same current time before any
+	 * is added. The id index is grown once for the whole batch, and all
+	 * records are journaled together.
+	 */
+	@Override
+	public synchronized int addFutureMeetings(Collection<? extends FutureMeeting> meetings) {
+		if (meetings == null) throw new NullPointerException("Null parameter!");
+		long now = System.currentTimeMillis();
+		for (FutureMeeting meeting : meetings){
+			if (meeting == null) throw new NullPointerException("Null parameter!");
+			checkNewMeeting(meeting);
+			if (meeting.getTimeInMillis() < now) 
+				throw new IllegalArgumentException("Date is in the past already!");
+		}
+		
+		int firstId = currentMeetingId;
+		meetingsById.ensureCapacity(meetingsById.size() + meetings.size());
+		List<FutureMeeting> added = new ArrayList<FutureMeeting>(meetings.size());
+		for (FutureMeeting meeting : meetings){
+			FutureMeeting newMeeting = new FutureMeetingImpl(currentMeetingId++, meeting.getTimeInMillis(), 
+					attendeeLists.intern(meeting.getContactIds()), contactDirectory);
+			addFutureMeeting(newMeeting);
+			added.add(newMeeting);
+		}
+		log(journal -> {
+			for (FutureMeeting meeting : added){
+				journal.appendFutureMeeting(meeting.getId(), meeting.getTimeInMillis(), meeting.getContactIds());
+			}
+		}, added.size());
+		return firstId;
+	}
+
+	/**
+	 * Helper function which checks a meeting given to a batch has
+	 * contacts, all of which are present in database.
+	 * 
+	 * @param meeting the meeting to check
+	 */
+	private void checkNewMeeting(Meeting meeting) {
+		if (meeting.getContacts() == null) 
+			throw new NullPointerException("Null parameter!");
+		if (meeting.getContacts().isEmpty()) 
+			throw new IllegalArgumentException("Must supply contacts!");
+		for (Contact contact : meeting.getContacts()){
+			if (!isInDb(contact)) 
+				throw new IllegalArgumentException("Unknown Contact!");
+		}
+	}
+
+	/**
+	 * Helper function which stores a contact and indexes its name.
+	 * 
+	 * @param contact the contact to store
+	 */
+	private void addContact(Contact contact) {
+		contacts.add(contact);
+		contactNames.add(contact);
+		if (latestSnapshot != null) latestSnapshot = latestSnapshot.withContact(contact);
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Each id is looked up directly in the contact table.
 	 */
 	@Override
 	public Set<Contact> getContacts(int... ids) {
 		Set<Contact> foundContacts = new HashSet<Contact>();
 		
-		for (Contact contact : contacts){
-			for (int id : ids){
-				if (contact.getId() == id) foundContacts.add(contact);
-			}
+		for (int id : ids){
+			Contact contact = contacts.get(id);
+			if (contact != null) foundContacts.add(contact);
 		}
 		
 		if (foundContacts.isEmpty()) 
@@ -430,15 +899,26 @@ public class ContactManagerImpl implements ContactManager {
 
 	/**
 	 * {@inheritDoc}<br />
-	 * Note: the empty String returns all contacts.
+	 * Note: the empty String returns all contacts.<br />
+	 * Only the contacts sharing the rarest trigram of the search string are
+	 * checked; strings shorter than three characters check every contact.
 	 * 
 	 */
 	@Override
 	public Set<Contact> getContacts(String name) {
+		if (name == null) throw new NullPointerException("Name is null!");
 		Set<Contact> foundContacts = new HashSet<Contact>();
 		
-		for (Contact contact : contacts){
-			if (contact.getName().contains(name)) foundContacts.add(contact);
+		IntList candidateIds = contactNames.candidates(name);
+		if (candidateIds == null) {
+			for (Contact contact : contacts){
+				if (contact.getName().contains(name)) foundContacts.add(contact);
+			}
+		} else {
+			for (int i = 0; i < candidateIds.size(); i++){
+				Contact contact = contacts.get(candidateIds.get(i));
+				if (contact.getName().contains(name)) foundContacts.add(contact);
+			}
 		}
 		
 		if (foundContacts.isEmpty()) 
@@ -448,87 +928,223 @@ public class ContactManagerImpl implements ContactManager {
 
 	/**
 	 * {@inheritDoc}<br />
-	 * Writes all data to xml file in base application path
-	 * named "data.xml"
+	 * Only the contacts sharing the rarest trigram of the search string are
+	 * checked, and only as the stream is consumed. It reads this contact manager
+	 * as it is consumed, so it should be consumed before making further changes.
 	 */
 	@Override
-	public void flush() {		
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder builder = null;
-		Document doc = null;
+	public Stream<Contact> streamContacts(String name) {
+		if (name == null) throw new NullPointerException("Name is null!");
 		
+		IntList candidateIds = contactNames.candidates(name);
+		Stream<Contact> candidates = (candidateIds == null) 
+				? StreamSupport.stream(contacts.spliterator(), false)
+				: IntStream.of(candidateIds.toArray()).sorted().mapToObj(contacts::get);
+		return candidates.filter(contact -> contact.getName().contains(name));
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Writes all data to the data file in base application path, 
+	 * named "data.xml" unless another format was chosen. Records are streamed
+	 * to a new file which then replaces the old one. The journal is rotated as
+	 * the data is copied and the rotated part deleted once the data file is
+	 * saved, as that now holds every change it recorded.
+	 */
+	@Override
+	public void flush() {		
+		synchronized (flushLock) {
+			Snapshot snapshot = takeSnapshot();
+			try {
+				format.save(new File(format.getFileName()), snapshot.contacts, 
+						snapshot.pastMeetings, snapshot.futureMeetings);
+				if (journal != null) journal.discardRotated();
+				else Files.deleteIfExists(Paths.get(JOURNAL_FILENAME));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Returns a read-only view of all data as it is now, which later changes
+	 * do not alter. The first call copies the data into persistent maps, after
+	 * which every change keeps them up to date and further calls copy nothing.
+	 * Elapsed future meetings are not promoted here, as this may be called from
+	 * other threads; the snapshot treats them as past meetings itself.
+	 *
+	 * @return snapshot of the contact manager
+	 */
+	public synchronized ContactManagerSnapshot snapshot() {
+		long now = System.currentTimeMillis();
+		if (latestSnapshot == null) {
+			ContactManagerSnapshot snapshot = ContactManagerSnapshot.empty();
+			for (Contact contact : contacts){
+				snapshot = snapshot.withContact(contact);
+			}
+			for (Meeting meeting : meetingsById){
+				snapshot = snapshot.withMeeting(meeting);
+			}
+			latestSnapshot = snapshot.at(now);
+		}
+		// promotion is left to queries on the owner thread, the snapshot only
+		// needs the time again if a future meeting in it may have elapsed
+		if (nextPromotionTime <= now) latestSnapshot = latestSnapshot.at(now);
+		return latestSnapshot;
+	}
+
+	/**
+	 * Returns true if a future meeting's date has passed and it is waiting
+	 * to become a past meeting.
+	 * 
+	 * @return true if promotion is due
+	 */
+	public boolean isPromotionDue() {
+		return nextPromotionTime <= System.currentTimeMillis();
+	}
+
+	/**
+	 * Turns every future meeting whose date has passed into a past meeting
+	 * without notes. Meetings are taken from the front of the promotion queue,
+	 * so the cost is O(log n) per meeting promoted and nothing else is scanned.
+	 */
+	public synchronized void promoteElapsedMeetings() {
+		long now = System.currentTimeMillis();
+		while (!promotionQueue.isEmpty() && promotionQueue.peek().getTimeInMillis() <= now){
+			FutureMeeting meeting = promotionQueue.poll();
+			// skip meetings already turned into past meetings by addMeetingNotes
+			if (meetingsById.get(meeting.getId()) == meeting)
+				addPastMeeting(new PastMeetingImpl(meeting.getId(), meeting.getTimeInMillis(), 
+						attendeeLists.intern(meeting.getContactIds()), contactDirectory, ""));
+		}
+		nextPromotionTime = promotionQueue.isEmpty() 
+				? Long.MAX_VALUE : promotionQueue.peek().getTimeInMillis();
+	}
+
+	/**
+	 * Sets whether queries promote elapsed meetings themselves. Wrappers
+	 * running queries under a shared lock turn this off and promote under
+	 * their exclusive lock instead.
+	 * 
+	 * @param promoteOnQuery false if the caller promotes before each query
+	 */
+	void setPromoteOnQuery(boolean promoteOnQuery) {
+		this.promoteOnQuery = promoteOnQuery;
+	}
+
+	/**
+	 * Helper function called at the start of each query, which promotes
+	 * elapsed meetings when any are due. Costs a single time check otherwise.
+	 */
+	private void promoteIfDue() {
+		if (promoteOnQuery && isPromotionDue()) promoteElapsedMeetings();
+	}
+
+	/**
+	 * Starts saving data on a background thread, so changes never wait for
+	 * the disk. Data is saved every period if anything has changed, and straight
+	 * away once the given number of changes has been made since the last save.
+	 * Has no effect if a background flusher is already running.
+	 * 
+	 * @param period time between saves
+	 * @param unit of the period
+	 * @param dirtyThreshold number of changes which triggers an early save
+	 * @throws IllegalArgumentException if the period or threshold is not positive
+	 */
+	public synchronized void startBackgroundFlush(long period, TimeUnit unit, int dirtyThreshold) {
+		if (period <= 0 || dirtyThreshold <= 0) 
+			throw new IllegalArgumentException("Period and threshold must be positive!");
+		if (flusher != null) return;
+		this.dirtyThreshold = dirtyThreshold;
+		flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "contact-manager-flusher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		flusher.scheduleWithFixedDelay(() -> {
+			if (hasUnsavedChanges()) flush();
+		}, period, period, unit);
+	}
+	
+	/**
+	 * Stops the background flusher, waiting for a save in progress to finish.
+	 * Changes made since the last save are not saved; call flush for that.
+	 */
+	public void stopBackgroundFlush() {
+		ScheduledExecutorService stopping;
+		synchronized (this) {
+			stopping = flusher;
+			flusher = null;
+		}
+		if (stopping == null) return;
+		stopping.shutdown();
 		try {
-			builder = factory.newDocumentBuilder();
-			doc = builder.newDocument();
-		} catch (ParserConfigurationException e) {
-			e.printStackTrace();
+			stopping.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
-		
-		Element rootElem = doc.createElement("contact_manager_data");
-		doc.appendChild(rootElem);
-		
-		Element contactsElem = doc.createElement("contacts");
-		rootElem.appendChild(contactsElem);
+	}
+	
+	private synchronized boolean hasUnsavedChanges() {
+		return changesSinceFlush > 0;
+	}
+	
+	/**
+	 * Helper function which copies references to all records, under the same
+	 * lock as every change, and rotates the journal at that same point.
+	 * 
+	 * @return the records to save
+	 */
+	private synchronized Snapshot takeSnapshot() {
+		Snapshot snapshot = new Snapshot();
+		snapshot.contacts = new ArrayList<Contact>(contacts.size());
 		for (Contact contact : contacts){
-			Element contactElem = doc.createElement("contact");
-			contactsElem.appendChild(contactElem);
-			contactElem.setAttribute("id", String.valueOf(contact.getId()));
-			contactElem.setAttribute("name", contact.getName());
-			contactElem.setAttribute("notes", contact.getNotes());
-		}
-		
-		Element pastMeetingsElem = doc.createElement("past_meetings");
-		rootElem.appendChild(pastMeetingsElem);
-		for (PastMeeting meeting : pastMeetings){
-			Element pastMeetingElem = doc.createElement("past_meeting");
-			pastMeetingsElem.appendChild(pastMeetingElem);
-			
-			pastMeetingElem.setAttribute("id", String.valueOf(meeting.getId()));
-			pastMeetingElem.setAttribute("date", String.valueOf(meeting.getDate().getTimeInMillis()));
-			pastMeetingElem.setAttribute("notes", meeting.getNotes());
-			
-			String contactList = "";
-			for (Contact contact : meeting.getContacts()){
-				contactList += contact.getId() + ", ";
-			}
-			contactList = contactList.substring(0, contactList.length() - 2);
-			pastMeetingElem.setAttribute("contact_id_list", contactList);			
+			snapshot.contacts.add(contact);
 		}
-		
-		Element futureMeetingsElem = doc.createElement("future_meetings");
-		rootElem.appendChild(futureMeetingsElem);
+		// elapsed meetings are saved as past meetings without promoting them, which
+		// is left to queries as this runs on the background flusher's thread too
+		long now = System.currentTimeMillis();
+		snapshot.pastMeetings = new ArrayList<PastMeeting>(pastMeetings);
+		snapshot.futureMeetings = new ArrayList<FutureMeeting>(futureMeetings.size());
 		for (FutureMeeting meeting : futureMeetings){
-			Element futureMeetingElem = doc.createElement("future_meeting");
-			futureMeetingsElem.appendChild(futureMeetingElem);
-			
-			futureMeetingElem.setAttribute("id", String.valueOf(meeting.getId()));
-			futureMeetingElem.setAttribute("date", String.valueOf(meeting.getDate().getTimeInMillis()));
-			
-			String contactList = "";
-			for (Contact contact : meeting.getContacts()){
-				contactList += contact.getId() + ", ";
-			}
-			contactList = contactList.substring(0, contactList.length() - 2);
-			futureMeetingElem.setAttribute("contact_id_list", contactList);			
+			if (meeting.getTimeInMillis() > now) snapshot.futureMeetings.add(meeting);
+			else snapshot.pastMeetings.add(new PastMeetingImpl(meeting.getId(), 
+					meeting.getTimeInMillis(), meeting.getContactIds(), contactDirectory, ""));
 		}
-		
-		Transformer transformer = null;
-		try {
-			transformer = TransformerFactory.newInstance().newTransformer();
-		} catch (TransformerConfigurationException e) {
-			e.printStackTrace();
-		} catch (TransformerFactoryConfigurationError e) {
-			e.printStackTrace();
+		changesSinceFlush = 0;
+		flushRequested = false;
+		if (journal != null) {
+			try {
+				journal.rotate();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
 		}
-		
-		DOMSource src = new DOMSource(doc);
-		StreamResult stream = new StreamResult(new File(XML_DATA_FILENAME));
-		
+		return snapshot;
+	}
+	
+	/**
+	 * Records to be saved, copied at one point in time.
+	 */
+	private static class Snapshot {
+		private List<Contact> contacts;
+		private List<PastMeeting> pastMeetings;
+		private List<FutureMeeting> futureMeetings;
+	}
+	
+	/**
+	 * Helper function used by constructors to save everything restored
+	 * and clear out any journal, without rotating the journal first.
+	 */
+	private void recover() {
 		try {
-			transformer.transform(src, stream);
-		} catch (TransformerException e) {
+			format.save(new File(format.getFileName()), contacts, pastMeetings, futureMeetings);
+			File journalData = new File(JOURNAL_FILENAME);
+			Files.deleteIfExists(ContactManagerJournal.rotatedFile(journalData).toPath());
+			if (journal != null) journal.clear();
+			else Files.deleteIfExists(journalData.toPath());
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		
 	}
 }
\ No newline at end of file
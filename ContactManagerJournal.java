@@ -0,0 +1,308 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the changes made to a contact manager. <br />
+ * Each change is written as one compact binary record, so persisting it costs
+ * a few bytes rather than a rewrite of the whole data file. On startup the
+ * journal is replayed on top of the last snapshot, and compacting folds it
+ * into a fresh snapshot after which the journal starts out empty again.
+ *
+ * Records are framed as length, CRC32 and payload. A record cut short by a
+ * crash fails its check and ends the replay, so only complete changes are
+ * ever restored, and the damaged tail is cut off before appending resumes.
+ * Records are pushed to the operating system as they are written, so they
+ * survive the process crashing but are not forced to the disk.
+ *
+ * When a snapshot is written while changes keep coming in, the journal is
+ * rotated as the snapshot is taken: the records it covers move to a rotated
+ * file, deleted once the snapshot is safely saved, and new records go to a
+ * fresh journal. Until then both files are replayed, rotated file first.
+ *
+ * @author caleb
+ *
+ */
+public class ContactManagerJournal {
+
+	private static final byte CONTACT = 1;
+	private static final byte PAST_MEETING = 2;
+	private static final byte FUTURE_MEETING = 3;
+	private static final byte MEETING_NOTES = 4;
+	private static final int MAX_RECORD_SIZE = 1 << 28;
+
+	private File file;
+	private OutputStream out;
+	private ByteArrayOutputStream record;
+	private DataOutputStream recordData;
+	private DataOutputStream frame;
+	private CRC32 checksum;
+	private int recordCount;
+
+	/**
+	 * Opens the journal for appending, creating the file if needed.
+	 * Anything after the given length is discarded first.
+	 *
+	 * @param file the journal file
+	 * @param validLength length of the complete records, as returned by replay
+	 * @throws IOException if the file cannot be opened
+	 */
+	public ContactManagerJournal(File file, long validLength) throws IOException {
+		this.file = file;
+		out = new FileOutputStream(file, true);
+		FileChannel channel = ((FileOutputStream) out).getChannel();
+		if (channel.size() > validLength) channel.truncate(validLength);
+		frame = new DataOutputStream(new BufferedOutputStream(out));
+		record = new ByteArrayOutputStream();
+		recordData = new DataOutputStream(record);
+		checksum = new CRC32();
+	}
+
+	/**
+	 * Appends a new contact.
+	 *
+	 * @param id of the contact
+	 * @param name of the contact
+	 * @param notes about the contact
+	 * @throws IOException if the record cannot be written
+	 */
+	public void appendContact(int id, String name, String notes) throws IOException {
+		recordData.writeByte(CONTACT);
+		recordData.writeInt(id);
+		writeString(recordData, name);
+		writeString(recordData, notes);
+		commit();
+	}
+
+	/**
+	 * Appends a new past meeting.
+	 *
+	 * @param id of the meeting
+	 * @param date of the meeting in ms
+	 * @param contactIds ids of the contacts present
+	 * @param notes about the meeting
+	 * @throws IOException if the record cannot be written
+	 */
+	public void appendPastMeeting(int id, long date, int[] contactIds, String notes) throws IOException {
+		recordData.writeByte(PAST_MEETING);
+		writeMeeting(id, date, contactIds);
+		writeString(recordData, notes);
+		commit();
+	}
+
+	/**
+	 * Appends a new future meeting.
+	 *
+	 * @param id of the meeting
+	 * @param date of the meeting in ms
+	 * @param contactIds ids of the contacts scheduled
+	 * @throws IOException if the record cannot be written
+	 */
+	public void appendFutureMeeting(int id, long date, int[] contactIds) throws IOException {
+		recordData.writeByte(FUTURE_MEETING);
+		writeMeeting(id, date, contactIds);
+		commit();
+	}
+
+	/**
+	 * Appends notes added to a meeting.
+	 *
+	 * @param id of the meeting
+	 * @param previousLength length of the notes before the text was added,
+	 * 		or -1 if the meeting was a future meeting
+	 * @param text the notes added
+	 * @throws IOException if the record cannot be written
+	 */
+	public void appendMeetingNotes(int id, int previousLength, String text) throws IOException {
+		recordData.writeByte(MEETING_NOTES);
+		recordData.writeInt(id);
+		recordData.writeInt(previousLength);
+		writeString(recordData, text);
+		commit();
+	}
+
+	/**
+	 * Returns the number of records appended since the journal was last cleared.
+	 * Records present in the file before it was opened are not counted.
+	 *
+	 * @return number of records
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Empties the journal once its records have been folded into a snapshot.
+	 *
+	 * @throws IOException if the file cannot be truncated
+	 */
+	public void clear() throws IOException {
+		frame.flush();
+		out.close();
+		out = new FileOutputStream(file, false);
+		frame = new DataOutputStream(new BufferedOutputStream(out));
+		recordCount = 0;
+	}
+
+	/**
+	 * Moves the records written so far to the rotated file and continues
+	 * with an empty journal. If the rotated file is still there, because
+	 * the snapshot it was rotated for was never saved, the records are added
+	 * to the end of it instead, as it holds the only other copy of its own.
+	 *
+	 * @throws IOException if the journal cannot be moved or reopened
+	 */
+	public void rotate() throws IOException {
+		frame.close();
+		File rotated = rotatedFile(file);
+		if (rotated.exists()) {
+			// a crash before the journal is emptied replays its records twice, which changes nothing
+			try (OutputStream rotatedOut = new FileOutputStream(rotated, true)) {
+				Files.copy(file.toPath(), rotatedOut);
+			}
+		} else {
+			Files.move(file.toPath(), rotated.toPath());
+		}
+		out = new FileOutputStream(file, false);
+		frame = new DataOutputStream(new BufferedOutputStream(out));
+		recordCount = 0;
+	}
+
+	/**
+	 * Deletes the rotated file once a snapshot holds its records.
+	 *
+	 * @throws IOException if the file cannot be deleted
+	 */
+	public void discardRotated() throws IOException {
+		Files.deleteIfExists(rotatedFile(file).toPath());
+	}
+
+	/**
+	 * Returns the file records are moved to when the journal is rotated.
+	 *
+	 * @param file the journal file
+	 * @return the rotated journal file
+	 */
+	public static File rotatedFile(File file) {
+		return new File(file.getPath() + ".old");
+	}
+
+	/**
+	 * Closes the journal file.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	public void close() throws IOException {
+		frame.close();
+	}
+
+	/**
+	 * Replays every complete record of the journal file in order.
+	 * Replay stops at the first record that is incomplete or damaged.
+	 *
+	 * @param file the journal file
+	 * @param handler receiver of the records
+	 * @return length in bytes of the complete records replayed
+	 * @throws IOException if the file cannot be read
+	 */
+	public static long replay(File file, JournalRecordHandler handler) throws IOException {
+		long validLength = 0;
+		CRC32 checksum = new CRC32();
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			DataInputStream frames = new DataInputStream(in);
+			while (true){
+				byte[] payload;
+				try {
+					int length = frames.readInt();
+					long expected = frames.readInt() & 0xFFFFFFFFL;
+					if (length <= 0 || length > MAX_RECORD_SIZE) break;
+					payload = new byte[length];
+					frames.readFully(payload);
+					checksum.reset();
+					checksum.update(payload, 0, length);
+					if (checksum.getValue() != expected) break;
+				} catch (EOFException e) {
+					break;
+				}
+				DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+				switch (data.readByte()){
+				case CONTACT:
+					handler.restoreContact(data.readInt(), readString(data), readString(data));
+					break;
+				case PAST_MEETING:
+					handler.restorePastMeeting(data.readInt(), data.readLong(),
+							readIds(data), readString(data));
+					break;
+				case FUTURE_MEETING:
+					handler.restoreFutureMeeting(data.readInt(), data.readLong(), readIds(data));
+					break;
+				case MEETING_NOTES:
+					handler.restoreMeetingNotes(data.readInt(), data.readInt(), readString(data));
+					break;
+				default:
+					throw new IOException("Unknown journal record type!");
+				}
+				validLength += 8 + payload.length;
+			}
+		}
+		return validLength;
+	}
+
+	/**
+	 * Helper function which frames the record built so far, writes it to the
+	 * file and pushes it to the operating system.
+	 */
+	private void commit() throws IOException {
+		checksum.reset();
+		checksum.update(record.toByteArray(), 0, record.size());
+		frame.writeInt(record.size());
+		frame.writeInt((int) checksum.getValue());
+		record.writeTo(frame);
+		frame.flush();
+		record.reset();
+		recordCount++;
+	}
+
+	private void writeMeeting(int id, long date, int[] contactIds) throws IOException {
+		recordData.writeInt(id);
+		recordData.writeLong(date);
+		recordData.writeInt(contactIds.length);
+		for (int contactId : contactIds){
+			recordData.writeInt(contactId);
+		}
+	}
+
+	private static void writeString(DataOutputStream data, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		data.writeInt(bytes.length);
+		data.write(bytes);
+	}
+
+	private static String readString(DataInputStream data) throws IOException {
+		byte[] bytes = new byte[data.readInt()];
+		data.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int[] readIds(DataInputStream data) throws IOException {
+		int[] ids = new int[data.readInt()];
+		for (int i = 0; i < ids.length; i++){
+			ids[i] = data.readInt();
+		}
+		return ids;
+	}
+}
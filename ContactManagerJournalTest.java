@@ -0,0 +1,124 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ContactManagerJournal Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class ContactManagerJournalTest {
+
+	private File file;
+	private List<String> records;
+	private JournalRecordHandler handler;
+
+	@Before
+	public void buildUp() throws IOException {
+		file = File.createTempFile("contact_manager", ".journal");
+		records = new ArrayList<String>();
+		handler = new JournalRecordHandler() {
+			@Override
+			public void restoreContact(int id, String name, String notes) {
+				records.add("contact " + id + " " + name + " " + notes);
+			}
+
+			@Override
+			public void restorePastMeeting(int id, long date, int[] contactIds, String notes) {
+				records.add("past " + id + " " + date + " " + Arrays.toString(contactIds) + " " + notes);
+			}
+
+			@Override
+			public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+				records.add("future " + id + " " + date + " " + Arrays.toString(contactIds));
+			}
+
+			@Override
+			public void restoreMeetingNotes(int id, int previousLength, String text) {
+				records.add("notes " + id + " " + previousLength + " " + text);
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+		ContactManagerJournal.rotatedFile(file).delete();
+	}
+
+	@Test
+	public void replay_appendedRecords_returnRecordsInOrder() throws IOException {
+		ContactManagerJournal journal = new ContactManagerJournal(file, 0);
+		journal.appendContact(0, "Joe", "first\nsecond");
+		journal.appendPastMeeting(0, 5L, new int[] {0}, "notes");
+		journal.appendFutureMeeting(1, 9L, new int[] {0, 1});
+		journal.appendMeetingNotes(0, 5, "more");
+		journal.close();
+
+		ContactManagerJournal.replay(file, handler);
+		List<String> expected = Arrays.asList("contact 0 Joe first\nsecond",
+				"past 0 5 [0] notes", "future 1 9 [0, 1]", "notes 0 5 more");
+		assertEquals(expected, records);
+	}
+
+	@Test
+	public void replay_tornLastRecord_returnCompleteRecordsOnly() throws IOException {
+		ContactManagerJournal journal = new ContactManagerJournal(file, 0);
+		journal.appendContact(0, "Joe", "");
+		journal.appendContact(1, "Kevin", "");
+		journal.close();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 3);
+		}
+
+		long validLength = ContactManagerJournal.replay(file, handler);
+		assertEquals(Arrays.asList("contact 0 Joe "), records);
+
+		// appending resumes right after the last complete record
+		journal = new ContactManagerJournal(file, validLength);
+		journal.appendContact(1, "Rachel", "");
+		journal.close();
+		records.clear();
+		ContactManagerJournal.replay(file, handler);
+		assertEquals(Arrays.asList("contact 0 Joe ", "contact 1 Rachel "), records);
+	}
+
+	@Test
+	public void rotate_rotatedFileNotDiscarded_keepRecordsOfBothRotations() throws IOException {
+		ContactManagerJournal journal = new ContactManagerJournal(file, 0);
+		journal.appendContact(0, "Joe", "");
+		journal.rotate();
+		// the snapshot failed to save, so the rotated file is never discarded
+		journal.appendContact(1, "Kevin", "");
+		journal.rotate();
+		journal.appendContact(2, "Rachel", "");
+		journal.close();
+
+		ContactManagerJournal.replay(ContactManagerJournal.rotatedFile(file), handler);
+		boolean rotatedKept = records.equals(Arrays.asList("contact 0 Joe ", "contact 1 Kevin "));
+		records.clear();
+		ContactManagerJournal.replay(file, handler);
+		assertEquals(true, rotatedKept && records.equals(Arrays.asList("contact 2 Rachel ")));
+	}
+
+	@Test
+	public void clear_afterRecords_replayNothing() throws IOException {
+		ContactManagerJournal journal = new ContactManagerJournal(file, 0);
+		journal.appendContact(0, "Joe", "");
+		journal.clear();
+		journal.close();
+		ContactManagerJournal.replay(file, handler);
+		assertEquals(true, records.isEmpty() && journal.getRecordCount() == 0);
+	}
+}
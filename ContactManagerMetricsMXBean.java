@@ -0,0 +1,37 @@
+import java.util.List;
+
+/**
+ * Management interface of an InstrumentedContactManager, for reading its
+ * metrics over JMX.
+ *
+ * @author caleb
+ *
+ */
+public interface ContactManagerMetricsMXBean {
+
+	/**
+	 * Returns the metrics of every operation, in the order of the interface.
+	 *
+	 * @return metrics of all operations
+	 */
+	List<OperationMetrics> getOperations();
+
+	/**
+	 * Returns true if calls are being measured.
+	 *
+	 * @return true if enabled
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Starts or stops measuring calls. Metrics gathered so far are kept.
+	 *
+	 * @param enabled true to measure calls
+	 */
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Forgets all metrics gathered so far.
+	 */
+	void reset();
+}
@@ -0,0 +1,400 @@
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * A read-only view of a contact manager as it was at one point in time. <br />
+ * Snapshots are taken with ContactManagerImpl.snapshot() and answer the usual
+ * queries while the contact manager they came from carries on changing. Every
+ * index is held in persistent maps, so a change makes a new snapshot sharing
+ * all but a few nodes with the last one, and taking a snapshot copies nothing.
+ * Snapshots never change and may be read from any number of threads.
+ *
+ * Methods which would change the data throw UnsupportedOperationException.
+ *
+ * Each snapshot is taken at a time, by which future meetings whose date has
+ * passed are past meetings without notes, whether or not the contact manager
+ * had promoted them yet.
+ *
+ * Only the contact manager's own records are versioned: notes added to a
+ * Contact object directly are seen by every snapshot holding that contact.
+ *
+ * @author caleb
+ *
+ */
+public final class ContactManagerSnapshot implements ContactManager {
+
+	private static final ContactManagerSnapshot EMPTY = new ContactManagerSnapshot(
+			PersistentLongMap.empty(), PersistentLongMap.empty(),
+			PersistentLongMap.empty(), PersistentLongMap.empty(), 0);
+
+	private final PersistentLongMap<Contact> contacts;
+	private final PersistentLongMap<Meeting> meetings;
+	private final PersistentLongMap<PersistentLongMap<MeetingChain>> meetingsByContact;
+	private final PersistentLongMap<MeetingChain> meetingsByTime;
+	private final long takenAt;
+
+	private ContactManagerSnapshot(PersistentLongMap<Contact> contacts,
+			PersistentLongMap<Meeting> meetings,
+			PersistentLongMap<PersistentLongMap<MeetingChain>> meetingsByContact,
+			PersistentLongMap<MeetingChain> meetingsByTime, long takenAt) {
+		this.contacts = contacts;
+		this.meetings = meetings;
+		this.meetingsByContact = meetingsByContact;
+		this.meetingsByTime = meetingsByTime;
+		this.takenAt = takenAt;
+	}
+
+	/**
+	 * Returns the snapshot of a contact manager without any data.
+	 *
+	 * @return the empty snapshot
+	 */
+	static ContactManagerSnapshot empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Returns the same snapshot taken at another time.
+	 *
+	 * @param time the snapshot is taken at, in ms since the epoch
+	 * @return the new snapshot
+	 */
+	ContactManagerSnapshot at(long time) {
+		return new ContactManagerSnapshot(contacts, meetings, meetingsByContact, meetingsByTime, time);
+	}
+
+	/**
+	 * Returns a snapshot which also holds the contact.
+	 *
+	 * @param contact the new contact
+	 * @return the new snapshot
+	 */
+	ContactManagerSnapshot withContact(Contact contact) {
+		return new ContactManagerSnapshot(contacts.put(contact.getId(), contact),
+				meetings, meetingsByContact, meetingsByTime, takenAt);
+	}
+
+	/**
+	 * Returns a snapshot which also holds the meeting, in place of any meeting
+	 * with the same id. A replacing meeting has the same date and attendees.
+	 *
+	 * @param meeting the new or replacing meeting
+	 * @return the new snapshot
+	 */
+	ContactManagerSnapshot withMeeting(Meeting meeting) {
+		boolean replacing = meetings.get(meeting.getId()) != null;
+		long time = meeting.getTimeInMillis();
+		PersistentLongMap<MeetingChain> byTime = meetingsByTime.put(time,
+				MeetingChain.with(meetingsByTime.get(time), meeting, replacing));
+		PersistentLongMap<PersistentLongMap<MeetingChain>> byContact = meetingsByContact;
+		for (int contactId : meeting.getContactIds()){
+			PersistentLongMap<MeetingChain> timeline = byContact.get(contactId);
+			if (timeline == null) timeline = PersistentLongMap.empty();
+			byContact = byContact.put(contactId, timeline.put(time,
+					MeetingChain.with(timeline.get(time), meeting, replacing)));
+		}
+		return new ContactManagerSnapshot(contacts, meetings.put(meeting.getId(), meeting),
+				byContact, byTime, takenAt);
+	}
+
+	/**
+	 * Returns every meeting in the snapshot, in order of id.
+	 *
+	 * @return all meetings
+	 */
+	public Iterable<Meeting> getMeetings() {
+		return () -> StreamSupport.stream(meetings.spliterator(), false).map(this::asTaken).iterator();
+	}
+
+	/**
+	 * Not supported, snapshots are read only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public int addFutureMeeting(Set<Contact> contacts, Calendar date) {
+		throw new UnsupportedOperationException("Snapshots are read only!");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PastMeeting getPastMeeting(int id) {
+		Meeting meeting = asTaken(meetings.get(id));
+		if (meeting instanceof FutureMeeting)
+			throw new IllegalArgumentException("Meeting ID represents future meeting!");
+		return (PastMeeting) meeting;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FutureMeeting getFutureMeeting(int id) {
+		Meeting meeting = asTaken(meetings.get(id));
+		if (meeting instanceof PastMeeting)
+			throw new IllegalArgumentException("Meeting ID represents past meeting!");
+		return (FutureMeeting) meeting;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Meeting getMeeting(int id) {
+		return asTaken(meetings.get(id));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getFutureMeetingList(Contact contact) {
+		if (contact == null)
+			throw new IllegalArgumentException("Null contact provided!");
+		if (!isInDb(contact))
+			throw new IllegalArgumentException("Contact does not exist!");
+
+		// anything due by the time the snapshot was taken is a past meeting
+		List<Meeting> found = meetingsOf(contact, takenAt + 1);
+		found.removeIf(meeting -> !(meeting instanceof FutureMeeting));
+		return found;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Selects matches from the start of the given day up to the start of the
+	 * next day, as seen from the time zone of the date provided.
+	 */
+	@Override
+	public List<Meeting> getFutureMeetingList(Calendar date) {
+		if (date == null)
+			throw new IllegalArgumentException("Null date provided!");
+		Calendar dayStart = (Calendar) date.clone();
+		dayStart.set(Calendar.HOUR_OF_DAY, 0);
+		dayStart.set(Calendar.MINUTE, 0);
+		dayStart.set(Calendar.SECOND, 0);
+		dayStart.set(Calendar.MILLISECOND, 0);
+		Calendar dayEnd = (Calendar) dayStart.clone();
+		dayEnd.add(Calendar.DAY_OF_YEAR, 1);
+
+		return getMeetingsInRange(dayStart.getTimeInMillis(), dayEnd.getTimeInMillis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getMeetingsBetween(Calendar start, Calendar end) {
+		if (start == null || end == null)
+			throw new IllegalArgumentException("Null date provided!");
+		if (end.before(start))
+			throw new IllegalArgumentException("End of range is before its start!");
+
+		return getMeetingsInRange(start.getTimeInMillis(), end.getTimeInMillis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<PastMeeting> getPastMeetingList(Contact contact) {
+		if (!isInDb(contact))
+			throw new IllegalArgumentException("Contact does not exist!");
+
+		return meetingsOf(contact, Long.MIN_VALUE).stream()
+				.filter(meeting -> meeting instanceof PastMeeting)
+				.map(meeting -> (PastMeeting) meeting)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Not supported, snapshots are read only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void addNewPastMeeting(Set<Contact> contacts, Calendar date, String text) {
+		throw new UnsupportedOperationException("Snapshots are read only!");
+	}
+
+	/**
+	 * Not supported, snapshots are read only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void addMeetingNotes(int id, String text) {
+		throw new UnsupportedOperationException("Snapshots are read only!");
+	}
+
+	/**
+	 * Not supported, snapshots are read only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void addNewContact(String name, String notes) {
+		throw new UnsupportedOperationException("Snapshots are read only!");
+	}
+
+	/**
+	 * Not supported, snapshots are read only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public int addNewContacts(Collection<? extends Contact> contacts) {
+		throw new UnsupportedOperationException("Snapshots are read only!");
+	}
+
+	/**
+	 * Not supported, snapshots are read only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public int addNewPastMeetings(Collection<? extends PastMeeting> meetings) {
+		throw new UnsupportedOperationException("Snapshots are read only!");
+	}
+
+	/**
+	 * Not supported, snapshots are read only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public int addFutureMeetings(Collection<? extends FutureMeeting> meetings) {
+		throw new UnsupportedOperationException("Snapshots are read only!");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Contact> getContacts(int... ids) {
+		Set<Contact> foundContacts = new HashSet<Contact>();
+		for (int id : ids){
+			Contact contact = contacts.get(id);
+			if (contact != null) foundContacts.add(contact);
+		}
+
+		if (foundContacts.isEmpty())
+			throw new IllegalArgumentException("Id not found!");
+		return foundContacts;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Note: the empty String returns all contacts.<br />
+	 * Snapshots keep no name index, so every contact is checked.
+	 */
+	@Override
+	public Set<Contact> getContacts(String name) {
+		if (name == null) throw new NullPointerException("Name is null!");
+		Set<Contact> foundContacts = new HashSet<Contact>();
+		for (Contact contact : contacts){
+			if (contact.getName().contains(name)) foundContacts.add(contact);
+		}
+
+		if (foundContacts.isEmpty())
+			throw new IllegalArgumentException("Name not found!");
+		return foundContacts;
+	}
+
+	/**
+	 * Not supported, snapshots are read only.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void flush() {
+		throw new UnsupportedOperationException("Snapshots are read only!");
+	}
+
+	/**
+	 * Helper function which collects the meetings held from one time up to
+	 * another. Meetings come out in chronological order, and in the order
+	 * they were added where they share a time.
+	 */
+	private List<Meeting> getMeetingsInRange(long from, long to) {
+		List<Meeting> found = new ArrayList<Meeting>();
+		for (MeetingChain sameTime : meetingsByTime.values(from, to)){
+			addOldestFirst(found, sameTime);
+		}
+		return found;
+	}
+
+	/**
+	 * Helper function which collects a contact's meetings from one time
+	 * onwards, in the same order as getMeetingsInRange.
+	 */
+	private List<Meeting> meetingsOf(Contact contact, long from) {
+		List<Meeting> found = new ArrayList<Meeting>();
+		PersistentLongMap<MeetingChain> timeline = meetingsByContact.get(contact.getId());
+		if (timeline == null) return found;
+		for (MeetingChain sameTime : timeline.valuesFrom(from)){
+			addOldestFirst(found, sameTime);
+		}
+		return found;
+	}
+
+	/**
+	 * Helper function which appends the meetings held at one time, newest
+	 * first as the chain holds them, then reverses them in place.
+	 */
+	private void addOldestFirst(List<Meeting> found, MeetingChain sameTime) {
+		int sameTimeStart = found.size();
+		for (MeetingChain link = sameTime; link != null; link = link.next){
+			found.add(asTaken(link.meeting));
+		}
+		Collections.reverse(found.subList(sameTimeStart, found.size()));
+	}
+
+	/**
+	 * Helper function which returns the meeting as it was when the snapshot
+	 * was taken: a future meeting whose date had passed by then is a past
+	 * meeting without notes.
+	 */
+	private Meeting asTaken(Meeting meeting) {
+		if (!(meeting instanceof FutureMeeting) || meeting.getTimeInMillis() > takenAt) return meeting;
+		return new PastMeetingImpl(meeting.getId(), meeting.getTimeInMillis(),
+				meeting.getContactIds(), id -> contacts.get(id), "");
+	}
+
+	private boolean isInDb(Contact contact) {
+		return contact != null && contacts.get(contact.getId()) != null;
+	}
+
+	/**
+	 * Immutable list of the meetings held at one time, newest first, which
+	 * grows by adding a new head in front of the list it shares.
+	 */
+	private static final class MeetingChain {
+		private final Meeting meeting;
+		private final MeetingChain next;
+
+		private MeetingChain(Meeting meeting, MeetingChain next) {
+			this.meeting = meeting;
+			this.next = next;
+		}
+
+		/**
+		 * Returns the chain with the meeting added in front, or put in place
+		 * of the link holding the meeting it replaces.
+		 */
+		private static MeetingChain with(MeetingChain chain, Meeting meeting, boolean replacing) {
+			if (!replacing) return new MeetingChain(meeting, chain);
+			if (chain.meeting.getId() == meeting.getId()) return new MeetingChain(meeting, chain.next);
+			return new MeetingChain(chain.meeting, with(chain.next, meeting, true));
+		}
+	}
+}
@@ -0,0 +1,108 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ContactManagerSnapshot Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class ContactManagerSnapshotTest {
+
+	private ContactManagerImpl cm = new ContactManagerImpl(false);
+
+	@Test
+	public void snapshot_laterChanges_snapshotUnchanged() {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		cm.addNewPastMeeting(contacts, date(-2), "Notes");
+		ContactManager snapshot = cm.snapshot();
+
+		cm.addMeetingNotes(0, "More notes");
+		cm.addNewPastMeeting(contacts, date(-1), "Notes");
+		cm.addNewContact("Jane", "");
+
+		Contact john = contacts.iterator().next();
+		assertEquals(true, snapshot.getPastMeeting(0).getNotes().equals("Notes")
+				&& snapshot.getPastMeetingList(john).size() == 1
+				&& snapshot.getMeeting(1) == null
+				&& cm.snapshot().getPastMeetingList(john).size() == 2
+				&& cm.snapshot().getContacts("").size() == 2);
+	}
+
+	@Test
+	public void snapshot_promotedMeeting_onlyNewSnapshotSeesPastMeeting() throws InterruptedException {
+		cm.addNewContact("John", "");
+		Calendar soon = Calendar.getInstance();
+		soon.add(Calendar.MILLISECOND, 20);
+		int id = cm.addFutureMeeting(cm.getContacts("John"), soon);
+		ContactManagerSnapshot before = cm.snapshot();
+		Thread.sleep(40);
+		cm.addMeetingNotes(id, "Notes");
+		ContactManagerSnapshot after = cm.snapshot();
+		assertEquals(true, before.getMeeting(id) instanceof FutureMeeting
+				&& after.getMeeting(id) instanceof PastMeeting
+				&& after.getMeetingsBetween(date(-1), date(1)).size() == 1);
+	}
+
+	@Test
+	public void snapshot_elapsedMeetingNotPromoted_snapshotSeesPastMeeting() throws InterruptedException {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		Calendar soon = Calendar.getInstance();
+		soon.add(Calendar.MILLISECOND, 20);
+		int id = cm.addFutureMeeting(contacts, soon);
+		Thread.sleep(40);
+		ContactManagerSnapshot snapshot = cm.snapshot();
+		// only queries on the contact manager itself promote the meeting
+		boolean promotionLeftToQueries = cm.isPromotionDue();
+		Contact john = contacts.iterator().next();
+		assertEquals(true, promotionLeftToQueries && snapshot.getMeeting(id) instanceof PastMeeting
+				&& snapshot.getPastMeeting(id).getNotes().isEmpty()
+				&& snapshot.getPastMeetingList(john).size() == 1
+				&& snapshot.getFutureMeetingList(john).isEmpty());
+	}
+
+	@Test
+	public void snapshot_noChanges_returnSameSnapshot() {
+		cm.addNewContact("John", "");
+		assertEquals(true, cm.snapshot() == cm.snapshot());
+	}
+
+	@Test
+	public void getMeetingsBetween_manyMeetingsAtSameTime_returnInOrderAdded() {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		Calendar date = date(-1);
+		cm.snapshot();
+		for (int i = 0; i < 5000; i++){
+			cm.addNewPastMeeting(contacts, date, "Notes");
+		}
+		ContactManagerSnapshot snapshot = cm.snapshot();
+		Contact john = contacts.iterator().next();
+		boolean inOrder = true;
+		List<Meeting> between = snapshot.getMeetingsBetween(date(-2), date(0));
+		List<PastMeeting> ofContact = snapshot.getPastMeetingList(john);
+		for (int i = 0; i < 5000; i++){
+			inOrder &= between.get(i).getId() == i && ofContact.get(i).getId() == i;
+		}
+		assertEquals(true, inOrder && between.size() == 5000 && ofContact.size() == 5000);
+	}
+
+	@Test (expected = UnsupportedOperationException.class)
+	public void addNewContact_snapshot_throwUnsupportedOpEx() {
+		cm.snapshot().addNewContact("John", "");
+	}
+
+	private static Calendar date(int daysFromNow) {
+		Calendar date = Calendar.getInstance();
+		date.add(Calendar.DAY_OF_YEAR, daysFromNow);
+		return date;
+	}
+}
@@ -2,7 +2,12 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Month;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
@@ -10,7 +15,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Contact Manager Tests
@@ -26,7 +33,9 @@ import java.util.stream.Collectors;
 public class ContactManagerTest {
 
 	private static final Calendar PAST_TEST_DATE = new GregorianCalendar(2015, Month.JANUARY.getValue(), 1, 12, 0);
-	private static final Calendar FUTURE_TEST_DATE = new GregorianCalendar(2016, Month.JANUARY.getValue(), 1, 12, 0);
+	// next year, so that the date stays in the future whenever the tests are run
+	private static final Calendar FUTURE_TEST_DATE = new GregorianCalendar(
+			Calendar.getInstance().get(Calendar.YEAR) + 1, Month.JANUARY.getValue(), 1, 12, 0);
 	private static final String TEST_MEETING_NOTES = "Some test meeting notes";
 	
 	private ContactManager cm = new ContactManagerImpl(false);
@@ -44,6 +53,20 @@ public class ContactManagerTest {
 		assertEquals(true, equalMeetings);
 	}
 	
+	@Test
+	public void getMeeting_contactNotesAddedLater_returnStoredContacts() {
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(2);
+		Meeting meeting = cm.getMeeting(cm.addFutureMeeting(contactList, nextYear()));
+		Contact stored = cm.getContacts(0).iterator().next();
+		stored.addNotes(TEST_MEETING_NOTES);
+		boolean notesSeen = false;
+		for (Contact contact : meeting.getContacts()){
+			if (contact.getId() == 0) notesSeen = contact.getNotes().endsWith(TEST_MEETING_NOTES);
+		}
+		assertEquals(true, notesSeen && Arrays.equals(new int[] {0, 1}, meeting.getContactIds()));
+	}
+	
 	@Test
 	public void getMeeting_unfoundMeetingParam_returnNull() {
 		loadTestContacts();
@@ -404,6 +427,46 @@ public class ContactManagerTest {
 		assertEquals(true, isChronological);
 	}
 	
+	/*
+	 * getMeetingsBetween
+	 */
+	
+	@Test
+	public void getMeetingsBetween_validRange_returnMeetingsInRangeChronologically(){
+		loadTestContacts();
+		Set<Contact> contacts = getContactList(5);
+		Calendar addDate = (Calendar) PAST_TEST_DATE.clone();
+		for (int i = 0; i < 5; i++){
+			cm.addNewPastMeeting(contacts, addDate, TEST_MEETING_NOTES);
+			addDate = (Calendar) addDate.clone();
+			addDate.add(Calendar.DAY_OF_YEAR, -1);
+		}
+		// ids 1 to 3 were held from 3 days before up to 1 day before the test date
+		Calendar start = (Calendar) PAST_TEST_DATE.clone();
+		start.add(Calendar.DAY_OF_YEAR, -3);
+		Calendar end = (Calendar) PAST_TEST_DATE.clone();
+		List<Meeting> returnedMeetings = cm.getMeetingsBetween(start, end);
+		List<Integer> returnedIds = returnedMeetings.stream()
+				.map(Meeting::getId).collect(Collectors.toList());
+		assertEquals(Arrays.asList(3, 2, 1), returnedIds);
+	}
+	
+	@Test
+	public void getMeetingsBetween_rangeWithoutMeetings_returnEmptyList(){
+		List<Meeting> returnedMeetings = cm.getMeetingsBetween(PAST_TEST_DATE, FUTURE_TEST_DATE);
+		assertEquals(true, returnedMeetings.isEmpty());
+	}
+	
+	@Test (expected = IllegalArgumentException.class)
+	public void getMeetingsBetween_endBeforeStart_throwIllArgEx(){
+		cm.getMeetingsBetween(FUTURE_TEST_DATE, PAST_TEST_DATE);
+	}
+	
+	@Test (expected = IllegalArgumentException.class)
+	public void getMeetingsBetween_nullDateParam_throwIllArgEx(){
+		cm.getMeetingsBetween(PAST_TEST_DATE, null);
+	}
+	
 	/*
 	 * getPastMeetingList
 	 */
@@ -417,6 +480,7 @@ public class ContactManagerTest {
 		int numMeetings = 3;
 		Set<Integer> meetingIds = new TreeSet<Integer>();
 		for (int i = 0; i < numMeetings; i++){
+			meetingIds.add(i);
 			cm.addNewPastMeeting(contacts, PAST_TEST_DATE, TEST_MEETING_NOTES);
 		}
 		Object[] contactsArray =  contacts.toArray();
@@ -491,6 +555,54 @@ public class ContactManagerTest {
 		assertEquals(false, hasDuplicates);
 	}
 	
+	@Test
+	public void getPastMeetingList_promotedFutureMeeting_returnMeeting(){
+		loadTestContacts();
+		Set<Contact> contacts = getContactList(3);
+		Calendar now = Calendar.getInstance();
+		now.add(Calendar.MILLISECOND, 10); //add a meeting slightly in the future
+		int id = cm.addFutureMeeting(contacts, now);
+		try {
+			Thread.sleep(20); //wait a bit longer
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		cm.addMeetingNotes(id, TEST_MEETING_NOTES);
+		Contact contact = contacts.iterator().next();
+		List<PastMeeting> pastMeetings = cm.getPastMeetingList(contact);
+		List<Meeting> futureMeetings = cm.getFutureMeetingList(contact);
+		assertEquals(true, pastMeetings.size() == 1 && pastMeetings.get(0).getId() == id
+				&& futureMeetings.isEmpty());
+	}
+	
+	@Test
+	public void getPastMeetingList_elapsedFutureMeeting_returnPromotedMeeting(){
+		loadTestContacts();
+		Set<Contact> contacts = getContactList(3);
+		int id = addElapsingMeeting(contacts);
+		Contact contact = contacts.iterator().next();
+		List<PastMeeting> pastMeetings = cm.getPastMeetingList(contact);
+		assertEquals(true, pastMeetings.size() == 1 && pastMeetings.get(0).getId() == id
+				&& pastMeetings.get(0).getNotes().isEmpty() && cm.getFutureMeetingList(contact).isEmpty());
+	}
+	
+	@Test
+	public void getPastMeetingList_notesOnElapsedMeeting_meetingsInDateOrder(){
+		loadTestContacts();
+		Set<Contact> contacts = getContactList(3);
+		cm.addNewPastMeeting(contacts, PAST_TEST_DATE, TEST_MEETING_NOTES);
+		int id = addElapsingMeeting(contacts);
+		cm.addMeetingNotes(id, TEST_MEETING_NOTES);
+		Calendar earlier = (Calendar) PAST_TEST_DATE.clone();
+		earlier.add(Calendar.YEAR, -1);
+		cm.addNewPastMeeting(contacts, earlier, TEST_MEETING_NOTES);
+		Contact contact = contacts.iterator().next();
+		List<PastMeeting> pastMeetings = cm.getPastMeetingList(contact);
+		assertEquals(true, pastMeetings.size() == 3 && pastMeetings.get(0).getId() == 2
+				&& pastMeetings.get(1).getId() == 0 && pastMeetings.get(2).getId() == id
+				&& cm.getFutureMeetingList(contact).isEmpty());
+	}
+	
 	@Test (expected = IllegalArgumentException.class)
 	public void getPastMeetingList_nullContactParam_throwIllArgEx(){
 		cm.getPastMeetingList(null);
@@ -504,6 +616,83 @@ public class ContactManagerTest {
 		List<PastMeeting> returnedMeetings = cm.getPastMeetingList(contact);
 	}
 	
+	/*
+	 * streaming queries
+	 */
+	
+	@Test
+	public void streamPastMeetings_firstPage_earliestMeetingsInOrder() {
+		loadTestContacts();
+		Set<Contact> contacts = getContactList(2);
+		int[] daysAgo = {5, 40, 12, 3, 25, 40, 8};
+		for (int days : daysAgo){
+			Calendar date = (Calendar) PAST_TEST_DATE.clone();
+			date.add(Calendar.DAY_OF_YEAR, -days);
+			cm.addNewPastMeeting(contacts, date, TEST_MEETING_NOTES);
+		}
+		List<PastMeeting> page = cm.streamPastMeetings(contacts.iterator().next())
+				.skip(1).limit(3).collect(Collectors.toList());
+		// meetings 1 and 5 share the earliest date and come out by id
+		assertEquals(true, page.size() == 3 && page.get(0).getId() == 5 
+				&& page.get(1).getId() == 4 && page.get(2).getId() == 2);
+	}
+	
+	@Test
+	public void streamFutureMeetings_pastMeetingsToo_onlyFutureMeetingsInOrder() {
+		loadTestContacts();
+		Set<Contact> contacts = getContactList(2);
+		Calendar later = nextYear();
+		later.add(Calendar.MONTH, 1);
+		cm.addFutureMeeting(contacts, later);
+		cm.addNewPastMeeting(contacts, PAST_TEST_DATE, TEST_MEETING_NOTES);
+		cm.addFutureMeeting(contacts, nextYear());
+		List<Meeting> meetings = cm.streamFutureMeetings(contacts.iterator().next())
+				.collect(Collectors.toList());
+		assertEquals(true, meetings.size() == 2 && meetings.get(0).getId() == 2 
+				&& meetings.get(1).getId() == 0);
+	}
+	
+	@Test
+	public void streamFutureMeetings_meetingElapsesWhileConsumed_allMeetingsLookedUp() {
+		loadTestContacts();
+		Set<Contact> contacts = getContactList(2);
+		Calendar soon = Calendar.getInstance();
+		soon.add(Calendar.MILLISECOND, 20);
+		int elapsingId = cm.addFutureMeeting(contacts, soon);
+		cm.addFutureMeeting(contacts, nextYear());
+		Stream<Meeting> meetings = cm.streamFutureMeetings(contacts.iterator().next());
+		try {
+			Thread.sleep(40);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		// looking a meeting up promotes the elapsed one out of the future timeline
+		List<Meeting> found = meetings.map(meeting -> cm.getMeeting(meeting.getId()))
+				.collect(Collectors.toList());
+		assertEquals(true, found.size() == 2 && found.get(0).getId() == elapsingId
+				&& found.get(0) instanceof PastMeeting && found.get(1) instanceof FutureMeeting);
+	}
+	
+	@Test (expected = IllegalArgumentException.class)
+	public void streamPastMeetings_unknownContact_throwIllArgEx() {
+		cm.streamPastMeetings(new ContactImpl(0, "Unknown", ""));
+	}
+	
+	@Test
+	public void streamContacts_matchingName_contactsById() {
+		loadTestContacts();
+		List<Contact> found = cm.streamContacts("R").collect(Collectors.toList());
+		assertEquals(true, found.size() == 4 && found.get(0).getName().equals("RACHEL") 
+				&& found.get(1).getName().equals("ROGER") && found.get(3).getName().equals("JENNIFER")
+				&& cm.streamContacts("ROS").findFirst().get().getName().equals("ROSE"));
+	}
+	
+	@Test
+	public void streamContacts_noMatch_emptyStream() {
+		loadTestContacts();
+		assertEquals(true, cm.streamContacts("XYZ").count() == 0 && cm.streamContacts("Q").count() == 0);
+	}
+	
 	/*
 	 * addMeetingNotes
 	 */
@@ -519,6 +708,21 @@ public class ContactManagerTest {
 				.equals(cm.getPastMeeting(0).getNotes()));
 	}
 	
+	@Test
+	public void addMeetingNotes_notesAddedManyTimes_allNotesInOrder(){
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		cm.addNewPastMeeting(contactList, PAST_TEST_DATE, "0");
+		PastMeeting meeting = cm.getPastMeeting(0);
+		StringBuilder expected = new StringBuilder("0");
+		for (int i = 1; i < 100; i++){
+			cm.addMeetingNotes(0, Integer.toString(i));
+			expected.append('\n').append(i);
+		}
+		assertEquals(true, expected.toString().equals(cm.getPastMeeting(0).getNotes())
+				&& cm.getPastMeeting(0) == meeting);
+	}
+	
 	@Test
 	public void addMeetingNotes_addNotesFutureMeeting_getPastMeetingBack(){
 		loadTestContacts();
@@ -536,6 +740,16 @@ public class ContactManagerTest {
 		assertEquals(TEST_MEETING_NOTES, meeting.getNotes());
 	}
 	
+	@Test
+	public void addMeetingNotes_promotedMeeting_getAddedNotesBack(){
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		int id = addElapsingMeeting(contactList);
+		cm.getMeeting(id);
+		cm.addMeetingNotes(id, TEST_MEETING_NOTES);
+		assertEquals(TEST_MEETING_NOTES, cm.getPastMeeting(id).getNotes());
+	}
+	
 	@Test (expected = NullPointerException.class)
 	public void addMeetingNotes_nullNotesParam_throwNullPtrEx(){
 		loadTestContacts();
@@ -572,6 +786,77 @@ public class ContactManagerTest {
 		cm.addNewContact(TEST_MEETING_NOTES, null);
 	}
 	
+	/*
+	 * batch additions
+	 */
+	
+	@Test
+	public void addNewContacts_validContacts_consecutiveIdsReturned(){
+		cm.addNewContact("First", "");
+		List<Contact> batch = new ArrayList<Contact>();
+		for (TestContacts testContact : TestContacts.values()){
+			batch.add(new ContactImpl(-1, testContact.toString(), testContact.getNotes()));
+		}
+		int firstId = cm.addNewContacts(batch);
+		Contact last = cm.getContacts(firstId + batch.size() - 1).iterator().next();
+		assertEquals(true, firstId == 1 && cm.getContacts("").size() == batch.size() + 1
+				&& last.getName().equals(batch.get(batch.size() - 1).getName()));
+	}
+	
+	@Test (expected = NullPointerException.class)
+	public void addNewContacts_nullNotes_throwNullPtrEx(){
+		cm.addNewContacts(Arrays.asList(new ContactImpl(0, "Name", null)));
+	}
+	
+	@Test
+	public void addNewPastMeetings_validMeetings_meetingsAdded(){
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		int firstId = cm.addNewPastMeetings(Arrays.asList(
+				new PastMeetingImpl(-1, PAST_TEST_DATE, contactList, TEST_MEETING_NOTES),
+				new PastMeetingImpl(-1, PAST_TEST_DATE, contactList, "")));
+		Contact contact = contactList.iterator().next();
+		assertEquals(true, firstId == 0 && cm.getPastMeeting(1).getNotes().isEmpty()
+				&& cm.getPastMeetingList(contact).size() == 2);
+	}
+	
+	@Test
+	public void addNewPastMeetings_unknownContact_nothingAdded(){
+		loadTestContacts();
+		Set<Contact> unknown = new HashSet<Contact>();
+		unknown.add(new ContactImpl(TestContacts.values().length, "Unknown", ""));
+		boolean thrown = false;
+		try {
+			cm.addNewPastMeetings(Arrays.asList(
+					new PastMeetingImpl(-1, PAST_TEST_DATE, getContactList(1), TEST_MEETING_NOTES),
+					new PastMeetingImpl(-1, PAST_TEST_DATE, unknown, TEST_MEETING_NOTES)));
+		} catch (IllegalArgumentException e) {
+			thrown = true;
+		}
+		assertEquals(true, thrown && cm.getMeeting(0) == null);
+	}
+	
+	@Test (expected = IllegalArgumentException.class)
+	public void addFutureMeetings_pastDate_throwIllArgEx(){
+		loadTestContacts();
+		cm.addFutureMeetings(Arrays.asList(
+				new FutureMeetingImpl(-1, nextYear(), getContactList(1)),
+				new FutureMeetingImpl(-1, PAST_TEST_DATE, getContactList(1))));
+	}
+	
+	@Test
+	public void addFutureMeetings_validMeetings_consecutiveIdsReturned(){
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		cm.addNewPastMeeting(contactList, PAST_TEST_DATE, TEST_MEETING_NOTES);
+		int firstId = cm.addFutureMeetings(Arrays.asList(
+				new FutureMeetingImpl(-1, nextYear(), contactList),
+				new FutureMeetingImpl(-1, nextYear(), contactList)));
+		Contact contact = contactList.iterator().next();
+		assertEquals(true, firstId == 1 && cm.getFutureMeeting(2) != null
+				&& cm.getFutureMeetingList(contact).size() == 2);
+	}
+	
 	/*
 	 * getContacts
 	 */
@@ -600,6 +885,22 @@ public class ContactManagerTest {
 		Set<Contact> contacts = cm.getContacts("Joe");
 	}
 	
+	@Test
+	public void getContacts_shortAndLongSubstrings_returnAsscContacts(){
+		cm.addNewContact("Joe Johnson", TEST_MEETING_NOTES);
+		cm.addNewContact("Joe Jacobson", TEST_MEETING_NOTES);
+		cm.addNewContact("Rachel Smith", TEST_MEETING_NOTES);
+		boolean correctSizes = cm.getContacts("son").size() == 2
+				&& cm.getContacts("Jacob").size() == 1
+				&& cm.getContacts("e").size() == 3;
+		assertEquals(true, correctSizes);
+	}
+	
+	@Test (expected = NullPointerException.class)
+	public void getContacts_nullString_throwNullPtrEx(){
+		cm.getContacts((String) null);
+	}
+	
 	@Test
 	public void getContacts_emptyString_returnAllContacts(){
 		loadTestContacts();
@@ -695,6 +996,151 @@ public class ContactManagerTest {
 		assertEquals(true, meetingsPresent && hasChecked == numMeetings);
 	}
 	
+	@Test
+	public void flush_binaryFormat_restoreAllData(){
+		cm = new ContactManagerImpl(false, false, DataFormat.BINARY);
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		cm.addNewPastMeeting(contactList, PAST_TEST_DATE, TEST_MEETING_NOTES);
+		Calendar futureDate = nextYear();
+		int futureId = cm.addFutureMeeting(contactList, futureDate);
+		
+		cm.flush();
+		cm = new ContactManagerImpl(true, false, DataFormat.BINARY);
+		
+		boolean restored = cm.getContacts("").size() == TestContacts.values().length
+				&& cm.getPastMeeting(0).getNotes().equals(TEST_MEETING_NOTES)
+				&& cm.getPastMeeting(0).getContacts().size() == contactList.size()
+				&& cm.getFutureMeeting(futureId).getDate().equals(futureDate);
+		assertEquals(true, restored);
+	}
+	
+	@Test
+	public void flush_binaryLazyNotes_notesReadAndAddedAfterRestore(){
+		cm = new ContactManagerImpl(false, false, DataFormat.BINARY_LAZY_NOTES);
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		cm.addNewPastMeeting(contactList, PAST_TEST_DATE, TEST_MEETING_NOTES);
+		cm.getContacts(0).iterator().next().addNotes(TEST_MEETING_NOTES);
+		
+		cm.flush();
+		cm = new ContactManagerImpl(true, false, DataFormat.BINARY_LAZY_NOTES);
+		cm.addMeetingNotes(0, TEST_MEETING_NOTES);
+		
+		boolean restored = cm.getContacts(0).iterator().next().getNotes().endsWith(TEST_MEETING_NOTES)
+				&& cm.getPastMeeting(0).getNotes().equals(
+						String.format("%s\n%s", TEST_MEETING_NOTES, TEST_MEETING_NOTES))
+				&& cm.getPastMeeting(0).getContacts().size() == contactList.size();
+		assertEquals(true, restored);
+	}
+	
+	/*
+	 * background flush
+	 */
+	
+	@Test
+	public void startBackgroundFlush_thresholdReached_dataSaved(){
+		new ContactManagerImpl(false).flush();
+		ContactManagerImpl manager = new ContactManagerImpl(false);
+		cm = manager;
+		manager.startBackgroundFlush(1, TimeUnit.HOURS, TestContacts.values().length);
+		loadTestContacts();
+		
+		int numRestored = 0;
+		for (int i = 0; i < 100 && numRestored < TestContacts.values().length; i++){
+			try {
+				Thread.sleep(50);
+				numRestored = new ContactManagerImpl(true).getContacts("").size();
+			} catch (IllegalArgumentException ex){
+				numRestored = 0;
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+		manager.stopBackgroundFlush();
+		assertEquals(TestContacts.values().length, numRestored);
+	}
+	
+	@Test (expected = IllegalArgumentException.class)
+	public void startBackgroundFlush_zeroThreshold_throwIllArgEx(){
+		new ContactManagerImpl(false).startBackgroundFlush(1, TimeUnit.SECONDS, 0);
+	}
+	
+	/*
+	 * journaled mode
+	 */
+	
+	@Test
+	public void journaled_changesWithoutFlush_restoreAllChanges(){
+		cm = new ContactManagerImpl(false, true);
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		cm.addNewPastMeeting(contactList, PAST_TEST_DATE, TEST_MEETING_NOTES);
+		cm.addMeetingNotes(0, TEST_MEETING_NOTES);
+		int futureId = cm.addFutureMeeting(contactList, nextYear());
+		
+		cm = new ContactManagerImpl(true, true);
+		boolean restored = cm.getContacts("").size() == TestContacts.values().length
+				&& cm.getPastMeeting(0).getNotes()
+						.equals(String.format("%s\n%s", TEST_MEETING_NOTES, TEST_MEETING_NOTES))
+				&& cm.getFutureMeeting(futureId) != null;
+		
+		// a compaction interrupted before emptying the journal leaves records
+		// the xml file already holds, replaying them must change nothing
+		boolean notesOnce = false;
+		try {
+			Path journalPath = Paths.get("data.journal");
+			byte[] journalBytes = Files.readAllBytes(journalPath);
+			cm.flush();
+			Files.write(journalPath, journalBytes);
+			cm = new ContactManagerImpl(true, true);
+			notesOnce = cm.getPastMeeting(0).getNotes()
+					.equals(String.format("%s\n%s", TEST_MEETING_NOTES, TEST_MEETING_NOTES))
+					&& cm.getContacts("").size() == TestContacts.values().length;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
+		new ContactManagerImpl(false).flush();
+		assertEquals(true, restored && notesOnce);
+	}
+	
+	@Test
+	public void journaled_notesOnPromotedMeeting_restoreNotes(){
+		cm = new ContactManagerImpl(false, true);
+		loadTestContacts();
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		int id = addElapsingMeeting(contactList);
+		cm.getPastMeeting(id);
+		cm.addMeetingNotes(id, TEST_MEETING_NOTES);
+		
+		cm = new ContactManagerImpl(true, true);
+		boolean restored = cm.getPastMeeting(id).getNotes().equals(TEST_MEETING_NOTES);
+		new ContactManagerImpl(false).flush();
+		assertEquals(true, restored);
+	}
+	
+	@Test
+	public void journaled_batchesWithoutFlush_restoreAllRecords(){
+		cm = new ContactManagerImpl(false, true);
+		List<Contact> batch = new ArrayList<Contact>();
+		for (TestContacts testContact : TestContacts.values()){
+			batch.add(new ContactImpl(-1, testContact.toString(), testContact.getNotes()));
+		}
+		cm.addNewContacts(batch);
+		Set<Contact> contactList = getContactList(TestContacts.values().length / 2);
+		cm.addNewPastMeetings(Arrays.asList(
+				new PastMeetingImpl(-1, PAST_TEST_DATE, contactList, TEST_MEETING_NOTES)));
+		cm.addFutureMeetings(Arrays.asList(new FutureMeetingImpl(-1, nextYear(), contactList)));
+		
+		cm = new ContactManagerImpl(true, true);
+		boolean restored = cm.getContacts("").size() == TestContacts.values().length
+				&& cm.getPastMeeting(0).getNotes().equals(TEST_MEETING_NOTES)
+				&& cm.getFutureMeeting(1) != null;
+		new ContactManagerImpl(false).flush();
+		assertEquals(true, restored);
+	}
+	
 	/*
 	 * Single test which tests sample execution of a program 
 	 */
@@ -764,6 +1210,30 @@ public class ContactManagerTest {
 	 * Private helper methods
 	 */
 	
+	/**
+	 * returns a date a year from now, which stays in the future whenever the tests are run
+	 */
+	private Calendar nextYear(){
+		Calendar date = Calendar.getInstance();
+		date.add(Calendar.YEAR, 1);
+		return date;
+	}
+	
+	/**
+	 * adds a future meeting slightly in the future and waits until its date has passed
+	 */
+	private int addElapsingMeeting(Set<Contact> contacts){
+		Calendar soon = Calendar.getInstance();
+		soon.add(Calendar.MILLISECOND, 10);
+		int id = cm.addFutureMeeting(contacts, soon);
+		try {
+			Thread.sleep(20);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		return id;
+	}
+	
 	/**
 	 * loads some contact name and notes from TestContacts enum class into contact manager instance
 	 */
@@ -0,0 +1,263 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads and writes the xml data file used by the contact manager. <br />
+ * The file is read with StAX and written through a plain buffered writer
+ * rather than going through a DOM tree, so each record is handled as soon
+ * as it is read or written and memory use does not grow with the size
+ * of the file.
+ *
+ * The format is:
+ * <pre>
+ * &lt;contact_manager_data&gt;
+ *   &lt;contacts&gt;
+ *     &lt;contact id="0" name="..." notes="..."/&gt;
+ *   &lt;/contacts&gt;
+ *   &lt;past_meetings&gt;
+ *     &lt;past_meeting id="0" date="ms" notes="..." contact_id_list="0, 1"/&gt;
+ *   &lt;/past_meetings&gt;
+ *   &lt;future_meetings&gt;
+ *     &lt;future_meeting id="1" date="ms" contact_id_list="0, 1"/&gt;
+ *   &lt;/future_meetings&gt;
+ * &lt;/contact_manager_data&gt;
+ * </pre>
+ *
+ * @author caleb
+ *
+ */
+public final class ContactManagerXml {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private ContactManagerXml() {
+	}
+
+	/**
+	 * Reads every record in the file and passes it to the handler in file order.
+	 *
+	 * @param xmlData the file to read
+	 * @param handler receiver of the records
+	 * @throws IOException if the file cannot be read
+	 * @throws XMLStreamException if the file is not well formed
+	 */
+	public static void read(File xmlData, DataRecordHandler handler)
+			throws IOException, XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+		try (InputStream in = new BufferedInputStream(new FileInputStream(xmlData))) {
+			XMLStreamReader reader = factory.createXMLStreamReader(in);
+			try {
+				while (reader.hasNext()){
+					if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+
+					switch (reader.getLocalName()){
+					case "contact":
+						handler.restoreContact(intAttribute(reader, "id"),
+								attribute(reader, "name"), attribute(reader, "notes"));
+						break;
+					case "past_meeting":
+						handler.restorePastMeeting(intAttribute(reader, "id"),
+								longAttribute(reader, "date"),
+								parseIdList(attribute(reader, "contact_id_list")),
+								attribute(reader, "notes"));
+						break;
+					case "future_meeting":
+						handler.restoreFutureMeeting(intAttribute(reader, "id"),
+								longAttribute(reader, "date"),
+								parseIdList(attribute(reader, "contact_id_list")));
+						break;
+					default:
+						break;
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		}
+	}
+
+	/**
+	 * Writes all records to the file, replacing its contents.
+	 *
+	 * @param xmlData the file to write
+	 * @param contacts contacts to write
+	 * @param pastMeetings past meetings to write
+	 * @param futureMeetings future meetings to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(File xmlData, Iterable<? extends Contact> contacts,
+			Iterable<? extends PastMeeting> pastMeetings,
+			Iterable<? extends FutureMeeting> futureMeetings) throws IOException {
+		try (OutputStream out = new FileOutputStream(xmlData)) {
+			write(out, contacts, pastMeetings, futureMeetings);
+		}
+	}
+
+	/**
+	 * Writes all records to the stream. The stream is flushed but left open.<br />
+	 * Attributes are escaped by hand, as StAX writers leave line breaks
+	 * unescaped and those would be read back as spaces.
+	 *
+	 * @param out the stream to write to
+	 * @param contacts contacts to write
+	 * @param pastMeetings past meetings to write
+	 * @param futureMeetings future meetings to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	public static void write(OutputStream out, Iterable<? extends Contact> contacts,
+			Iterable<? extends PastMeeting> pastMeetings,
+			Iterable<? extends FutureMeeting> futureMeetings) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+		StringBuilder idList = new StringBuilder();
+
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>");
+		writer.write("<contact_manager_data>");
+
+		writer.write("<contacts>");
+		for (Contact contact : contacts){
+			writer.write("<contact");
+			writeAttribute(writer, "id", contact.getId());
+			writeAttribute(writer, "name", contact.getName());
+			writeAttribute(writer, "notes", contact.getNotes());
+			writer.write("/>");
+		}
+		writer.write("</contacts>");
+
+		writer.write("<past_meetings>");
+		for (PastMeeting meeting : pastMeetings){
+			writer.write("<past_meeting");
+			writeAttribute(writer, "id", meeting.getId());
+			writeAttribute(writer, "date", meeting.getTimeInMillis());
+			writeAttribute(writer, "notes", meeting.getNotes());
+			writeAttribute(writer, "contact_id_list", formatIdList(meeting, idList));
+			writer.write("/>");
+		}
+		writer.write("</past_meetings>");
+
+		writer.write("<future_meetings>");
+		for (FutureMeeting meeting : futureMeetings){
+			writer.write("<future_meeting");
+			writeAttribute(writer, "id", meeting.getId());
+			writeAttribute(writer, "date", meeting.getTimeInMillis());
+			writeAttribute(writer, "contact_id_list", formatIdList(meeting, idList));
+			writer.write("/>");
+		}
+		writer.write("</future_meetings>");
+
+		writer.write("</contact_manager_data>");
+		writer.flush();
+	}
+
+	/**
+	 * Formats the ids of a meeting's contacts in the form "1, 2, 3".
+	 *
+	 * @param meeting whose contacts are listed
+	 * @param buffer reused between calls to avoid reallocating
+	 * @return the buffer holding the formatted list
+	 */
+	private static CharSequence formatIdList(Meeting meeting, StringBuilder buffer) {
+		buffer.setLength(0);
+		for (int contactId : meeting.getContactIds()){
+			if (buffer.length() > 0) buffer.append(", ");
+			buffer.append(contactId);
+		}
+		return buffer;
+	}
+
+	private static void writeAttribute(Writer writer, String name, long value) throws IOException {
+		writer.write(' ');
+		writer.write(name);
+		writer.write("=\"");
+		writer.write(Long.toString(value));
+		writer.write('"');
+	}
+
+	private static void writeAttribute(Writer writer, String name, CharSequence value)
+			throws IOException {
+		writer.write(' ');
+		writer.write(name);
+		writer.write("=\"");
+		for (int i = 0; i < value.length(); i++){
+			char ch = value.charAt(i);
+			switch (ch){
+			case '&': writer.write("&amp;"); break;
+			case '<': writer.write("&lt;"); break;
+			case '>': writer.write("&gt;"); break;
+			case '"': writer.write("&quot;"); break;
+			case '\n': writer.write("&#10;"); break;
+			case '\r': writer.write("&#13;"); break;
+			case '\t': writer.write("&#9;"); break;
+			default: writer.write(ch);
+			}
+		}
+		writer.write('"');
+	}
+
+	/**
+	 * Parses a list of ids in the form "1, 2, 3" without splitting it
+	 * into intermediate strings.
+	 *
+	 * @param idList comma separated ids
+	 * @return the ids in list order
+	 * @throws NumberFormatException if the list holds anything other than ids
+	 */
+	static int[] parseIdList(String idList) {
+		int count = 0;
+		for (int i = 0; i < idList.length(); i++){
+			if (idList.charAt(i) == ',') count++;
+		}
+		int[] ids = new int[idList.trim().isEmpty() ? 0 : count + 1];
+
+		int index = 0;
+		int value = 0;
+		boolean hasDigits = false;
+		for (int i = 0; i <= idList.length(); i++){
+			char ch = (i < idList.length()) ? idList.charAt(i) : ',';
+			if (ch >= '0' && ch <= '9') {
+				value = value * 10 + (ch - '0');
+				hasDigits = true;
+			} else if (ch == ',') {
+				if (!hasDigits && ids.length > 0)
+					throw new NumberFormatException("Malformed id list: " + idList);
+				if (hasDigits) ids[index++] = value;
+				value = 0;
+				hasDigits = false;
+			} else if (ch != ' ') {
+				throw new NumberFormatException("Malformed id list: " + idList);
+			}
+		}
+		return ids;
+	}
+
+	private static String attribute(XMLStreamReader reader, String name) throws XMLStreamException {
+		String value = reader.getAttributeValue(null, name);
+		if (value == null)
+			throw new XMLStreamException("Missing attribute " + name, reader.getLocation());
+		return value;
+	}
+
+	private static int intAttribute(XMLStreamReader reader, String name) throws XMLStreamException {
+		return Integer.parseInt(attribute(reader, name));
+	}
+
+	private static long longAttribute(XMLStreamReader reader, String name) throws XMLStreamException {
+		return Long.parseLong(attribute(reader, name));
+	}
+}
@@ -0,0 +1,112 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * ContactManagerXml Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class ContactManagerXmlTest {
+
+	@Test
+	public void parseIdList_commaSeparatedIds_returnIds() {
+		assertArrayEquals(new int[] {1, 22, 333}, ContactManagerXml.parseIdList("1, 22, 333"));
+	}
+
+	@Test
+	public void parseIdList_singleId_returnId() {
+		assertArrayEquals(new int[] {7}, ContactManagerXml.parseIdList("7"));
+	}
+
+	@Test (expected = NumberFormatException.class)
+	public void parseIdList_nonNumericId_throwNumFormatEx() {
+		ContactManagerXml.parseIdList("1, x");
+	}
+
+	@Test
+	public void write_notesWithLineBreaks_readBackUnchanged() throws IOException, XMLStreamException {
+		File xmlData = File.createTempFile("contact_manager", ".xml");
+		xmlData.deleteOnExit();
+		final String notes = "first line\nsecond <line>\r\n\t& \"third\"";
+		List<Contact> contacts = new ArrayList<Contact>();
+		contacts.add(new ContactImpl(0, "Joe", notes));
+		Set<Contact> attendees = new HashSet<Contact>(contacts);
+		List<PastMeeting> pastMeetings = new ArrayList<PastMeeting>();
+		pastMeetings.add(new PastMeetingImpl(0, new GregorianCalendar(2015, 0, 1), attendees, notes));
+		ContactManagerXml.write(xmlData, contacts, pastMeetings, new ArrayList<FutureMeeting>());
+
+		final List<String> readNotes = new ArrayList<String>();
+		ContactManagerXml.read(xmlData, new DataRecordHandler() {
+			@Override
+			public void restoreContact(int id, String name, String notes) {
+				readNotes.add(notes);
+			}
+
+			@Override
+			public void restorePastMeeting(int id, long date, int[] contactIds, String notes) {
+				readNotes.add(notes);
+			}
+
+			@Override
+			public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+			}
+		});
+
+		List<String> expected = new ArrayList<String>();
+		expected.add(notes);
+		expected.add(notes);
+		assertEquals(expected, readNotes);
+	}
+
+	@Test
+	public void read_sampleFile_handleRecordsInOrder() throws IOException, XMLStreamException {
+		File xmlData = File.createTempFile("contact_manager", ".xml");
+		xmlData.deleteOnExit();
+		String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><contact_manager_data>"
+				+ "<contacts><contact id=\"0\" name=\"Joe &amp; Co\" notes=\"\"/></contacts>"
+				+ "<past_meetings><past_meeting contact_id_list=\"0\" date=\"5\" id=\"0\" notes=\"n\"/></past_meetings>"
+				+ "<future_meetings><future_meeting contact_id_list=\"0\" date=\"9\" id=\"1\"/></future_meetings>"
+				+ "</contact_manager_data>";
+		Files.write(xmlData.toPath(), content.getBytes(StandardCharsets.UTF_8));
+
+		final List<String> records = new ArrayList<String>();
+		ContactManagerXml.read(xmlData, new DataRecordHandler() {
+			@Override
+			public void restoreContact(int id, String name, String notes) {
+				records.add("contact " + id + " " + name);
+			}
+
+			@Override
+			public void restorePastMeeting(int id, long date, int[] contactIds, String notes) {
+				records.add("past " + id + " " + date + " " + contactIds.length + " " + notes);
+			}
+
+			@Override
+			public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+				records.add("future " + id + " " + date + " " + contactIds.length);
+			}
+		});
+
+		List<String> expected = new ArrayList<String>();
+		expected.add("contact 0 Joe & Co");
+		expected.add("past 0 5 1 n");
+		expected.add("future 1 9 1");
+		assertEquals(expected, records);
+	}
+}
@@ -0,0 +1,117 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Store of contacts indexed directly by their id. <br />
+ * Contact ids are assigned sequentially by the contact manager, so a plain
+ * array indexed by id gives constant time lookups without hashing or boxing.
+ * Ids missing from the sequence simply leave an empty slot.
+ *
+ * The table is changed by one thread only, but meetings of a snapshot may look
+ * their contacts up from other threads. A grown array is therefore published
+ * through a volatile field, so a reader never sees it before it is filled.
+ *
+ * @author caleb
+ *
+ */
+public class ContactTable implements Iterable<Contact> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private volatile Contact[] contacts;
+	private int size;
+
+	/**
+	 * Initializes an empty table.
+	 */
+	public ContactTable() {
+		contacts = new Contact[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Returns the contact stored under the id.
+	 *
+	 * @param id of the contact
+	 * @return the contact, or null if there is none
+	 */
+	public Contact get(int id) {
+		Contact[] table = contacts;
+		return (id >= 0 && id < table.length) ? table[id] : null;
+	}
+
+	/**
+	 * Returns true if a contact is stored under the id.
+	 *
+	 * @param id of the contact
+	 * @return boolean, true if found
+	 */
+	public boolean contains(int id) {
+		return get(id) != null;
+	}
+
+	/**
+	 * Stores the contact under its own id, replacing any contact
+	 * previously stored with that id.
+	 *
+	 * @param contact to store
+	 * @throws IllegalArgumentException if the contact id is negative
+	 */
+	public void add(Contact contact) {
+		int id = contact.getId();
+		if (id < 0) throw new IllegalArgumentException("Contact id may not be negative!");
+		ensureCapacity(id + 1);
+		if (contacts[id] == null) size++;
+		contacts[id] = contact;
+	}
+
+	/**
+	 * Grows the table so ids up to capacity - 1 can be stored without
+	 * further copying.
+	 *
+	 * @param capacity number of ids the table should cover
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity <= contacts.length) return;
+		int newLength = contacts.length;
+		while (newLength < capacity) newLength <<= 1;
+		contacts = Arrays.copyOf(contacts, newLength);
+	}
+
+	/**
+	 * Returns the number of contacts stored.
+	 *
+	 * @return number of contacts
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Iterates over the contacts in id order.
+	 */
+	@Override
+	public Iterator<Contact> iterator() {
+		return new Iterator<Contact>() {
+			private int id = nextId(0);
+
+			@Override
+			public boolean hasNext() {
+				return id < contacts.length;
+			}
+
+			@Override
+			public Contact next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				Contact contact = contacts[id];
+				id = nextId(id + 1);
+				return contact;
+			}
+
+			private int nextId(int from) {
+				while (from < contacts.length && contacts[from] == null) from++;
+				return from;
+			}
+		};
+	}
+}
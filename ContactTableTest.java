@@ -0,0 +1,56 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * ContactTable Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class ContactTableTest {
+
+	private ContactTable table = new ContactTable();
+
+	@Test
+	public void get_addedContact_returnContact() {
+		Contact contact = new ContactImpl(3, "John", "");
+		table.add(contact);
+		assertEquals(true, table.get(3) == contact && table.contains(3));
+	}
+
+	@Test
+	public void get_unknownOrNegativeId_returnNull() {
+		table.add(new ContactImpl(3, "John", ""));
+		assertEquals(true, table.get(2) == null && table.get(-1) == null && table.get(1000) == null);
+	}
+
+	@Test
+	public void add_idBeyondCapacity_growTable() {
+		table.add(new ContactImpl(100000, "John", ""));
+		assertEquals(true, table.contains(100000) && table.size() == 1);
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void add_negativeId_throwIllArgEx() {
+		table.add(new ContactImpl(-1, "John", ""));
+	}
+
+	@Test
+	public void iterator_sparseIds_returnedInIdOrder() {
+		int[] ids = {40, 2, 17, 0};
+		for (int id : ids){
+			table.add(new ContactImpl(id, "Contact " + id, ""));
+		}
+		int previousId = -1;
+		int numReturned = 0;
+		boolean inOrder = true;
+		for (Contact contact : table){
+			if (contact.getId() <= previousId) inOrder = false;
+			previousId = contact.getId();
+			numReturned++;
+		}
+		assertEquals(true, inOrder && numReturned == ids.length);
+	}
+}
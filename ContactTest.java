@@ -34,5 +34,12 @@ public class ContactTest {
 		contact.addNotes(TEST_NOTES);
 		assertEquals(true, TEST_NOTES.equals(contact.getNotes()));
 	}
+	
+	@Test
+	public void equals_sameId() {
+		Contact sameId = new ContactImpl(TEST_ID, "Someone Else", "");
+		assertEquals(true, contact.equals(sameId) && contact.hashCode() == sameId.hashCode()
+				&& !contact.equals(new ContactImpl(TEST_ID + 1, TEST_NAME, TEST_NOTES)));
+	}
 
 }
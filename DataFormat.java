@@ -0,0 +1,161 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Formats in which the contact manager can save its data. <br />
+ * Each format knows its file name and how to read and write that file.
+ *
+ * @author caleb
+ *
+ */
+public enum DataFormat {
+	/**
+	 * Human readable xml file, easily imported into other programs.
+	 */
+	XML("data.xml") {
+		@Override
+		public void read(File file, DataRecordHandler handler) throws IOException {
+			try {
+				ContactManagerXml.read(file, handler);
+			} catch (XMLStreamException e) {
+				throw new IOException(e);
+			}
+		}
+
+		@Override
+		public void write(OutputStream out, Iterable<? extends Contact> contacts,
+				Iterable<? extends PastMeeting> pastMeetings,
+				Iterable<? extends FutureMeeting> futureMeetings) throws IOException {
+			ContactManagerXml.write(out, contacts, pastMeetings, futureMeetings);
+		}
+	},
+
+	/**
+	 * Compact binary snapshot, read through a memory-mapped file.
+	 */
+	BINARY("data.bin") {
+		@Override
+		public void read(File file, DataRecordHandler handler) throws IOException {
+			BinarySnapshot.read(file, handler);
+		}
+
+		@Override
+		public void write(OutputStream out, Iterable<? extends Contact> contacts,
+				Iterable<? extends PastMeeting> pastMeetings,
+				Iterable<? extends FutureMeeting> futureMeetings) throws IOException {
+			BinarySnapshot.write(out, contacts, pastMeetings, futureMeetings);
+		}
+	},
+
+	/**
+	 * The binary snapshot, read leaving all notes in the mapped file until
+	 * they are asked for. Startup skips decoding the notes and only the most
+	 * recently read notes are kept in memory, so large archives load faster
+	 * and take less heap. Written exactly as BINARY.
+	 */
+	BINARY_LAZY_NOTES("data.bin") {
+		@Override
+		public void read(File file, DataRecordHandler handler) throws IOException {
+			BinarySnapshot.readLazily(file, handler, NotesFile.DEFAULT_CACHE_SIZE);
+		}
+
+		@Override
+		public void write(OutputStream out, Iterable<? extends Contact> contacts,
+				Iterable<? extends PastMeeting> pastMeetings,
+				Iterable<? extends FutureMeeting> futureMeetings) throws IOException {
+			BinarySnapshot.write(out, contacts, pastMeetings, futureMeetings);
+		}
+	};
+
+	private String fileName;
+
+	private DataFormat(String fileName) {
+		this.fileName = fileName;
+	}
+
+	/**
+	 * Returns the name of the file data is saved to in this format.
+	 *
+	 * @return the file name
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Reads every record in the file and passes it to the handler in file order.
+	 *
+	 * @param file the file to read
+	 * @param handler receiver of the records
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	public abstract void read(File file, DataRecordHandler handler) throws IOException;
+
+	/**
+	 * Writes all records to the stream. The stream is flushed but left open.
+	 *
+	 * @param out the stream to write to
+	 * @param contacts contacts to write
+	 * @param pastMeetings past meetings to write
+	 * @param futureMeetings future meetings to write
+	 * @throws IOException if the stream cannot be written
+	 */
+	public abstract void write(OutputStream out, Iterable<? extends Contact> contacts,
+			Iterable<? extends PastMeeting> pastMeetings,
+			Iterable<? extends FutureMeeting> futureMeetings) throws IOException;
+
+	/**
+	 * Replaces the file with all records, without ever leaving a partly
+	 * written file in its place.<br />
+	 * The records are written to a temporary file next to it, which is forced
+	 * to the disk and then renamed over the file, and the directory is forced
+	 * after the rename. A crash part way leaves either the old or the new file,
+	 * never a truncated one.
+	 *
+	 * @param file the file to replace
+	 * @param contacts contacts to write
+	 * @param pastMeetings past meetings to write
+	 * @param futureMeetings future meetings to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(File file, Iterable<? extends Contact> contacts,
+			Iterable<? extends PastMeeting> pastMeetings,
+			Iterable<? extends FutureMeeting> futureMeetings) throws IOException {
+		File temp = new File(file.getPath() + ".tmp");
+		try (FileOutputStream out = new FileOutputStream(temp)) {
+			write(out, contacts, pastMeetings, futureMeetings);
+			out.getChannel().force(true);
+		}
+		try {
+			Files.move(temp.toPath(), file.toPath(), 
+					StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		syncDirectory(file.getAbsoluteFile().getParentFile());
+	}
+
+	/**
+	 * Helper function which forces the directory to the disk, so the rename
+	 * survives power loss before the journal it replaces is rotated or emptied.
+	 * Some platforms, such as Windows, cannot open a directory and make renames
+	 * durable on their own, in which case there is nothing to do.
+	 */
+	private static void syncDirectory(File directory) {
+		if (directory == null) return;
+		try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// directories cannot be opened or forced here
+		}
+	}
+}
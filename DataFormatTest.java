@@ -0,0 +1,49 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DataFormat Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class DataFormatTest {
+
+	@Test
+	public void save_existingFile_replacedAndNoTempFileLeft() throws IOException {
+		for (DataFormat format : DataFormat.values()){
+			File file = File.createTempFile("contact_manager", "." + format.name());
+			file.deleteOnExit();
+			List<Contact> contacts = new ArrayList<Contact>();
+			contacts.add(new ContactImpl(0, "Joe", "old"));
+			format.save(file, contacts, new ArrayList<PastMeeting>(), new ArrayList<FutureMeeting>());
+			contacts.set(0, new ContactImpl(0, "Joe", "new"));
+			format.save(file, contacts, new ArrayList<PastMeeting>(), new ArrayList<FutureMeeting>());
+
+			final List<String> notes = new ArrayList<String>();
+			format.read(file, new DataRecordHandler() {
+				@Override
+				public void restoreContact(int id, String name, String contactNotes) {
+					notes.add(contactNotes);
+				}
+
+				@Override
+				public void restorePastMeeting(int id, long date, int[] contactIds, String meetingNotes) {
+				}
+
+				@Override
+				public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+				}
+			});
+			boolean tempFileLeft = new File(file.getPath() + ".tmp").exists();
+			assertEquals(format.name(), true, notes.size() == 1 && notes.get(0).equals("new") && !tempFileLeft);
+		}
+	}
+}
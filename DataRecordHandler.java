@@ -0,0 +1,66 @@
+/**
+ * Receives the records of a contact manager data file as they are read. <br />
+ * Readers call back once per record in file order, which lets the contact
+ * manager rebuild its state in a single pass without holding the whole file
+ * in memory.
+ *
+ * @author caleb
+ *
+ */
+public interface DataRecordHandler {
+
+	/**
+	 * Called for each contact record.
+	 *
+	 * @param id of the contact
+	 * @param name of the contact
+	 * @param notes about the contact, maybe empty
+	 */
+	void restoreContact(int id, String name, String notes);
+
+	/**
+	 * Called for each past meeting record.
+	 *
+	 * @param id of the meeting
+	 * @param date of the meeting in ms since the epoch
+	 * @param contactIds ids of the contacts present at the meeting
+	 * @param notes about the meeting, maybe empty
+	 */
+	void restorePastMeeting(int id, long date, int[] contactIds, String notes);
+
+	/**
+	 * Called for each contact record whose notes were not read yet, when
+	 * the file is read with notes left in it. By default the notes are read
+	 * straight away and passed on to restoreContact.
+	 *
+	 * @param id of the contact
+	 * @param name of the contact
+	 * @param notes about the contact, read from the file when first asked for
+	 */
+	default void restoreContact(int id, String name, NotesBuffer notes) {
+		restoreContact(id, name, notes.toString());
+	}
+
+	/**
+	 * Called for each past meeting record whose notes were not read yet, when
+	 * the file is read with notes left in it. By default the notes are read
+	 * straight away and passed on to restorePastMeeting.
+	 *
+	 * @param id of the meeting
+	 * @param date of the meeting in ms since the epoch
+	 * @param contactIds ids of the contacts present at the meeting
+	 * @param notes about the meeting, read from the file when first asked for
+	 */
+	default void restorePastMeeting(int id, long date, int[] contactIds, NotesBuffer notes) {
+		restorePastMeeting(id, date, contactIds, notes.toString());
+	}
+
+	/**
+	 * Called for each future meeting record.
+	 *
+	 * @param id of the meeting
+	 * @param date of the meeting in ms since the epoch
+	 * @param contactIds ids of the contacts scheduled for the meeting
+	 */
+	void restoreFutureMeeting(int id, long date, int[] contactIds);
+}
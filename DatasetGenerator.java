@@ -0,0 +1,296 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Generates large, realistic data sets for load and soak testing. <br />
+ * The same seed always gives the same data: names, notes, attendees and the
+ * offsets of meeting dates from the reference time. Data can be written
+ * straight to a data file, one record at a time, without ever being held in
+ * memory, or added through the ContactManager interface.
+ *
+ * The shape of the data follows what real address books look like:
+ * <ul>
+ * <li>the number of attendees of a meeting follows a Zipf distribution, so
+ * most meetings are small and a few are very large</li>
+ * <li>attendees are drawn with Zipf distributed popularity, so a few contacts
+ * attend a large share of all meetings</li>
+ * <li>past meetings are spread over the years before the reference time and
+ * future meetings over the years after it</li>
+ * <li>notes vary from empty to several hundred words</li>
+ * </ul>
+ *
+ * Contacts are numbered from 0, and so are meetings: past meetings first,
+ * then future meetings. These are also the ids a new contact manager hands
+ * out when the data is added to it in that order.
+ *
+ * @author caleb
+ *
+ */
+public class DatasetGenerator {
+
+	private static final long DAY = 24L * 60 * 60 * 1000;
+	private static final int YEARS = 5;
+	private static final int MAX_ATTENDEES = 50;
+	private static final double ATTENDEE_COUNT_EXPONENT = 2.0;
+	private static final double POPULARITY_EXPONENT = 0.8;
+	private static final int MAX_NOTES_WORDS = 400;
+	private static final int BATCH_SIZE = 10000;
+
+	private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert",
+			"Jennifer", "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard",
+			"Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen", "Wei", "Ana",
+			"Mohammed", "Olga", "Hiroshi", "Priya", "Kwame", "Ingrid", "Mateo", "Aisha"};
+	private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones",
+			"Garcia", "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson",
+			"Anderson", "Taylor", "Thomas", "Moore", "Jackson", "Martin", "Lee", "Chen", "Kumar",
+			"Okafor", "Ivanova", "Tanaka", "Silva", "Nielsen", "Rossi", "Dubois", "Kowalski"};
+	private static final String[] WORDS = {"agreed", "budget", "review", "follow", "up", "on",
+			"the", "project", "plan", "client", "deadline", "next", "week", "discussed", "options",
+			"for", "release", "action", "items", "send", "report", "to", "team", "meeting", "went",
+			"well", "need", "more", "time", "and", "risks", "signed", "contract", "call", "back"};
+
+	private final long seed;
+	private final int contacts;
+	private final int pastMeetings;
+	private final int futureMeetings;
+	private final long referenceTime;
+
+	/**
+	 * Constructor for a generator whose dates are relative to the current day.
+	 *
+	 * @param seed for the random choices, the same seed gives the same data
+	 * @param contacts number of contacts to generate
+	 * @param pastMeetings number of past meetings to generate
+	 * @param futureMeetings number of future meetings to generate
+	 */
+	public DatasetGenerator(long seed, int contacts, int pastMeetings, int futureMeetings) {
+		this(seed, contacts, pastMeetings, futureMeetings,
+				System.currentTimeMillis() / DAY * DAY);
+	}
+
+	/**
+	 * Constructor for a generator whose dates are relative to a fixed time.
+	 *
+	 * @param seed for the random choices, the same seed gives the same data
+	 * @param contacts number of contacts to generate, at least one
+	 * @param pastMeetings number of past meetings to generate
+	 * @param futureMeetings number of future meetings to generate
+	 * @param referenceTime time in ms which separates past and future meetings
+	 * @throws IllegalArgumentException if there are no contacts or a count is negative
+	 */
+	public DatasetGenerator(long seed, int contacts, int pastMeetings, int futureMeetings,
+			long referenceTime) {
+		if (contacts < 1 || pastMeetings < 0 || futureMeetings < 0)
+			throw new IllegalArgumentException("Invalid data set size!");
+		this.seed = seed;
+		this.contacts = contacts;
+		this.pastMeetings = pastMeetings;
+		this.futureMeetings = futureMeetings;
+		this.referenceTime = referenceTime;
+	}
+
+	/**
+	 * Writes the data set to a file in the given format, replacing it.
+	 *
+	 * @param file the data file to write
+	 * @param format of the data file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(File file, DataFormat format) throws IOException {
+		format.save(file, contacts(), pastMeetings(), futureMeetings());
+	}
+
+	/**
+	 * Adds the data set to a contact manager through its public batch methods,
+	 * a few thousand records at a time. The contact manager should be empty,
+	 * so the ids it hands out match those of the generated records.
+	 *
+	 * @param cm the contact manager to add to
+	 */
+	public void populate(ContactManager cm) {
+		addInBatches(contacts(), cm::addNewContacts);
+		addInBatches(pastMeetings(), cm::addNewPastMeetings);
+		addInBatches(futureMeetings(), cm::addFutureMeetings);
+	}
+
+	/**
+	 * Returns the generated contacts, in order of id.
+	 * Each iteration generates them afresh and gives the same contacts.
+	 *
+	 * @return the contacts
+	 */
+	public Iterable<Contact> contacts() {
+		return () -> new Generator<Contact>(seed, contacts) {
+			@Override
+			Contact generate(int index) {
+				String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+						+ LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+				return new ContactImpl(index, name, notes(random, MAX_NOTES_WORDS / 8));
+			}
+		};
+	}
+
+	/**
+	 * Returns the generated past meetings, in order of id.
+	 * Each iteration generates them afresh and gives the same meetings.
+	 *
+	 * @return the past meetings
+	 */
+	public Iterable<PastMeeting> pastMeetings() {
+		return () -> new Generator<PastMeeting>(seed + 1, pastMeetings) {
+			@Override
+			PastMeeting generate(int index) {
+				long time = referenceTime - 1 - (long) (random.nextDouble() * YEARS * 365 * DAY);
+				return new PastMeetingImpl(index, time, attendees(random),
+						notes(random, MAX_NOTES_WORDS));
+			}
+		};
+	}
+
+	/**
+	 * Returns the generated future meetings, in order of id.
+	 * Each iteration generates them afresh and gives the same meetings.
+	 *
+	 * @return the future meetings
+	 */
+	public Iterable<FutureMeeting> futureMeetings() {
+		return () -> new Generator<FutureMeeting>(seed + 2, futureMeetings) {
+			@Override
+			FutureMeeting generate(int index) {
+				long time = referenceTime + DAY + (long) (random.nextDouble() * YEARS * 365 * DAY);
+				return new FutureMeetingImpl(pastMeetings + index, time, attendees(random));
+			}
+		};
+	}
+
+	/**
+	 * Writes a data set to a data file from the command line, or adds it to a
+	 * new contact manager and flushes it when the format is "api".
+	 *
+	 * @param args contacts, default 1000000, meetings, default 2000000 (half past
+	 * 		and half future), seed, default 1, and format XML, BINARY or api, default XML
+	 */
+	public static void main(String[] args) {
+		int contacts = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int meetings = args.length > 1 ? Integer.parseInt(args[1]) : 2 * contacts;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+		String format = args.length > 3 ? args[3] : DataFormat.XML.name();
+
+		DatasetGenerator generator = new DatasetGenerator(seed, contacts, meetings / 2, meetings - meetings / 2);
+		if (format.equalsIgnoreCase("api")) {
+			ContactManager cm = new ContactManagerImpl(false);
+			generator.populate(cm);
+			cm.flush();
+		} else {
+			DataFormat dataFormat = DataFormat.valueOf(format.toUpperCase());
+			try {
+				generator.write(new File(dataFormat.getFileName()), dataFormat);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Helper function which passes records to a batch method BATCH_SIZE at a time.
+	 */
+	private static <T> void addInBatches(Iterable<T> records, Consumer<List<T>> add) {
+		List<T> batch = new ArrayList<T>(BATCH_SIZE);
+		for (T record : records){
+			batch.add(record);
+			if (batch.size() == BATCH_SIZE) {
+				add.accept(batch);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) add.accept(batch);
+	}
+
+	/**
+	 * Helper function which picks the attendees of a meeting: a Zipf
+	 * distributed number of distinct contacts, favouring popular ones.
+	 * Attendees keep the order they were drawn in, so they are written out
+	 * the same way every time.
+	 */
+	private Set<Contact> attendees(Random random) {
+		int count = Math.min(zipf(random, MAX_ATTENDEES, ATTENDEE_COUNT_EXPONENT), contacts);
+		Set<Integer> ids = new LinkedHashSet<Integer>();
+		while (ids.size() < count){
+			// popular contacts get the low ids, spread them out over all contacts
+			int rank = zipf(random, contacts, POPULARITY_EXPONENT) - 1;
+			ids.add((int) ((rank * 2654435761L) % contacts));
+		}
+		Set<Contact> attendees = new LinkedHashSet<Contact>();
+		for (int id : ids){
+			attendees.add(new ContactImpl(id, "", ""));
+		}
+		return attendees;
+	}
+
+	/**
+	 * Helper function which draws from 1 to n, with the chance of k
+	 * proportional to 1 / k^exponent. Uses the inverse of the continuous
+	 * distribution, so draws take constant time for any n.
+	 */
+	private static int zipf(Random random, int n, double exponent) {
+		double u = random.nextDouble();
+		double k;
+		if (exponent == 1) {
+			k = Math.pow(n + 1, u);
+		} else {
+			double power = 1 - exponent;
+			k = Math.pow(u * (Math.pow(n + 1, power) - 1) + 1, 1 / power);
+		}
+		return Math.max(1, Math.min(n, (int) k));
+	}
+
+	/**
+	 * Helper function which writes notes of up to the given number of words,
+	 * mostly short and sometimes long.
+	 */
+	private static String notes(Random random, int maxWords) {
+		int words = (int) (maxWords * Math.pow(random.nextDouble(), 3));
+		StringBuilder notes = new StringBuilder();
+		for (int i = 0; i < words; i++){
+			if (i > 0) notes.append(i % 12 == 0 ? ".\n" : " ");
+			notes.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return notes.toString();
+	}
+
+	/**
+	 * Iterator generating a fixed number of records from its own seeded
+	 * random numbers.
+	 */
+	private abstract static class Generator<T> implements Iterator<T> {
+		protected final Random random;
+		private final int count;
+		private int index;
+
+		private Generator(long seed, int count) {
+			random = new Random(seed);
+			this.count = count;
+		}
+
+		abstract T generate(int index);
+
+		@Override
+		public boolean hasNext() {
+			return index < count;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return generate(index++);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * DatasetGenerator Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class DatasetGeneratorTest {
+
+	private static final long REFERENCE_TIME = 1500000000000L;
+
+	@Test
+	public void write_sameSeed_identicalFiles() throws IOException {
+		File first = File.createTempFile("generated", ".xml");
+		File second = File.createTempFile("generated", ".xml");
+		try {
+			new DatasetGenerator(7, 200, 300, 100, REFERENCE_TIME).write(first, DataFormat.XML);
+			new DatasetGenerator(7, 200, 300, 100, REFERENCE_TIME).write(second, DataFormat.XML);
+			assertEquals(true, Arrays.equals(Files.readAllBytes(first.toPath()),
+					Files.readAllBytes(second.toPath())));
+		} finally {
+			first.delete();
+			second.delete();
+		}
+	}
+
+	@Test
+	public void pastMeetings_generated_attendeesAndDatesInRange() {
+		boolean valid = true;
+		int totalAttendees = 0;
+		int numMeetings = 0;
+		for (PastMeeting meeting : new DatasetGenerator(3, 1000, 2000, 0, REFERENCE_TIME).pastMeetings()){
+			int attendees = meeting.getContacts().size();
+			for (Contact contact : meeting.getContacts()){
+				if (contact.getId() < 0 || contact.getId() >= 1000) valid = false;
+			}
+			if (attendees < 1 || attendees > 50 || meeting.getTimeInMillis() >= REFERENCE_TIME
+					|| meeting.getId() != numMeetings) valid = false;
+			totalAttendees += attendees;
+			numMeetings++;
+		}
+		// Zipf distributed counts are mostly small
+		assertEquals(true, valid && numMeetings == 2000 && totalAttendees < 5 * numMeetings);
+	}
+
+	@Test
+	public void populate_emptyContactManager_allRecordsAdded() {
+		DatasetGenerator generator = new DatasetGenerator(5, 100, 150, 50);
+		ContactManager cm = new ContactManagerImpl(false);
+		generator.populate(cm);
+		PastMeeting generated = generator.pastMeetings().iterator().next();
+		assertEquals(true, cm.getContacts("").size() == 100
+				&& cm.getFutureMeeting(199) != null && cm.getMeeting(200) == null
+				&& cm.getPastMeeting(0).getNotes().equals(generated.getNotes()));
+	}
+}
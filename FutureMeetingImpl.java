@@ -1,5 +1,6 @@
 import java.util.Calendar;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 /**
  * Implementation for Future Meeting using MeetingImpl as superclass.
@@ -17,5 +18,28 @@ public class FutureMeetingImpl extends MeetingImpl implements FutureMeeting {
 	public FutureMeetingImpl(int id, Calendar date, Set<Contact> contacts) {
 		super(id, date, contacts);
 	}
+	
+	/**
+	 * Constructor which calls superclass meeting.<br />
+	 * 
+	 * @param id to identify meeting
+	 * @param time meeting is to be held, in ms since the epoch
+	 * @param contacts scheduled for meeting
+	 */
+	public FutureMeetingImpl(int id, long time, Set<Contact> contacts) {
+		super(id, time, contacts);
+	}
+	
+	/**
+	 * Constructor which calls superclass meeting.<br />
+	 * 
+	 * @param id to identify meeting
+	 * @param time meeting is to be held, in ms since the epoch
+	 * @param contactIds of the contacts scheduled for meeting, kept as given if sorted
+	 * @param directory looking up a contact by id
+	 */
+	public FutureMeetingImpl(int id, long time, int[] contactIds, IntFunction<Contact> directory) {
+		super(id, time, contactIds, directory);
+	}
 
 }
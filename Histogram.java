@@ -0,0 +1,143 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative long values, such as latencies in ns. <br />
+ * Values are counted in buckets laid out like HdrHistogram: each power of two
+ * is split into 16 buckets of equal width, so any value is known to within
+ * 1/16 (about 6%) whatever its size, and the whole range of long fits in
+ * under a thousand buckets. Recording is a few atomic increments and never
+ * blocks, so it may be called from any number of threads at once.
+ *
+ * Readers see counts as they are at the time of reading; a value recorded
+ * while a percentile is computed may or may not be included.
+ *
+ * @author caleb
+ *
+ */
+public class Histogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts;
+	private final LongAdder count;
+	private final LongAdder total;
+	private final LongAccumulator max;
+
+	/**
+	 * Constructor for an empty histogram.
+	 */
+	public Histogram() {
+		counts = new AtomicLongArray(BUCKETS);
+		count = new LongAdder();
+		total = new LongAdder();
+		max = new LongAccumulator(Math::max, 0);
+	}
+
+	/**
+	 * Records a value. Negative values are recorded as 0.
+	 *
+	 * @param value the value to record
+	 */
+	public void record(long value) {
+		if (value < 0) value = 0;
+		counts.incrementAndGet(bucket(value));
+		count.increment();
+		total.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Returns the number of values recorded.
+	 *
+	 * @return number of values
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the mean of the values recorded.
+	 *
+	 * @return mean value, or 0 if there are none
+	 */
+	public double getMean() {
+		long values = count.sum();
+		return values == 0 ? 0 : (double) total.sum() / values;
+	}
+
+	/**
+	 * Returns the largest value recorded.
+	 *
+	 * @return largest value, or 0 if there are none
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the value below which the given fraction of values fall, as the
+	 * highest value of the bucket it was counted in, but no more than the
+	 * largest value recorded.
+	 *
+	 * @param fraction between 0 and 1, e.g. 0.99 for the 99th percentile
+	 * @return the percentile, or 0 if there are no values
+	 * @throws IllegalArgumentException if the fraction is not between 0 and 1
+	 */
+	public long getPercentile(double fraction) {
+		if (fraction < 0 || fraction > 1)
+			throw new IllegalArgumentException("Fraction must be between 0 and 1!");
+		long[] snapshot = new long[BUCKETS];
+		long values = 0;
+		for (int i = 0; i < BUCKETS; i++){
+			snapshot[i] = counts.get(i);
+			values += snapshot[i];
+		}
+		if (values == 0) return 0;
+
+		long rank = Math.max(1, (long) Math.ceil(fraction * values));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++){
+			seen += snapshot[i];
+			if (seen >= rank) return Math.min(highestValue(i), getMax());
+		}
+		return getMax();
+	}
+
+	/**
+	 * Forgets every value recorded. Values recorded at the same time may be
+	 * partly kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++){
+			counts.set(i, 0);
+		}
+		count.reset();
+		total.reset();
+		max.reset();
+	}
+
+	/**
+	 * Helper function which finds the bucket of a value: values below 16 have
+	 * a bucket each, above that the highest bit picks a group of 16 buckets and
+	 * the next 4 bits the bucket within it.
+	 */
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS) return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * Helper function which returns the highest value counted in a bucket.
+	 */
+	static long highestValue(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+}
@@ -0,0 +1,92 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Histogram Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class HistogramTest {
+
+	@Test
+	public void getPercentile_smallValues_exactValues() {
+		Histogram histogram = new Histogram();
+		for (int i = 1; i <= 10; i++){
+			histogram.record(i);
+		}
+		assertEquals(true, histogram.getPercentile(0.5) == 5 && histogram.getPercentile(1) == 10
+				&& histogram.getPercentile(0) == 1 && histogram.getCount() == 10);
+	}
+
+	@Test
+	public void getPercentile_largeValues_withinOneSixteenth() {
+		Histogram histogram = new Histogram();
+		for (long i = 1; i <= 100000; i++){
+			histogram.record(i * 1000);
+		}
+		long median = histogram.getPercentile(0.5);
+		long p99 = histogram.getPercentile(0.99);
+		assertEquals(true, median >= 50000000 && median <= 50000000 * 17 / 16
+				&& p99 >= 99000000 && p99 <= 99000000 * 17 / 16);
+	}
+
+	@Test
+	public void getPercentile_lastValue_neverAboveMax() {
+		Histogram histogram = new Histogram();
+		histogram.record(1000001);
+		assertEquals(true, histogram.getPercentile(1) == 1000001 && histogram.getMax() == 1000001);
+	}
+
+	@Test
+	public void getMean_recordedValues_returnMean() {
+		Histogram histogram = new Histogram();
+		histogram.record(100);
+		histogram.record(300);
+		assertEquals(true, histogram.getMean() == 200);
+	}
+
+	@Test
+	public void reset_recordedValues_empty() {
+		Histogram histogram = new Histogram();
+		histogram.record(42);
+		histogram.reset();
+		assertEquals(true, histogram.getCount() == 0 && histogram.getMax() == 0
+				&& histogram.getPercentile(0.5) == 0);
+	}
+
+	@Test
+	public void bucket_allBuckets_valuesWithinOwnBucket() {
+		boolean valid = true;
+		for (int bucket = 0; bucket < 960; bucket++){
+			if (Histogram.bucket(Histogram.highestValue(bucket)) != bucket) valid = false;
+			if (bucket > 0 && Histogram.bucket(Histogram.highestValue(bucket - 1) + 1) != bucket) valid = false;
+		}
+		assertEquals(true, valid && Histogram.bucket(Long.MAX_VALUE) == 959);
+	}
+
+	@Test
+	public void record_parallelThreads_noValuesLost() throws InterruptedException {
+		Histogram histogram = new Histogram();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++){
+			threads[i] = new Thread(() -> {
+				for (int j = 0; j < 10000; j++){
+					histogram.record(j);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads){
+			thread.join();
+		}
+		assertEquals(true, histogram.getCount() == 80000 && histogram.getMax() == 9999);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void getPercentile_fractionAboveOne_throwIllegalArgumentException() {
+		new Histogram().getPercentile(1.5);
+	}
+}
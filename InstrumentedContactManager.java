@@ -0,0 +1,387 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Contact manager which measures every call made to another contact manager. <br />
+ * For each operation it keeps a latency histogram, the number of calls and of
+ * calls which failed, and a histogram of the number of results returned.
+ * Restoring saved data is measured too when the contact manager is created
+ * through restore, and flushing is measured like any other call.
+ *
+ * Recording is lock-free (see Histogram), so the contact manager may be shared
+ * between threads if the one it wraps may be. Metrics are read as a list of
+ * OperationMetrics, programmatically or over JMX once registered.
+ *
+ * Measuring can be switched off at any time, which leaves one volatile read per
+ * call. For no overhead at all, use the wrapped contact manager directly.
+ *
+ * @author caleb
+ *
+ */
+public class InstrumentedContactManager implements ContactManager, ContactManagerMetricsMXBean {
+
+	private final ContactManager contactManager;
+	private final Operation restore = new Operation("restore", false);
+	private final Operation addFutureMeeting = new Operation("addFutureMeeting", false);
+	private final Operation getPastMeeting = new Operation("getPastMeeting", false);
+	private final Operation getFutureMeeting = new Operation("getFutureMeeting", false);
+	private final Operation getMeeting = new Operation("getMeeting", false);
+	private final Operation getFutureMeetingListByContact = new Operation("getFutureMeetingList(Contact)", true);
+	private final Operation getFutureMeetingListByDate = new Operation("getFutureMeetingList(Calendar)", true);
+	private final Operation getMeetingsBetween = new Operation("getMeetingsBetween", true);
+	private final Operation getPastMeetingList = new Operation("getPastMeetingList", true);
+	private final Operation addNewPastMeeting = new Operation("addNewPastMeeting", false);
+	private final Operation addMeetingNotes = new Operation("addMeetingNotes", false);
+	private final Operation addNewContact = new Operation("addNewContact", false);
+	private final Operation addNewContacts = new Operation("addNewContacts", false);
+	private final Operation addNewPastMeetings = new Operation("addNewPastMeetings", false);
+	private final Operation addFutureMeetings = new Operation("addFutureMeetings", false);
+	private final Operation getContactsById = new Operation("getContacts(int...)", true);
+	private final Operation getContactsByName = new Operation("getContacts(String)", true);
+	private final Operation flush = new Operation("flush", false);
+	private final Operation[] operations = {restore, addFutureMeeting, getPastMeeting,
+			getFutureMeeting, getMeeting, getFutureMeetingListByContact, getFutureMeetingListByDate,
+			getMeetingsBetween, getPastMeetingList, addNewPastMeeting, addMeetingNotes, addNewContact,
+			addNewContacts, addNewPastMeetings, addFutureMeetings, getContactsById, getContactsByName, flush};
+	private volatile boolean enabled = true;
+	private ObjectName registeredName;
+
+	/**
+	 * Constructor wrapping a contact manager which has already been created.
+	 *
+	 * @param contactManager the contact manager to measure
+	 */
+	public InstrumentedContactManager(ContactManager contactManager) {
+		this.contactManager = contactManager;
+	}
+
+	/**
+	 * Creates a contact manager and wraps it, measuring the time taken to create
+	 * it, which includes restoring any saved data, as the restore operation.
+	 * e.g. InstrumentedContactManager.restore(ContactManagerImpl::new)
+	 *
+	 * @param factory creating the contact manager to measure
+	 * @return the measured contact manager
+	 */
+	public static InstrumentedContactManager restore(Supplier<? extends ContactManager> factory) {
+		long start = System.nanoTime();
+		ContactManager contactManager = factory.get();
+		long latency = System.nanoTime() - start;
+		InstrumentedContactManager instrumented = new InstrumentedContactManager(contactManager);
+		instrumented.restore.latency.record(latency);
+		return instrumented;
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server, under the name
+	 * ContactManager:type=Metrics,name=(the name given).
+	 *
+	 * @param name to tell this contact manager apart from others
+	 * @throws JMException if the name is invalid or already registered
+	 */
+	public synchronized void registerMBean(String name) throws JMException {
+		ObjectName objectName = new ObjectName("ContactManager", "type", "Metrics");
+		objectName = ObjectName.getInstance(objectName.getCanonicalName() + ",name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+		registeredName = objectName;
+	}
+
+	/**
+	 * Removes the metrics from the platform MBean server, if registered.
+	 *
+	 * @throws JMException if the metrics cannot be unregistered
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (registeredName == null) return;
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+		registeredName = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<OperationMetrics> getOperations() {
+		List<OperationMetrics> metrics = new ArrayList<OperationMetrics>(operations.length);
+		for (Operation operation : operations){
+			metrics.add(operation.read());
+		}
+		return metrics;
+	}
+
+	/**
+	 * Returns the metrics of one operation.
+	 *
+	 * @param name of the operation, as in the metrics, e.g. "getMeeting"
+	 * 		or "getContacts(String)"
+	 * @return the operation's metrics, or null if there is no such operation
+	 */
+	public OperationMetrics getOperation(String name) {
+		for (Operation operation : operations){
+			if (operation.name.equals(name)) return operation.read();
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void reset() {
+		for (Operation operation : operations){
+			operation.reset();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int addFutureMeeting(Set<Contact> contacts, Calendar date) {
+		return measure(addFutureMeeting, () -> contactManager.addFutureMeeting(contacts, date));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PastMeeting getPastMeeting(int id) {
+		return measure(getPastMeeting, () -> contactManager.getPastMeeting(id));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FutureMeeting getFutureMeeting(int id) {
+		return measure(getFutureMeeting, () -> contactManager.getFutureMeeting(id));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Meeting getMeeting(int id) {
+		return measure(getMeeting, () -> contactManager.getMeeting(id));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getFutureMeetingList(Contact contact) {
+		return measure(getFutureMeetingListByContact, () -> contactManager.getFutureMeetingList(contact));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getFutureMeetingList(Calendar date) {
+		return measure(getFutureMeetingListByDate, () -> contactManager.getFutureMeetingList(date));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getMeetingsBetween(Calendar start, Calendar end) {
+		return measure(getMeetingsBetween, () -> contactManager.getMeetingsBetween(start, end));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<PastMeeting> getPastMeetingList(Contact contact) {
+		return measure(getPastMeetingList, () -> contactManager.getPastMeetingList(contact));
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Not measured, as the wrapped contact manager may do its work only
+	 * as the stream is consumed.
+	 */
+	@Override
+	public Stream<Meeting> streamFutureMeetings(Contact contact) {
+		return contactManager.streamFutureMeetings(contact);
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Not measured, as the wrapped contact manager may do its work only
+	 * as the stream is consumed.
+	 */
+	@Override
+	public Stream<PastMeeting> streamPastMeetings(Contact contact) {
+		return contactManager.streamPastMeetings(contact);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addNewPastMeeting(Set<Contact> contacts, Calendar date, String text) {
+		measure(addNewPastMeeting, () -> {
+			contactManager.addNewPastMeeting(contacts, date, text);
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addMeetingNotes(int id, String text) {
+		measure(addMeetingNotes, () -> {
+			contactManager.addMeetingNotes(id, text);
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addNewContact(String name, String notes) {
+		measure(addNewContact, () -> {
+			contactManager.addNewContact(name, notes);
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int addNewContacts(Collection<? extends Contact> contacts) {
+		return measure(addNewContacts, () -> contactManager.addNewContacts(contacts));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int addNewPastMeetings(Collection<? extends PastMeeting> meetings) {
+		return measure(addNewPastMeetings, () -> contactManager.addNewPastMeetings(meetings));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int addFutureMeetings(Collection<? extends FutureMeeting> meetings) {
+		return measure(addFutureMeetings, () -> contactManager.addFutureMeetings(meetings));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Contact> getContacts(int... ids) {
+		return measure(getContactsById, () -> contactManager.getContacts(ids));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Contact> getContacts(String name) {
+		return measure(getContactsByName, () -> contactManager.getContacts(name));
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Not measured, as the wrapped contact manager may do its work only
+	 * as the stream is consumed.
+	 */
+	@Override
+	public Stream<Contact> streamContacts(String name) {
+		return contactManager.streamContacts(name);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flush() {
+		measure(flush, () -> {
+			contactManager.flush();
+			return null;
+		});
+	}
+
+	/**
+	 * Helper function which makes a call, recording how long it took,
+	 * whether it failed and how many results it returned.
+	 */
+	private <T> T measure(Operation operation, Supplier<T> call) {
+		if (!enabled) return call.get();
+		long start = System.nanoTime();
+		T result;
+		try {
+			result = call.get();
+		} catch (RuntimeException e) {
+			operation.errors.increment();
+			operation.latency.record(System.nanoTime() - start);
+			throw e;
+		}
+		operation.latency.record(System.nanoTime() - start);
+		if (operation.resultSizes != null) operation.resultSizes.record(((Collection<?>) result).size());
+		return result;
+	}
+
+	/**
+	 * The metrics recorded for one operation.
+	 */
+	private static class Operation {
+		private final String name;
+		private final Histogram latency = new Histogram();
+		private final LongAdder errors = new LongAdder();
+		private final Histogram resultSizes;
+
+		private Operation(String name, boolean returnsCollection) {
+			this.name = name;
+			resultSizes = returnsCollection ? new Histogram() : null;
+		}
+
+		private OperationMetrics read() {
+			return new OperationMetrics(name, latency.getCount(), errors.sum(), latency.getMean(),
+					latency.getPercentile(0.5), latency.getPercentile(0.99), latency.getPercentile(0.999),
+					latency.getMax(), resultSizes == null ? 0 : resultSizes.getMean(),
+					resultSizes == null ? 0 : resultSizes.getMax());
+		}
+
+		private void reset() {
+			latency.reset();
+			errors.reset();
+			if (resultSizes != null) resultSizes.reset();
+		}
+	}
+}
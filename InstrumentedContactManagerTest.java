@@ -0,0 +1,98 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Calendar;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * InstrumentedContactManager Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class InstrumentedContactManagerTest {
+
+	@Test
+	public void getOperation_queriesMade_callsAndResultSizesCounted() {
+		InstrumentedContactManager cm = new InstrumentedContactManager(new ContactManagerImpl(false));
+		cm.addNewContact("Alice", "");
+		cm.addNewContact("Alicia", "");
+		cm.getContacts("Ali");
+		cm.getContacts("Alici");
+		OperationMetrics metrics = cm.getOperation("getContacts(String)");
+		assertEquals(true, metrics.getCalls() == 2 && metrics.getErrors() == 0
+				&& metrics.getMaxResultSize() == 2 && metrics.getMeanResultSize() == 1.5
+				&& cm.getOperation("addNewContact").getCalls() == 2
+				&& metrics.getMaxLatency() >= metrics.getMedianLatency());
+	}
+
+	@Test
+	public void getOperation_callThrows_errorCounted() {
+		InstrumentedContactManager cm = new InstrumentedContactManager(new ContactManagerImpl(false));
+		cm.addNewContact("Alice", "");
+		Calendar past = Calendar.getInstance();
+		past.add(Calendar.YEAR, -1);
+		try {
+			cm.addFutureMeeting(cm.getContacts("Alice"), past);
+		} catch (IllegalArgumentException e) {
+			// expected: date in the past
+		}
+		OperationMetrics metrics = cm.getOperation("addFutureMeeting");
+		assertEquals(true, metrics.getCalls() == 1 && metrics.getErrors() == 1);
+	}
+
+	@Test
+	public void setEnabled_false_callsNotCounted() {
+		InstrumentedContactManager cm = new InstrumentedContactManager(new ContactManagerImpl(false));
+		cm.setEnabled(false);
+		cm.addNewContact("Alice", "");
+		cm.setEnabled(true);
+		cm.getContacts("Alice");
+		assertEquals(true, cm.getOperation("addNewContact").getCalls() == 0
+				&& cm.getOperation("getContacts(String)").getCalls() == 1);
+	}
+
+	@Test
+	public void reset_callsMade_allOperationsEmpty() {
+		InstrumentedContactManager cm = InstrumentedContactManager.restore(() -> new ContactManagerImpl(false));
+		cm.addNewContact("Alice", "");
+		cm.reset();
+		boolean empty = true;
+		for (OperationMetrics metrics : cm.getOperations()){
+			if (metrics.getCalls() != 0) empty = false;
+		}
+		assertEquals(true, empty);
+	}
+
+	@Test
+	public void restore_factory_restoreMeasured() {
+		InstrumentedContactManager cm = InstrumentedContactManager.restore(() -> new ContactManagerImpl(false));
+		assertEquals(true, cm.getOperation("restore").getCalls() == 1);
+	}
+
+	@Test
+	public void registerMBean_readOverJmx_returnOperations() throws JMException {
+		InstrumentedContactManager cm = new InstrumentedContactManager(new ContactManagerImpl(false));
+		cm.registerMBean("test");
+		try {
+			cm.addNewContact("Alice", "");
+			cm.getContacts("Alice");
+			ObjectName name = new ObjectName("ContactManager:type=Metrics,name=\"test\"");
+			Object operations = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Operations");
+			// MXBean attributes are open data, one composite per operation
+			CompositeData[] data = (CompositeData[]) operations;
+			List<OperationMetrics> metrics = cm.getOperations();
+			assertEquals(true, data.length == metrics.size()
+					&& ((Long) data[metrics.size() - 2].get("calls")) == 1);
+		} finally {
+			cm.unregisterMBean();
+		}
+	}
+}
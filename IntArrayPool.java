@@ -0,0 +1,76 @@
+import java.util.Arrays;
+
+/**
+ * Pool of int arrays, handing out one shared array for all equal arrays. <br />
+ * Used for meeting attendees: the same group of contacts often meets again
+ * and again, so their meetings can all hold a single array of their ids.
+ * Arrays are kept in an open addressing table with linear probing, so the
+ * pool costs one reference per distinct array. Pooled arrays must never be
+ * changed, and are never removed.
+ *
+ * @author caleb
+ *
+ */
+public class IntArrayPool {
+
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private int[][] arrays;
+	private int size;
+
+	/**
+	 * Initializes an empty pool.
+	 */
+	public IntArrayPool() {
+		arrays = new int[DEFAULT_CAPACITY][];
+	}
+
+	/**
+	 * Returns the pooled array equal to the given one, adding the
+	 * given array to the pool if there is none yet.
+	 *
+	 * @param array to look up, which must not be changed once pooled
+	 * @return the pooled array, which must not be changed
+	 */
+	public int[] intern(int[] array) {
+		int mask = arrays.length - 1;
+		int slot = hash(array) & mask;
+		while (arrays[slot] != null){
+			if (Arrays.equals(arrays[slot], array)) return arrays[slot];
+			slot = (slot + 1) & mask;
+		}
+		arrays[slot] = array;
+		if (++size >= arrays.length * LOAD_FACTOR) resize();
+		return array;
+	}
+
+	/**
+	 * Returns the number of distinct arrays pooled.
+	 *
+	 * @return number of arrays
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Helper function which rehashes all arrays into a table twice the size.
+	 */
+	private void resize() {
+		int[][] oldArrays = arrays;
+		arrays = new int[oldArrays.length << 1][];
+		int mask = arrays.length - 1;
+		for (int[] array : oldArrays){
+			if (array == null) continue;
+			int slot = hash(array) & mask;
+			while (arrays[slot] != null) slot = (slot + 1) & mask;
+			arrays[slot] = array;
+		}
+	}
+
+	private static int hash(int[] array) {
+		int h = Arrays.hashCode(array) * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
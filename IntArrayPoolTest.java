@@ -0,0 +1,46 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * IntArrayPool Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class IntArrayPoolTest {
+
+	private IntArrayPool pool = new IntArrayPool();
+
+	@Test
+	public void intern_equalArrays_returnFirstArray() {
+		int[] first = {1, 2, 3};
+		int[] second = {1, 2, 3};
+		assertEquals(true, pool.intern(first) == first && pool.intern(second) == first
+				&& pool.size() == 1);
+	}
+
+	@Test
+	public void intern_differentArrays_eachKept() {
+		int[] first = {1, 2, 3};
+		int[] second = {1, 2};
+		assertEquals(true, pool.intern(first) == first && pool.intern(second) == second
+				&& pool.size() == 2);
+	}
+
+	@Test
+	public void intern_manyArrays_allFoundAfterGrowing() {
+		int numArrays = 1000;
+		int[][] arrays = new int[numArrays][];
+		for (int i = 0; i < numArrays; i++){
+			arrays[i] = new int[] {i, i + 1};
+			pool.intern(arrays[i]);
+		}
+		boolean allFound = pool.size() == numArrays;
+		for (int i = 0; i < numArrays; i++){
+			if (pool.intern(new int[] {i, i + 1}) != arrays[i]) allFound = false;
+		}
+		assertEquals(true, allFound);
+	}
+}
@@ -0,0 +1,73 @@
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints. <br />
+ * Used for index postings (e.g. the ids of a contact's meetings) where a
+ * List&lt;Integer&gt; would box every element.
+ *
+ * @author caleb
+ *
+ */
+public class IntList {
+
+	private static final int DEFAULT_CAPACITY = 4;
+
+	private int[] elements;
+	private int size;
+
+	/**
+	 * Initializes an empty list.
+	 */
+	public IntList() {
+		elements = new int[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Appends a value to the end of the list.
+	 *
+	 * @param value to append
+	 */
+	public void add(int value) {
+		if (size == elements.length) elements = Arrays.copyOf(elements, size << 1);
+		elements[size++] = value;
+	}
+
+	/**
+	 * Returns the value at the index.
+	 *
+	 * @param index position in the list
+	 * @return the value
+	 * @throws IndexOutOfBoundsException if the index is not within the list
+	 */
+	public int get(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index);
+		return elements[index];
+	}
+
+	/**
+	 * Returns the number of values in the list.
+	 *
+	 * @return number of values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if the list holds no values.
+	 *
+	 * @return boolean, true if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the values as a new array.
+	 *
+	 * @return copy of the values in list order
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+}
@@ -0,0 +1,248 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Hash map from primitive int keys to objects. <br />
+ * Uses open addressing with linear probing over parallel key/value arrays
+ * so that lookups neither box the key nor allocate entry nodes.
+ * Null values are not permitted as an empty value slot marks a free bucket.
+ *
+ * @author caleb
+ *
+ * @param <V> type of the mapped values
+ */
+public class IntObjectMap<V> implements Iterable<V> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+	private int mask;
+	private int resizeAt;
+
+	/**
+	 * Initializes an empty map with the default capacity.
+	 */
+	public IntObjectMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Initializes an empty map able to hold the expected number of entries
+	 * without resizing.
+	 *
+	 * @param expectedSize number of entries the map should hold before growing
+	 */
+	public IntObjectMap(int expectedSize) {
+		allocate(tableSizeFor(expectedSize));
+	}
+
+	/**
+	 * Returns the value mapped to the key.
+	 *
+	 * @param key to look up
+	 * @return the mapped value, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		// probes at most the whole table, so a lookup racing a change always ends
+		int[] keys = this.keys;
+		Object[] values = this.values;
+		int mask = values.length - 1;
+		int slot = hash(key) & mask;
+		for (int probes = 0; probes < values.length && values[slot] != null; probes++){
+			if (keys[slot] == key) return (V) values[slot];
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns true if the key is mapped to a value.
+	 *
+	 * @param key to look up
+	 * @return boolean, true if found
+	 */
+	public boolean containsKey(int key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Maps the key to the value, replacing any existing mapping.
+	 *
+	 * @param key of the entry
+	 * @param value to store, may not be null
+	 * @return the previously mapped value, or null if there was none
+	 * @throws NullPointerException if the value is null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) throw new NullPointerException("Null values are not permitted!");
+		int slot = hash(key) & mask;
+		while (values[slot] != null){
+			if (keys[slot] == key){
+				V previous = (V) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size >= resizeAt) resize(keys.length << 1);
+		return null;
+	}
+
+	/**
+	 * Grows the table so it can hold the expected number of entries
+	 * without further resizing.
+	 *
+	 * @param expectedSize number of entries the map should hold before growing
+	 */
+	public void ensureCapacity(int expectedSize) {
+		if (expectedSize >= resizeAt) resize(tableSizeFor(expectedSize));
+	}
+
+	/**
+	 * Removes the mapping for the key.<br />
+	 * Following entries of the probe sequence are shifted back so no
+	 * tombstones are left behind.
+	 *
+	 * @param key of the entry to remove
+	 * @return the removed value, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int slot = hash(key) & mask;
+		while (values[slot] != null){
+			if (keys[slot] == key){
+				V removed = (V) values[slot];
+				shiftBack(slot);
+				size--;
+				return removed;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of entries in the map.
+	 *
+	 * @return number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if the map holds no entries.
+	 *
+	 * @return boolean, true if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all entries while keeping the current capacity.
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Iterates over the values in no particular order.
+	 * The map must not be modified during iteration.
+	 */
+	@Override
+	public Iterator<V> iterator() {
+		return new Iterator<V>() {
+			private int slot = nextSlot(0);
+
+			@Override
+			public boolean hasNext() {
+				return slot < values.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public V next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				V value = (V) values[slot];
+				slot = nextSlot(slot + 1);
+				return value;
+			}
+
+			private int nextSlot(int from) {
+				while (from < values.length && values[from] == null) from++;
+				return from;
+			}
+		};
+	}
+
+	/**
+	 * Helper function which closes the gap left by a removed entry by moving
+	 * back any following entries whose probe sequence passes through it.
+	 *
+	 * @param gap slot which has just been emptied
+	 */
+	private void shiftBack(int gap) {
+		int slot = gap;
+		while (true){
+			slot = (slot + 1) & mask;
+			if (values[slot] == null) break;
+			int home = hash(keys[slot]) & mask;
+			// the entry may only move back if its home slot is not between gap and slot
+			if (((slot - home) & mask) >= ((slot - gap) & mask)){
+				keys[gap] = keys[slot];
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		values[gap] = null;
+	}
+
+	/**
+	 * Helper function which rehashes all entries into a table of the given size.
+	 *
+	 * @param capacity new table size, must be a power of two
+	 */
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldValues.length; i++){
+			if (oldValues[i] == null) continue;
+			int slot = hash(oldKeys[i]) & mask;
+			while (values[slot] != null) slot = (slot + 1) & mask;
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		resizeAt = (int) (capacity * LOAD_FACTOR);
+	}
+
+	private static int tableSizeFor(int expectedSize) {
+		int capacity = DEFAULT_CAPACITY;
+		while (capacity * LOAD_FACTOR <= expectedSize) capacity <<= 1;
+		return capacity;
+	}
+
+	/**
+	 * Scrambles sequential ids so they spread across the table.
+	 */
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
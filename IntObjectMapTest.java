@@ -0,0 +1,99 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * IntObjectMap Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class IntObjectMapTest {
+
+	private IntObjectMap<String> map = new IntObjectMap<String>();
+
+	@Test
+	public void get_putValue_returnValue() {
+		map.put(7, "seven");
+		assertEquals("seven", map.get(7));
+	}
+
+	@Test
+	public void get_unknownKey_returnNull() {
+		map.put(7, "seven");
+		assertEquals(null, map.get(8));
+	}
+
+	@Test
+	public void put_existingKey_replaceValue() {
+		map.put(7, "seven");
+		String previous = map.put(7, "SEVEN");
+		assertEquals(true, "seven".equals(previous) && "SEVEN".equals(map.get(7)) && map.size() == 1);
+	}
+
+	@Test (expected = NullPointerException.class)
+	public void put_nullValue_throwNullPntrEx() {
+		map.put(1, null);
+	}
+
+	@Test
+	public void put_manyKeys_allRetrievable() {
+		int numKeys = 10000;
+		for (int i = 0; i < numKeys; i++){
+			map.put(i, String.valueOf(i));
+		}
+		boolean allFound = map.size() == numKeys;
+		for (int i = 0; i < numKeys; i++){
+			if (!String.valueOf(i).equals(map.get(i))) allFound = false;
+		}
+		assertEquals(true, allFound);
+	}
+
+	@Test
+	public void ensureCapacity_existingEntries_allRetrievable() {
+		for (int i = 0; i < 10; i++){
+			map.put(i, String.valueOf(i));
+		}
+		map.ensureCapacity(5000);
+		boolean allFound = map.size() == 10;
+		for (int i = 0; i < 10; i++){
+			if (!String.valueOf(i).equals(map.get(i))) allFound = false;
+		}
+		assertEquals(true, allFound);
+	}
+
+	@Test
+	public void remove_everyOtherKey_remainingRetrievable() {
+		int numKeys = 1000;
+		for (int i = 0; i < numKeys; i++){
+			map.put(i, String.valueOf(i));
+		}
+		for (int i = 0; i < numKeys; i += 2){
+			map.remove(i);
+		}
+		boolean correct = map.size() == numKeys / 2;
+		for (int i = 0; i < numKeys; i++){
+			boolean expectPresent = i % 2 == 1;
+			if (map.containsKey(i) != expectPresent) correct = false;
+		}
+		assertEquals(true, correct);
+	}
+
+	@Test
+	public void iterator_severalValues_returnAllValues() {
+		Set<String> expected = new HashSet<String>();
+		for (int i = -5; i < 5; i++){
+			map.put(i, String.valueOf(i));
+			expected.add(String.valueOf(i));
+		}
+		Set<String> returned = new HashSet<String>();
+		for (String value : map){
+			returned.add(value);
+		}
+		assertEquals(expected, returned);
+	}
+}
@@ -0,0 +1,20 @@
+/**
+ * Receives the records of a contact manager journal as they are replayed. <br />
+ * Besides the records found in a data file, a journal records notes added
+ * to existing meetings.
+ *
+ * @author caleb
+ *
+ */
+public interface JournalRecordHandler extends DataRecordHandler {
+
+	/**
+	 * Called for each record of notes added to a meeting.
+	 *
+	 * @param id of the meeting
+	 * @param previousLength length of the meeting's notes before the text was
+	 * 		added, or -1 if the meeting was a future meeting
+	 * @param text the notes added
+	 */
+	void restoreMeetingNotes(int id, int previousLength, String text);
+}
@@ -0,0 +1,197 @@
+import java.util.Calendar;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Compares the throughput of the ways a ContactManagerImpl can be shared
+ * between threads: one synchronized lock, a ReentrantReadWriteLock and the
+ * StampedContactManager, which looks contacts up by id optimistically. <br />
+ * Each thread runs a read-mostly mix of operations for a fixed time against
+ * a prefilled contact manager, at 1 up to 64 threads.
+ *
+ * Usage: java LockContentionBenchmark [seconds per run] [percentage of writes]
+ *
+ * @author caleb
+ *
+ */
+public class LockContentionBenchmark {
+
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+	private static final int CONTACTS = 1000;
+	private static final int MEETINGS = 10000;
+	private static final int ATTENDEES = 4;
+
+	/**
+	 * Runs the benchmark and prints operations per second for each lock and
+	 * thread count.
+	 *
+	 * @param args seconds per run, default 2, and percentage of writes, default 5
+	 * @throws InterruptedException if interrupted while waiting for a run
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		long runMillis = (long) (1000 * (args.length > 0 ? Double.parseDouble(args[0]) : 2));
+		int writePercent = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		System.out.printf("%8s %16s %16s %16s%n", "threads", "synchronized", "read/write", "stamped");
+		for (int threads : THREAD_COUNTS){
+			System.out.printf("%8d %16.0f %16.0f %16.0f%n", threads,
+					run(fill(new SynchronizedContactManager()), threads, runMillis, writePercent),
+					run(fill(new ReadWriteContactManager()), threads, runMillis, writePercent),
+					run(fill(new StampedContactManager(false)), threads, runMillis, writePercent));
+		}
+	}
+
+	/**
+	 * Runs the operation mix on a number of threads for a fixed time.
+	 *
+	 * @return operations completed per second over all threads
+	 */
+	private static double run(ContactManager cm, int threads, long runMillis, int writePercent)
+			throws InterruptedException {
+		AtomicLong operations = new AtomicLong();
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(threads);
+		long[] window = new long[2];
+
+		for (int i = 0; i < threads; i++){
+			Thread worker = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long count = 0;
+				try {
+					start.await();
+					while (System.nanoTime() < window[1]){
+						operate(cm, random, writePercent);
+						count++;
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				operations.addAndGet(count);
+				done.countDown();
+			});
+			worker.setDaemon(true);
+			worker.start();
+		}
+
+		window[0] = System.nanoTime();
+		window[1] = window[0] + runMillis * 1000000L;
+		start.countDown();
+		done.await();
+		return operations.get() * 1e9 / (System.nanoTime() - window[0]);
+	}
+
+	/**
+	 * Performs one randomly chosen operation, a write with the given chance.
+	 */
+	private static void operate(ContactManager cm, ThreadLocalRandom random, int writePercent) {
+		if (random.nextInt(100) < writePercent) {
+			if (random.nextBoolean()) {
+				cm.addNewPastMeeting(randomContacts(cm, random), pastDate(random), "Notes");
+			} else {
+				cm.addNewContact("Contact", "Notes");
+			}
+			return;
+		}
+		switch (random.nextInt(3)){
+		case 0:
+			cm.getMeeting(random.nextInt(MEETINGS));
+			break;
+		case 1:
+			cm.getFutureMeetingList(cm.getContacts(random.nextInt(CONTACTS)).iterator().next());
+			break;
+		default:
+			cm.getContacts(random.nextInt(CONTACTS));
+		}
+	}
+
+	/**
+	 * Adds the contacts and meetings every run starts with.
+	 */
+	private static ContactManager fill(ContactManager cm) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < CONTACTS; i++){
+			cm.addNewContact("Contact " + i, "Notes");
+		}
+		for (int i = 0; i < MEETINGS; i++){
+			if (random.nextBoolean()) {
+				cm.addNewPastMeeting(randomContacts(cm, random), pastDate(random), "Notes");
+			} else {
+				Calendar date = Calendar.getInstance();
+				date.add(Calendar.DAY_OF_YEAR, 1 + random.nextInt(365));
+				cm.addFutureMeeting(randomContacts(cm, random), date);
+			}
+		}
+		return cm;
+	}
+
+	private static Set<Contact> randomContacts(ContactManager cm, ThreadLocalRandom random) {
+		int[] ids = new int[ATTENDEES];
+		for (int i = 0; i < ids.length; i++){
+			ids[i] = random.nextInt(CONTACTS);
+		}
+		return cm.getContacts(ids);
+	}
+
+	private static Calendar pastDate(ThreadLocalRandom random) {
+		Calendar date = Calendar.getInstance();
+		date.add(Calendar.DAY_OF_YEAR, -1 - random.nextInt(365));
+		return date;
+	}
+
+	/**
+	 * Guards every operation with one lock, like synchronized methods would.
+	 */
+	private static class SynchronizedContactManager extends LockedContactManager {
+
+		SynchronizedContactManager() {
+			super(new ContactManagerImpl(false));
+		}
+
+		@Override
+		protected synchronized <T> T read(Supplier<T> query) {
+			return query.get();
+		}
+
+		@Override
+		protected synchronized <T> T write(Supplier<T> change) {
+			return change.get();
+		}
+	}
+
+	/**
+	 * Lets queries share a read lock and gives changes the write lock.
+	 */
+	private static class ReadWriteContactManager extends LockedContactManager {
+
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+		ReadWriteContactManager() {
+			super(new ContactManagerImpl(false));
+		}
+
+		@Override
+		protected <T> T read(Supplier<T> query) {
+			lock.readLock().lock();
+			try {
+				return query.get();
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		@Override
+		protected <T> T write(Supplier<T> change) {
+			lock.writeLock().lock();
+			try {
+				return change.get();
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+}
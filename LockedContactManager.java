@@ -0,0 +1,268 @@
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Base for contact managers which make a ContactManagerImpl safe to share
+ * between threads by guarding it with a lock. <br />
+ * Every query is passed to read and every change to write, so subclasses
+ * only decide how the two are locked. Queries looking a record up by id go
+ * through lookup and those walking the timelines through timeline, which
+ * subclasses may run without the lock.
+ *
+ * Elapsed future meetings are promoted under the write lock before a query
+ * runs, since ContactManagerImpl would otherwise promote them from inside
+ * the query, while other queries may be reading.
+ *
+ * Flush is otherwise passed straight through, as ContactManagerImpl keeps
+ * the data it saves consistent with changes made at the same time.
+ *
+ * @author caleb
+ *
+ */
+public abstract class LockedContactManager implements ContactManager {
+
+	private final ContactManagerImpl contactManager;
+
+	/**
+	 * Constructor wrapping a contact manager which no other code may use directly.
+	 *
+	 * @param contactManager the contact manager to guard
+	 */
+	protected LockedContactManager(ContactManagerImpl contactManager) {
+		this.contactManager = contactManager;
+		contactManager.setPromoteOnQuery(false);
+	}
+
+	/**
+	 * Runs a query which only reads the contact manager.
+	 *
+	 * @param query the query to run
+	 * @return the query's result
+	 */
+	protected abstract <T> T read(Supplier<T> query);
+
+	/**
+	 * Runs a query which only looks records up by id: contacts in the contact
+	 * table, or meetings in the meeting map, whose probes never go round the
+	 * table more than once. Such a query reads a bounded number of slots and
+	 * cannot loop or fail part way whatever a change in progress has written,
+	 * so subclasses may run it without excluding changes. Runs as read unless
+	 * overridden.
+	 *
+	 * @param query the query to run
+	 * @return the query's result
+	 */
+	protected <T> T lookup(Supplier<T> query) {
+		return read(query);
+	}
+
+	/**
+	 * Runs a query which walks the meeting timelines or the time index.
+	 * Subclasses may instead run it against a snapshot taken after the last
+	 * change, which holds the same data. Runs as read unless overridden.
+	 *
+	 * @param query the query to run
+	 * @return the query's result
+	 */
+	protected <T> T timeline(Function<ContactManager, T> query) {
+		return read(() -> query.apply(contactManager));
+	}
+
+	/**
+	 * Returns a snapshot of the contact manager as it is now, for subclasses
+	 * which answer timeline queries from one. Call it with no change running.
+	 *
+	 * @return the snapshot
+	 */
+	protected ContactManagerSnapshot snapshot() {
+		return contactManager.snapshot();
+	}
+
+	/**
+	 * Runs a change to the contact manager, with no queries running.
+	 *
+	 * @param change the change to make
+	 * @return the change's result
+	 */
+	protected abstract <T> T write(Supplier<T> change);
+
+	/**
+	 * Helper function which promotes any elapsed meetings as a change and
+	 * then runs the query.
+	 */
+	private <T> T query(Function<ContactManager, T> query) {
+		promoteIfDue();
+		return timeline(query);
+	}
+
+	/**
+	 * Helper function which promotes any elapsed meetings as a change and
+	 * then looks a meeting up by id.
+	 */
+	private <T> T queryById(Supplier<T> query) {
+		promoteIfDue();
+		return lookup(query);
+	}
+
+	private void promoteIfDue() {
+		if (contactManager.isPromotionDue()) {
+			write(() -> {
+				contactManager.promoteElapsedMeetings();
+				return null;
+			});
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int addFutureMeeting(Set<Contact> contacts, Calendar date) {
+		return write(() -> contactManager.addFutureMeeting(contacts, date));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public PastMeeting getPastMeeting(int id) {
+		return queryById(() -> contactManager.getPastMeeting(id));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public FutureMeeting getFutureMeeting(int id) {
+		return queryById(() -> contactManager.getFutureMeeting(id));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Meeting getMeeting(int id) {
+		return queryById(() -> contactManager.getMeeting(id));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getFutureMeetingList(Contact contact) {
+		return query(cm -> cm.getFutureMeetingList(contact));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getFutureMeetingList(Calendar date) {
+		return query(cm -> cm.getFutureMeetingList(date));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<Meeting> getMeetingsBetween(Calendar start, Calendar end) {
+		return query(cm -> cm.getMeetingsBetween(start, end));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public List<PastMeeting> getPastMeetingList(Contact contact) {
+		return query(cm -> cm.getPastMeetingList(contact));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addNewPastMeeting(Set<Contact> contacts, Calendar date, String text) {
+		write(() -> {
+			contactManager.addNewPastMeeting(contacts, date, text);
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addMeetingNotes(int id, String text) {
+		write(() -> {
+			contactManager.addMeetingNotes(id, text);
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addNewContact(String name, String notes) {
+		write(() -> {
+			contactManager.addNewContact(name, notes);
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * The whole batch is added under one write lock.
+	 */
+	@Override
+	public int addNewContacts(Collection<? extends Contact> contacts) {
+		return write(() -> contactManager.addNewContacts(contacts));
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * The whole batch is added under one write lock.
+	 */
+	@Override
+	public int addNewPastMeetings(Collection<? extends PastMeeting> meetings) {
+		return write(() -> contactManager.addNewPastMeetings(meetings));
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * The whole batch is added under one write lock.
+	 */
+	@Override
+	public int addFutureMeetings(Collection<? extends FutureMeeting> meetings) {
+		return write(() -> contactManager.addFutureMeetings(meetings));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Contact> getContacts(int... ids) {
+		return lookup(() -> contactManager.getContacts(ids));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<Contact> getContacts(String name) {
+		return read(() -> contactManager.getContacts(name));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flush() {
+		promoteIfDue();
+		contactManager.flush();
+	}
+}
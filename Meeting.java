@@ -20,6 +20,15 @@ public interface Meeting {
 	 */
 	Calendar getDate();
 	
+	/**
+	 * Return the date of the meeting in ms since the epoch. 
+	 * 
+	 * @return the time of the meeting in ms. 
+	 */
+	default long getTimeInMillis() {
+		return getDate().getTimeInMillis();
+	}
+	
 	/**
 	 * Return the details of people that attended the meeting. 
 	 * 
@@ -30,4 +39,14 @@ public interface Meeting {
 	 * @return the details of people that attended the meeting. 
 	 */
 	Set<Contact> getContacts(); 
+	
+	/**
+	 * Return the IDs of the people that attended the meeting, in ascending 
+	 * order and without duplicates. The array may be changed by the caller. 
+	 * 
+	 * @return the IDs of the people that attended the meeting. 
+	 */
+	default int[] getContactIds() {
+		return getContacts().stream().mapToInt(Contact::getId).sorted().distinct().toArray();
+	}
 }
\ No newline at end of file
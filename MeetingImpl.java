@@ -1,27 +1,96 @@
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 /**
- * Requires id to be specified upon creation.
+ * Requires id to be specified upon creation.<br />
+ * The date is held as a time in ms rather than a Calendar, which saves
+ * most of the memory of a meeting and lets dates be compared as numbers.
+ * A Calendar (in the default time zone) is only built when asked for.
+ *
+ * Attendees are held as a sorted array of contact ids rather than a set of
+ * contacts, and looked up in a directory of contacts each time the contacts
+ * are asked for. A contact manager passes its own contact table as the
+ * directory, and meetings with the same attendees may share one array.
  */
 public class MeetingImpl implements Meeting {
-	
+
 	private int id;
-	private Calendar date;
-	private Set<Contact> contacts;
+	private long time;
+	private int[] contactIds;
+	private IntFunction<Contact> directory;
 	/**
 	 * Constructor for meeting. <br />
-	 * 
+	 *
 	 * @param id for identifying meeting
 	 * @param date of meeting
 	 * @param contacts associated with meeting
 	 */
 	public MeetingImpl(int id, Calendar date, Set<Contact> contacts) {
+		this(id, date.getTimeInMillis(), contacts);
+	}
+
+	/**
+	 * Constructor for meeting. <br />
+	 * The contacts are copied, so later changes to the set do not
+	 * alter the meeting.
+	 *
+	 * @param id for identifying meeting
+	 * @param time of meeting in ms since the epoch
+	 * @param contacts associated with meeting
+	 */
+	public MeetingImpl(int id, long time, Set<Contact> contacts) {
 		this.id = id;
-		this.date = date;
-		this.contacts = contacts;
+		this.time = time;
+		Contact[] sorted = contacts.toArray(new Contact[contacts.size()]);
+		Arrays.sort(sorted, (contact, nextContact) -> Integer.compare(contact.getId(), nextContact.getId()));
+		int numUnique = 0;
+		for (Contact contact : sorted){
+			if (numUnique == 0 || sorted[numUnique - 1].getId() != contact.getId()) sorted[numUnique++] = contact;
+		}
+		Contact[] byId = Arrays.copyOf(sorted, numUnique);
+		int[] ids = new int[numUnique];
+		for (int i = 0; i < numUnique; i++){
+			ids[i] = byId[i].getId();
+		}
+		this.contactIds = ids;
+		this.directory = contactId -> {
+			int index = Arrays.binarySearch(ids, contactId);
+			return (index < 0) ? null : byId[index];
+		};
 	}
-	
+
+	/**
+	 * Constructor for meeting whose attendees are looked up by id. <br />
+	 * Ids which are already sorted and without duplicates are kept as given,
+	 * not copied, so the array must not be changed afterwards.
+	 *
+	 * @param id for identifying meeting
+	 * @param time of meeting in ms since the epoch
+	 * @param contactIds of the contacts associated with meeting
+	 * @param directory looking up a contact by id, returning null for unknown ids
+	 */
+	public MeetingImpl(int id, long time, int[] contactIds, IntFunction<Contact> directory) {
+		this.id = id;
+		this.time = time;
+		this.contactIds = sortedIds(contactIds);
+		this.directory = directory;
+	}
+
+	/**
+	 * Constructor copying a meeting, sharing its attendees.
+	 *
+	 * @param meeting to copy
+	 */
+	protected MeetingImpl(MeetingImpl meeting) {
+		this.id = meeting.id;
+		this.time = meeting.time;
+		this.contactIds = meeting.contactIds;
+		this.directory = meeting.directory;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -31,10 +100,13 @@ public class MeetingImpl implements Meeting {
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * {@inheritDoc}<br />
+	 * Each call returns a new Calendar, so changing it leaves the meeting as is.
 	 */
 	@Override
 	public Calendar getDate() {
+		Calendar date = Calendar.getInstance();
+		date.setTimeInMillis(time);
 		return date;
 	}
 
@@ -42,9 +114,65 @@ public class MeetingImpl implements Meeting {
 	 * {@inheritDoc}
 	 */
 	@Override
+	public long getTimeInMillis() {
+		return time;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Each call looks the contacts up and returns a new set, so changing it
+	 * leaves the meeting as is. Ids without a contact are left out.
+	 */
+	@Override
 	public Set<Contact> getContacts() {
+		Set<Contact> contacts = new HashSet<Contact>(contactIds.length * 2);
+		for (int contactId : contactIds){
+			Contact contact = directory.apply(contactId);
+			if (contact != null) contacts.add(contact);
+		}
 		return contacts;
 	}
-	
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int[] getContactIds() {
+		return contactIds.clone();
+	}
+
+	/**
+	 * Helper function which lists the ids of a set of contacts in
+	 * ascending order without duplicates.
+	 *
+	 * @param contacts the contacts whose ids are wanted
+	 * @return the sorted ids
+	 */
+	static int[] idsOf(Set<? extends Contact> contacts) {
+		int[] ids = new int[contacts.size()];
+		int i = 0;
+		for (Contact contact : contacts){
+			ids[i++] = contact.getId();
+		}
+		return sortedIds(ids);
+	}
+
+	/**
+	 * Helper function which sorts ids and drops duplicates, returning
+	 * the ids as given if they already are.
+	 *
+	 * @param ids the ids to sort
+	 * @return the sorted ids
+	 */
+	static int[] sortedIds(int[] ids) {
+		return isSortedSet(ids) ? ids : Arrays.stream(ids).sorted().distinct().toArray();
+	}
+
+	private static boolean isSortedSet(int[] ids) {
+		for (int i = 1; i < ids.length; i++){
+			if (ids[i] <= ids[i - 1]) return false;
+		}
+		return true;
+	}
 
 }
@@ -2,6 +2,7 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
@@ -35,6 +36,17 @@ public class MeetingTest {
 		assertEquals(true, TEST_DATE.equals(meeting.getDate()));
 	}
 	
+	@Test
+	public void getTimeInMillis() {
+		assertEquals(TEST_DATE.getTimeInMillis(), meeting.getTimeInMillis());
+	}
+	
+	@Test
+	public void getDate_returnedDateChanged_meetingUnchanged() {
+		meeting.getDate().add(Calendar.YEAR, 1);
+		assertEquals(true, TEST_DATE.equals(meeting.getDate()));
+	}
+	
 	@Test
 	public void getContacts() {
 		Set<Contact> retrievedContacts = meeting.getContacts();
@@ -49,4 +61,26 @@ public class MeetingTest {
 		}
 		assertEquals(true, equalSets);
 	}
+	
+	@Test
+	public void getContacts_returnedSetChanged_meetingUnchanged() {
+		meeting.getContacts().clear();
+		contacts.clear();
+		assertEquals(3, meeting.getContacts().size());
+	}
+	
+	@Test
+	public void getContactIds_unsortedIds_sortedWithoutDuplicates() {
+		meeting = new MeetingImpl(TEST_ID, TEST_DATE.getTimeInMillis(), new int[] {2, 0, 2, 1}, 
+				id -> new ContactImpl(id, "Contact " + id, TEST_NOTES));
+		assertEquals(true, Arrays.equals(new int[] {0, 1, 2}, meeting.getContactIds()) 
+				&& meeting.getContacts().size() == 3);
+	}
+	
+	@Test
+	public void getContacts_unknownId_leftOut() {
+		meeting = new MeetingImpl(TEST_ID, TEST_DATE.getTimeInMillis(), new int[] {0, 5}, 
+				id -> id == 0 ? new ContactImpl(id, "Contact", TEST_NOTES) : null);
+		assertEquals(true, meeting.getContacts().size() == 1 && meeting.getContactIds().length == 2);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+import java.util.Arrays;
+
+/**
+ * Meeting ids kept in date order, e.g. the past meetings of one contact. <br />
+ * Times (in ms) and ids are held in two parallel primitive arrays sorted by time,
+ * then id. A meeting is placed with a binary search and the entries after it are
+ * shifted along. Meetings are mostly added in date order, which makes that an
+ * append. Reading the meetings in date order is then a walk along the arrays,
+ * and nothing needs to be compared.
+ *
+ * @author caleb
+ *
+ */
+public class MeetingTimeline {
+
+	private static final int DEFAULT_CAPACITY = 4;
+	private static final int INSERTION_SORT_LIMIT = 16;
+
+	private long[] times;
+	private int[] ids;
+	private int size;
+
+	/**
+	 * Initializes an empty timeline.
+	 */
+	public MeetingTimeline() {
+		times = new long[DEFAULT_CAPACITY];
+		ids = new int[DEFAULT_CAPACITY];
+	}
+
+	private MeetingTimeline(long[] times, int[] ids, int size) {
+		this.times = times;
+		this.ids = ids;
+		this.size = size;
+	}
+
+	/**
+	 * Returns a timeline holding meetings given in any order, which are sorted
+	 * once with a merge sort rather than placed one at a time. Meetings given
+	 * more than once are kept once. The timeline takes over both arrays.
+	 *
+	 * @param times of the meetings in ms, parallel to ids
+	 * @param ids of the meetings
+	 * @param size number of meetings held at the start of the arrays
+	 * @return the timeline
+	 */
+	public static MeetingTimeline sorted(long[] times, int[] ids, int size) {
+		mergeSort(Arrays.copyOf(times, size), Arrays.copyOf(ids, size), times, ids, 0, size);
+		int kept = 0;
+		for (int i = 0; i < size; i++){
+			if (kept > 0 && times[kept - 1] == times[i] && ids[kept - 1] == ids[i]) continue;
+			times[kept] = times[i];
+			ids[kept++] = ids[i];
+		}
+		return new MeetingTimeline(times, ids, kept);
+	}
+
+	/**
+	 * Adds a meeting in date order, unless it is already in the timeline.
+	 * Meetings at the same time are ordered by id.
+	 *
+	 * @param time of the meeting in ms
+	 * @param id of the meeting
+	 */
+	public void add(long time, int id) {
+		int index = (size == 0 || compare(size - 1, time, id) < 0) ? size : search(time, id);
+		if (index < size && times[index] == time && ids[index] == id) return;
+		if (size == times.length) {
+			times = Arrays.copyOf(times, Math.max(size << 1, DEFAULT_CAPACITY));
+			ids = Arrays.copyOf(ids, Math.max(size << 1, DEFAULT_CAPACITY));
+		}
+		System.arraycopy(times, index, times, index + 1, size - index);
+		System.arraycopy(ids, index, ids, index + 1, size - index);
+		times[index] = time;
+		ids[index] = id;
+		size++;
+	}
+
+	/**
+	 * Removes a meeting from the timeline.
+	 *
+	 * @param time of the meeting in ms
+	 * @param id of the meeting
+	 * @return boolean, true if the meeting was in the timeline
+	 */
+	public boolean remove(long time, int id) {
+		int index = search(time, id);
+		if (index == size || times[index] != time || ids[index] != id) return false;
+		System.arraycopy(times, index + 1, times, index, size - index - 1);
+		System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Returns the id of the meeting at the index, counting from the earliest.
+	 *
+	 * @param index position in the timeline
+	 * @return the meeting id
+	 * @throws IndexOutOfBoundsException if the index is not within the timeline
+	 */
+	public int getId(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index);
+		return ids[index];
+	}
+
+	/**
+	 * Returns the time of the meeting at the index, counting from the earliest.
+	 *
+	 * @param index position in the timeline
+	 * @return the meeting time in ms
+	 * @throws IndexOutOfBoundsException if the index is not within the timeline
+	 */
+	public long getTime(int index) {
+		if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index);
+		return times[index];
+	}
+
+	/**
+	 * Returns the ids of all meetings in the timeline, earliest first, in an
+	 * array of their own which later changes to the timeline do not alter.
+	 *
+	 * @return the meeting ids
+	 */
+	public int[] copyIds() {
+		return Arrays.copyOf(ids, size);
+	}
+
+	/**
+	 * Returns the number of meetings in the timeline.
+	 *
+	 * @return number of meetings
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if the timeline holds no meetings.
+	 *
+	 * @return boolean, true if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Helper function which finds the index of the first entry not before
+	 * the given time and id.
+	 */
+	private int search(long time, int id) {
+		int low = 0;
+		int high = size;
+		while (low < high){
+			int middle = (low + high) >>> 1;
+			if (compare(middle, time, id) < 0) low = middle + 1;
+			else high = middle;
+		}
+		return low;
+	}
+
+	private int compare(int index, long time, int id) {
+		return compare(times[index], ids[index], time, id);
+	}
+
+	private static int compare(long time, int id, long otherTime, int otherId) {
+		int byTime = Long.compare(time, otherTime);
+		return (byTime != 0) ? byTime : Integer.compare(id, otherId);
+	}
+
+	/**
+	 * Helper function which sorts a range of the destination arrays, whose
+	 * entries the source arrays hold too. The halves are sorted into the
+	 * source arrays and then merged back, short ranges by insertion.
+	 */
+	private static void mergeSort(long[] srcTimes, int[] srcIds, long[] destTimes, int[] destIds,
+			int low, int high) {
+		if (high - low < INSERTION_SORT_LIMIT) {
+			for (int i = low + 1; i < high; i++){
+				long time = destTimes[i];
+				int id = destIds[i];
+				int j = i;
+				for (; j > low && compare(destTimes[j - 1], destIds[j - 1], time, id) > 0; j--){
+					destTimes[j] = destTimes[j - 1];
+					destIds[j] = destIds[j - 1];
+				}
+				destTimes[j] = time;
+				destIds[j] = id;
+			}
+			return;
+		}
+		int middle = (low + high) >>> 1;
+		mergeSort(destTimes, destIds, srcTimes, srcIds, low, middle);
+		mergeSort(destTimes, destIds, srcTimes, srcIds, middle, high);
+		for (int i = low, left = low, right = middle; i < high; i++){
+			if (right == high || (left < middle
+					&& compare(srcTimes[left], srcIds[left], srcTimes[right], srcIds[right]) <= 0)) {
+				destTimes[i] = srcTimes[left];
+				destIds[i] = srcIds[left++];
+			} else {
+				destTimes[i] = srcTimes[right];
+				destIds[i] = srcIds[right++];
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * MeetingTimeline Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class MeetingTimelineTest {
+
+	private MeetingTimeline timeline = new MeetingTimeline();
+
+	@Test
+	public void add_outOfOrder_dateOrder() {
+		long[] times = {500, 100, 300, 100, 900, 200};
+		for (int id = 0; id < times.length; id++){
+			timeline.add(times[id], id);
+		}
+		int[] expected = {1, 3, 5, 2, 0, 4};
+		boolean inOrder = timeline.size() == expected.length;
+		for (int i = 0; i < expected.length; i++){
+			if (timeline.getId(i) != expected[i]) inOrder = false;
+		}
+		assertEquals(true, inOrder);
+	}
+
+	@Test
+	public void sorted_outOfOrderAndRepeated_sameAsAddingEach() {
+		Random random = new Random(3);
+		long[] times = new long[3000];
+		int[] ids = new int[3000];
+		for (int i = 0; i < 2000; i++){
+			times[i] = random.nextInt(500);
+			ids[i] = i;
+			timeline.add(times[i], ids[i]);
+		}
+		for (int i = 2000; i < times.length; i++){
+			times[i] = times[i - 2000];
+			ids[i] = ids[i - 2000];
+		}
+		MeetingTimeline sorted = MeetingTimeline.sorted(times, ids, times.length);
+		assertEquals(true, Arrays.equals(timeline.copyIds(), sorted.copyIds()) && sorted.size() == 2000);
+	}
+
+	@Test
+	public void add_sameMeetingTwice_addedOnce() {
+		timeline.add(100, 1);
+		timeline.add(100, 1);
+		assertEquals(1, timeline.size());
+	}
+
+	@Test
+	public void remove_middleMeeting_restInOrder() {
+		for (int id = 0; id < 10; id++){
+			timeline.add(id * 10, id);
+		}
+		boolean removed = timeline.remove(50, 5);
+		boolean missing = timeline.remove(50, 5);
+		assertEquals(true, removed && !missing && timeline.size() == 9
+				&& timeline.getId(5) == 6 && timeline.getTime(4) == 40);
+	}
+
+	@Test
+	public void remove_wrongTime_notRemoved() {
+		timeline.add(100, 1);
+		assertEquals(true, !timeline.remove(200, 1) && timeline.size() == 1);
+	}
+
+	@Test
+	public void copyIds_laterRemove_copyUnchanged() {
+		timeline.add(200, 2);
+		timeline.add(100, 1);
+		int[] ids = timeline.copyIds();
+		timeline.remove(100, 1);
+		assertEquals(true, ids.length == 2 && ids[0] == 1 && ids[1] == 2 && timeline.size() == 1);
+	}
+
+	@Test (expected = IndexOutOfBoundsException.class)
+	public void getId_beyondSize_throwIndexOutOfBoundsEx() {
+		timeline.add(100, 1);
+		timeline.getId(1);
+	}
+}
@@ -0,0 +1,68 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trigram index over contact names for substring search. <br />
+ * Every name is split into its overlapping three character sequences and the
+ * contact id is recorded against each of them. Any name containing a search
+ * string must also contain each of the search string's trigrams, so the
+ * shortest posting list among those trigrams is a complete candidate set which
+ * only needs to be verified with String.contains.
+ *
+ * @author caleb
+ *
+ */
+public class NameIndex {
+
+	private static final int GRAM_LENGTH = 3;
+
+	private Map<String, IntList> postings;
+
+	/**
+	 * Initializes an empty index.
+	 */
+	public NameIndex() {
+		postings = new HashMap<String, IntList>();
+	}
+
+	/**
+	 * Adds the contact's name to the index.
+	 *
+	 * @param contact to index
+	 */
+	public void add(Contact contact) {
+		String name = contact.getName();
+		Set<String> seen = new HashSet<String>();
+		for (int i = 0; i + GRAM_LENGTH <= name.length(); i++){
+			String gram = name.substring(i, i + GRAM_LENGTH);
+			if (!seen.add(gram)) continue;
+			IntList ids = postings.get(gram);
+			if (ids == null) {
+				ids = new IntList();
+				postings.put(gram, ids);
+			}
+			ids.add(contact.getId());
+		}
+	}
+
+	/**
+	 * Returns the ids of the contacts whose name may contain the search string.
+	 * The candidates still need to be checked against the actual name.
+	 *
+	 * @param search the string to search for
+	 * @return candidate contact ids (maybe empty), or null if the search string
+	 * 		is shorter than a trigram and every contact is a candidate
+	 */
+	public IntList candidates(String search) {
+		if (search.length() < GRAM_LENGTH) return null;
+		IntList smallest = null;
+		for (int i = 0; i + GRAM_LENGTH <= search.length(); i++){
+			IntList ids = postings.get(search.substring(i, i + GRAM_LENGTH));
+			if (ids == null) return new IntList();
+			if (smallest == null || ids.size() < smallest.size()) smallest = ids;
+		}
+		return smallest;
+	}
+}
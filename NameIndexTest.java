@@ -0,0 +1,42 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * NameIndex Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class NameIndexTest {
+
+	private NameIndex index = new NameIndex();
+
+	@Test
+	public void candidates_sharedSubstring_returnMatchingIds() {
+		index.add(new ContactImpl(0, "Joe Johnson", ""));
+		index.add(new ContactImpl(1, "Joe Jacobson", ""));
+		index.add(new ContactImpl(2, "Rachel Smith", ""));
+		IntList candidates = index.candidates("obson");
+		assertEquals(true, candidates.size() == 1 && candidates.get(0) == 1);
+	}
+
+	@Test
+	public void candidates_unknownTrigram_returnEmptyList() {
+		index.add(new ContactImpl(0, "Joe Johnson", ""));
+		assertEquals(true, index.candidates("xyz").isEmpty());
+	}
+
+	@Test
+	public void candidates_shortSearchString_returnNull() {
+		index.add(new ContactImpl(0, "Joe Johnson", ""));
+		assertEquals(null, index.candidates("Jo"));
+	}
+
+	@Test
+	public void candidates_repeatedTrigramInName_idListedOnce() {
+		index.add(new ContactImpl(0, "aaaaaa", ""));
+		assertEquals(1, index.candidates("aaa").size());
+	}
+}
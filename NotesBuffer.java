@@ -0,0 +1,136 @@
+/**
+ * Notes which are added to a line at a time. <br />
+ * Each new line is kept as its own segment rather than copied onto the
+ * end of the notes so far, so adding notes costs time for the new line
+ * only. The segments are joined once the notes are read, and the joined
+ * notes kept as the only segment until more are added.
+ *
+ * Notes restored from a binary snapshot may instead be left in the file
+ * (see NotesFile) and read from it each time until notes are added.
+ *
+ * Notes may be read and added from any number of threads.
+ *
+ * @author caleb
+ *
+ */
+public class NotesBuffer {
+
+	private static final char SEPARATOR = '\n';
+
+	private String[] segments;
+	private int numSegments;
+	private int length;
+	// while segments is null the notes are only held in the file
+	private NotesFile file;
+	private int position;
+
+	/**
+	 * Initializes notes holding the given text.
+	 *
+	 * @param notes the notes to start with
+	 */
+	public NotesBuffer(String notes) {
+		segments = new String[] {notes};
+		numSegments = 1;
+		length = notes.length();
+	}
+
+	/**
+	 * Initializes notes left in a file until they are read.
+	 *
+	 * @param file holding the notes
+	 * @param position of the notes in the file
+	 */
+	NotesBuffer(NotesFile file, int position) {
+		this.file = file;
+		this.position = position;
+		this.length = -1;
+	}
+
+	private NotesBuffer(String[] segments, int numSegments, int length) {
+		this.segments = segments;
+		this.numSegments = numSegments;
+		this.length = length;
+	}
+
+	/**
+	 * Adds notes on a new line, unless there are no notes yet, in which
+	 * case the new notes take their place.
+	 *
+	 * @param note the notes to add
+	 * @throws NullPointerException if the notes are null
+	 */
+	public synchronized void append(String note) {
+		if (note == null) throw new NullPointerException("Notes are null!");
+		load();
+		if (length == 0) {
+			segments[0] = note;
+			numSegments = 1;
+			length = note.length();
+			return;
+		}
+		if (numSegments == segments.length) {
+			String[] grown = new String[numSegments << 1];
+			System.arraycopy(segments, 0, grown, 0, numSegments);
+			segments = grown;
+		}
+		segments[numSegments++] = note;
+		length += 1 + note.length();
+	}
+
+	/**
+	 * Returns the length of the notes without joining them.
+	 *
+	 * @return number of chars in the notes
+	 */
+	public synchronized int length() {
+		if (length < 0) length = file.read(position).length();
+		return length;
+	}
+
+	/**
+	 * Returns a copy of the notes which may be added to without changing
+	 * these. The lines themselves are shared, not copied.
+	 *
+	 * @return the copied notes
+	 */
+	public synchronized NotesBuffer copy() {
+		load();
+		String[] copied = new String[Math.max(numSegments, 2)];
+		System.arraycopy(segments, 0, copied, 0, numSegments);
+		return new NotesBuffer(copied, numSegments, length);
+	}
+
+	/**
+	 * Returns the notes, with each added line on a line of its own.
+	 *
+	 * @return the notes
+	 */
+	@Override
+	public synchronized String toString() {
+		if (segments == null) return file.read(position);
+		if (numSegments == 1) return segments[0];
+		StringBuilder joined = new StringBuilder(length);
+		joined.append(segments[0]);
+		for (int i = 1; i < numSegments; i++){
+			joined.append(SEPARATOR).append(segments[i]);
+		}
+		String notes = joined.toString();
+		segments = new String[] {notes, null};
+		numSegments = 1;
+		return notes;
+	}
+
+	/**
+	 * Helper function which reads notes left in a file, so that they can be
+	 * added to. Called holding this object's lock.
+	 */
+	private void load() {
+		if (segments != null) return;
+		String notes = file.read(position);
+		segments = new String[] {notes, null};
+		numSegments = 1;
+		length = notes.length();
+		file = null;
+	}
+}
@@ -0,0 +1,54 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * NotesBuffer Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class NotesBufferTest {
+
+	@Test
+	public void append_severalNotes_eachOnNewLine() {
+		NotesBuffer notes = new NotesBuffer("first");
+		notes.append("second");
+		notes.append("third");
+		assertEquals(true, notes.toString().equals("first\nsecond\nthird")
+				&& notes.length() == "first\nsecond\nthird".length());
+	}
+
+	@Test
+	public void append_emptyNotes_replaceNotes() {
+		NotesBuffer notes = new NotesBuffer("");
+		notes.append("first");
+		assertEquals("first", notes.toString());
+	}
+
+	@Test
+	public void append_afterReading_keepJoinedNotes() {
+		NotesBuffer notes = new NotesBuffer("first");
+		notes.append("second");
+		String read = notes.toString();
+		notes.append("third");
+		assertEquals(true, read.equals("first\nsecond") 
+				&& notes.toString().equals("first\nsecond\nthird"));
+	}
+
+	@Test
+	public void copy_appendToCopy_originalUnchanged() {
+		NotesBuffer notes = new NotesBuffer("first");
+		notes.append("second");
+		NotesBuffer copy = notes.copy();
+		copy.append("third");
+		assertEquals(true, notes.toString().equals("first\nsecond")
+				&& copy.toString().equals("first\nsecond\nthird"));
+	}
+
+	@Test (expected = NullPointerException.class)
+	public void append_nullNotes_throwNullPointerEx() {
+		new NotesBuffer("first").append(null);
+	}
+}
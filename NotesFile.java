@@ -0,0 +1,88 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Notes left in a binary snapshot until they are read. <br />
+ * Loading with DataFormat.BINARY_LAZY_NOTES keeps only the position of each
+ * record's notes, and NotesBuffers created here read them from the mapped
+ * file each time they are asked for. The most recently read notes are kept
+ * in a small cache, so notes read again and again are decoded only once.
+ *
+ * The mapping stays open as long as any notes may be read through it, so
+ * the file must not be changed in place, only replaced (as flush does).
+ *
+ * @author caleb
+ *
+ */
+public final class NotesFile {
+
+	/**
+	 * Number of notes kept in the cache by default.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	private final ByteBuffer buffer;
+	private final Map<Integer, String> cache;
+
+	/**
+	 * Initializes notes read from the buffer.
+	 *
+	 * @param buffer holding the snapshot, which must not be changed
+	 * @param cacheSize maximum number of notes to keep in the cache
+	 */
+	NotesFile(ByteBuffer buffer, int cacheSize) {
+		this.buffer = buffer.asReadOnlyBuffer();
+		this.cache = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns notes which are read from the given position when first asked for.
+	 *
+	 * @param position of the notes' string in the buffer
+	 * @return the notes
+	 */
+	NotesBuffer notesAt(int position) {
+		return new NotesBuffer(this, position);
+	}
+
+	/**
+	 * Returns the notes stored at the given position, from the cache if
+	 * they have been read recently.
+	 *
+	 * @param position of the notes' string in the buffer
+	 * @return the notes
+	 */
+	synchronized String read(int position) {
+		String notes = cache.get(position);
+		if (notes == null) {
+			ByteBuffer view = buffer.duplicate();
+			view.position(position);
+			try {
+				notes = BinarySnapshot.readString(view);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			cache.put(position, notes);
+		}
+		return notes;
+	}
+
+	/**
+	 * Returns the number of notes in the cache.
+	 *
+	 * @return number of cached notes
+	 */
+	synchronized int cachedNotes() {
+		return cache.size();
+	}
+}
@@ -0,0 +1,890 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * An implementation of contact manager keeping its records outside the Java heap
+ *
+ * With millions of contacts and meetings the objects holding them, rather than the
+ * queries, fill the heap and make each garbage collection longer. Here every record
+ * is written to off-heap memory (see OffHeapMemory) and the heap only holds what
+ * does not grow with the number of records:
+ *
+ * Contacts and meetings are found by id through two off-heap tables of record
+ * addresses. A contact record holds its name, its notes and the head of the list
+ * of its meetings; a meeting record holds its date, its notes and the ids of its
+ * contacts. Notes are a chain of the lines added to them, so adding notes writes
+ * only the new line.
+ *
+ * Each contact's meetings are an off-heap list of (date, meeting id) entries, kept
+ * in blocks which double in size as the list grows. The same lists hold the
+ * meetings of each day, with only the heads of the days' lists in a tree map on the
+ * heap, and the contacts sharing each name trigram, with one head per trigram.
+ *
+ * Queries hand out flyweight contacts and meetings, which hold an id and read
+ * everything else from the records each time they are asked, so the heap only
+ * holds the records a caller is working with. Flyweights of the same record are
+ * equal. A meeting is past once it has notes or its date has passed, which is
+ * decided as it is read, so elapsed future meetings need no promotion. List entries
+ * of meetings added as past meetings hold the complement of the id, so the lists
+ * alone tell past from future meetings without reading the meetings' records.
+ *
+ * Records are never moved or freed: off-heap memory is given back as a whole
+ * once the contact manager is no longer reachable. Data is saved and restored
+ * in any DataFormat, like the other contact managers.
+ *
+ * Every method holds this object's lock, including those of the flyweights.
+ *
+ * @author caleb
+ *
+ */
+public class OffHeapContactManager implements ContactManager {
+
+	private static final int GRAM_LENGTH = 3;
+	private static final long DAY_MS = 24L * 60 * 60 * 1000;
+	private static final long NULL = OffHeapMemory.NULL;
+
+	// contact record: head of meeting list, notes head and tail, name
+	private static final int CONTACT_MEETINGS = 0;
+	private static final int CONTACT_NOTES = 8;
+	private static final int CONTACT_NAME = 24;
+
+	// meeting record: date, flags, notes head and tail, number of contacts, contact ids
+	private static final int MEETING_TIME = 0;
+	private static final int MEETING_FLAGS = 8;
+	private static final int MEETING_NOTES = 12;
+	private static final int MEETING_CONTACTS = 28;
+	private static final int PAST = 1;
+
+	// notes: next line, line; the tail is 8 bytes after the head
+	private static final int NOTES_TAIL = 8;
+	private static final int LINE_NEXT = 0;
+	private static final int LINE_TEXT = 8;
+
+	// block of a list: next block, size, capacity, (long key, int id) entries
+	private static final int BLOCK_NEXT = 0;
+	private static final int BLOCK_SIZE = 8;
+	private static final int BLOCK_CAPACITY = 12;
+	private static final int BLOCK_ENTRIES = 16;
+	private static final int ENTRY_SIZE = 12;
+	private static final int MIN_BLOCK_CAPACITY = 16;
+	private static final int MAX_BLOCK_CAPACITY = 1024;
+
+	private final OffHeapMemory memory;
+	private final OffHeapLongArray contactAddresses;
+	private final OffHeapLongArray meetingAddresses;
+	private final TreeMap<Long, Long> meetingsByDay;
+	private final Map<String, Postings> contactNames;
+	private final DataFormat format;
+	private int currentContactId;
+	private int currentMeetingId;
+
+	/**
+	 * Constructor to initialize new contact manager.
+	 * If previous data has been saved to an xml file the file will be loaded
+	 */
+	public OffHeapContactManager() {
+		this(true);
+	}
+
+	/**
+	 * Constructor to initialize new contact manager.
+	 * Includes parameter to ignore saved data if desired.
+	 *
+	 * @param restoreData boolean, false ignores saved data and loads initial values
+	 */
+	public OffHeapContactManager(boolean restoreData) {
+		this(restoreData, DataFormat.XML);
+	}
+
+	/**
+	 * Constructor to initialize new contact manager which saves its data
+	 * in the given format.
+	 *
+	 * @param restoreData boolean, false ignores saved data and loads initial values
+	 * @param format of the data file read on startup and written by flush
+	 */
+	public OffHeapContactManager(boolean restoreData, DataFormat format) {
+		memory = new OffHeapMemory();
+		contactAddresses = new OffHeapLongArray();
+		meetingAddresses = new OffHeapLongArray();
+		meetingsByDay = new TreeMap<Long, Long>();
+		contactNames = new HashMap<String, Postings>();
+		this.format = format;
+
+		File data = new File(format.getFileName());
+		if (restoreData && data.exists()) restoreData(data);
+	}
+
+	/**
+	 * Helper function used by constructors to restore previously saved data.
+	 *
+	 * @param data file containing data to be loaded
+	 */
+	private synchronized void restoreData(File data) {
+		try {
+			format.read(data, new DataRecordHandler() {
+				@Override
+				public void restoreContact(int id, String name, String notes) {
+					if (contactAddresses.get(id) == NULL) storeContact(id, name, notes);
+					currentContactId = Math.max(currentContactId, id + 1);
+				}
+
+				@Override
+				public void restorePastMeeting(int id, long date, int[] contactIds, String notes) {
+					if (meetingAddresses.get(id) == NULL)
+						storeMeeting(id, date, knownAttendees(contactIds), notes);
+					currentMeetingId = Math.max(currentMeetingId, id + 1);
+				}
+
+				@Override
+				public void restoreFutureMeeting(int id, long date, int[] contactIds) {
+					if (meetingAddresses.get(id) == NULL)
+						storeMeeting(id, date, knownAttendees(contactIds), null);
+					currentMeetingId = Math.max(currentMeetingId, id + 1);
+				}
+			});
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int addFutureMeeting(Set<Contact> contacts, Calendar date) {
+		if (contacts == null || date == null)
+			throw new NullPointerException("Null parameter!");
+		if (contacts.isEmpty())
+			throw new IllegalArgumentException("Must supply contacts!");
+		if (date.getTimeInMillis() < System.currentTimeMillis())
+			throw new IllegalArgumentException("Date is in the past already!");
+		checkContacts(contacts);
+
+		int id = currentMeetingId++;
+		storeMeeting(id, date.getTimeInMillis(), MeetingImpl.idsOf(contacts), null);
+		return id;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized PastMeeting getPastMeeting(int id) {
+		Meeting meeting = getMeeting(id);
+		if (meeting instanceof FutureMeeting)
+			throw new IllegalArgumentException("Meeting ID represents future meeting!");
+		return (PastMeeting) meeting;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized FutureMeeting getFutureMeeting(int id) {
+		Meeting meeting = getMeeting(id);
+		if (meeting instanceof PastMeeting)
+			throw new IllegalArgumentException("Meeting ID represents past meeting!");
+		return (FutureMeeting) meeting;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Returns a flyweight reading the meeting's record, which is past or
+	 * future as the meeting is at the time of the call.
+	 */
+	@Override
+	public synchronized Meeting getMeeting(int id) {
+		long address = meetingAddresses.get(id);
+		if (address == NULL) return null;
+		return isPast(address, System.currentTimeMillis())
+				? new PastMeetingView(id) : new FutureMeetingView(id);
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Reads the contact's list of meetings, which only holds dates and ids,
+	 * and creates flyweights for just the future ones.
+	 */
+	@Override
+	public synchronized List<Meeting> getFutureMeetingList(Contact contact) {
+		if (contact == null)
+			throw new IllegalArgumentException("Null contact provided!");
+		if (!isInDb(contact))
+			throw new IllegalArgumentException("Contact does not exist!");
+
+		MeetingTimeline timeline = meetingsOf(contact.getId(), false);
+		List<Meeting> found = new ArrayList<Meeting>(timeline.size());
+		for (int i = 0; i < timeline.size(); i++){
+			found.add(new FutureMeetingView(timeline.getId(i)));
+		}
+		return found;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Selects matches from the start of the given day up to the start of the
+	 * next day, as seen from the time zone of the date provided.
+	 */
+	@Override
+	public synchronized List<Meeting> getFutureMeetingList(Calendar date) {
+		if (date == null)
+			throw new IllegalArgumentException("Null date provided!");
+		Calendar dayStart = (Calendar) date.clone();
+		dayStart.set(Calendar.HOUR_OF_DAY, 0);
+		dayStart.set(Calendar.MINUTE, 0);
+		dayStart.set(Calendar.SECOND, 0);
+		dayStart.set(Calendar.MILLISECOND, 0);
+		Calendar dayEnd = (Calendar) dayStart.clone();
+		dayEnd.add(Calendar.DAY_OF_YEAR, 1);
+
+		return getMeetingsInRange(dayStart.getTimeInMillis(), dayEnd.getTimeInMillis());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized List<Meeting> getMeetingsBetween(Calendar start, Calendar end) {
+		if (start == null || end == null)
+			throw new IllegalArgumentException("Null date provided!");
+		if (end.before(start))
+			throw new IllegalArgumentException("End of range is before its start!");
+
+		return getMeetingsInRange(start.getTimeInMillis(), end.getTimeInMillis());
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Reads the contact's list of meetings, which only holds dates and ids,
+	 * and creates flyweights for just the past ones.
+	 */
+	@Override
+	public synchronized List<PastMeeting> getPastMeetingList(Contact contact) {
+		if (!isInDb(contact))
+			throw new IllegalArgumentException("Contact does not exist!");
+
+		MeetingTimeline timeline = meetingsOf(contact.getId(), true);
+		List<PastMeeting> found = new ArrayList<PastMeeting>(timeline.size());
+		for (int i = 0; i < timeline.size(); i++){
+			found.add(new PastMeetingView(timeline.getId(i)));
+		}
+		return found;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void addNewPastMeeting(Set<Contact> contacts, Calendar date, String text) {
+		if (contacts == null || date == null || text == null)
+			throw new NullPointerException("Null parameter!");
+		if (contacts.isEmpty())
+			throw new IllegalArgumentException("Must supply contacts!");
+		checkContacts(contacts);
+
+		storeMeeting(currentMeetingId++, date.getTimeInMillis(), MeetingImpl.idsOf(contacts), text);
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Only the new notes are written, as a line chained to the meeting's notes.
+	 */
+	@Override
+	public synchronized void addMeetingNotes(int id, String text) {
+		if (text == null) throw new NullPointerException("Notes are null!");
+
+		long address = meetingAddresses.get(id);
+		if (address == NULL)
+			throw new IllegalArgumentException("ID does not represent meeting!");
+		if (!isPast(address, System.currentTimeMillis()))
+			throw new IllegalStateException("Meeting is still scheduled for the future!");
+
+		memory.putInt(address + MEETING_FLAGS, memory.getInt(address + MEETING_FLAGS) | PAST);
+		appendNotes(address + MEETING_NOTES, text);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void addNewContact(String name, String notes) {
+		if (name == null || notes == null)
+			throw new NullPointerException("Neither name nor notes may be null!");
+
+		storeContact(currentContactId++, name, notes);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int addNewContacts(Collection<? extends Contact> newContacts) {
+		if (newContacts == null) throw new NullPointerException("Null parameter!");
+		for (Contact contact : newContacts){
+			if (contact == null || contact.getName() == null || contact.getNotes() == null)
+				throw new NullPointerException("Neither name nor notes may be null!");
+		}
+
+		int firstId = currentContactId;
+		for (Contact contact : newContacts){
+			storeContact(currentContactId++, contact.getName(), contact.getNotes());
+		}
+		return firstId;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int addNewPastMeetings(Collection<? extends PastMeeting> newMeetings) {
+		if (newMeetings == null) throw new NullPointerException("Null parameter!");
+		for (PastMeeting meeting : newMeetings){
+			if (meeting == null || meeting.getNotes() == null)
+				throw new NullPointerException("Null parameter!");
+			checkNewMeeting(meeting);
+		}
+
+		int firstId = currentMeetingId;
+		for (PastMeeting meeting : newMeetings){
+			storeMeeting(currentMeetingId++, meeting.getTimeInMillis(),
+					MeetingImpl.sortedIds(meeting.getContactIds()), meeting.getNotes());
+		}
+		return firstId;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized int addFutureMeetings(Collection<? extends FutureMeeting> newMeetings) {
+		if (newMeetings == null) throw new NullPointerException("Null parameter!");
+		long now = System.currentTimeMillis();
+		for (FutureMeeting meeting : newMeetings){
+			if (meeting == null) throw new NullPointerException("Null parameter!");
+			checkNewMeeting(meeting);
+			if (meeting.getTimeInMillis() < now)
+				throw new IllegalArgumentException("Date is in the past already!");
+		}
+
+		int firstId = currentMeetingId;
+		for (FutureMeeting meeting : newMeetings){
+			storeMeeting(currentMeetingId++, meeting.getTimeInMillis(),
+					MeetingImpl.sortedIds(meeting.getContactIds()), null);
+		}
+		return firstId;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Set<Contact> getContacts(int... ids) {
+		Set<Contact> foundContacts = new HashSet<Contact>();
+		for (int id : ids){
+			if (contactAddresses.get(id) != NULL) foundContacts.add(new ContactView(id));
+		}
+
+		if (foundContacts.isEmpty())
+			throw new IllegalArgumentException("Id not found!");
+		return foundContacts;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Note: the empty String returns all contacts.<br />
+	 * Only the names of the contacts sharing the rarest trigram of the search
+	 * string are read; strings shorter than three characters read every name.
+	 */
+	@Override
+	public synchronized Set<Contact> getContacts(String name) {
+		if (name == null) throw new NullPointerException("Name is null!");
+		Set<Contact> foundContacts = new HashSet<Contact>();
+
+		if (name.length() < GRAM_LENGTH) {
+			for (int id = 0; id < currentContactId; id++){
+				long address = contactAddresses.get(id);
+				if (address != NULL && memory.getString(address + CONTACT_NAME).contains(name))
+					foundContacts.add(new ContactView(id));
+			}
+		} else {
+			Postings candidates = null;
+			for (int i = 0; i + GRAM_LENGTH <= name.length(); i++){
+				Postings postings = contactNames.get(name.substring(i, i + GRAM_LENGTH));
+				if (postings == null) throw new IllegalArgumentException("Name not found!");
+				if (candidates == null || postings.size < candidates.size) candidates = postings;
+			}
+			// name postings hold the address of the contact's name
+			forEachEntry(candidates.head, (nameAddress, id) -> {
+				if (memory.getString(nameAddress).contains(name)) foundContacts.add(new ContactView(id));
+			});
+		}
+
+		if (foundContacts.isEmpty())
+			throw new IllegalArgumentException("Name not found!");
+		return foundContacts;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Writes all data to the data file, named "data.xml" unless another format
+	 * was chosen. Records are read into flyweights one at a time as they are
+	 * written, while changes are held off.
+	 */
+	@Override
+	public synchronized void flush() {
+		long now = System.currentTimeMillis();
+		Iterable<Contact> savedContacts = () -> IntStream.range(0, currentContactId)
+				.filter(id -> contactAddresses.get(id) != NULL)
+				.mapToObj(id -> (Contact) new ContactView(id)).iterator();
+		Iterable<PastMeeting> savedPastMeetings = () -> IntStream.range(0, currentMeetingId)
+				.filter(id -> meetingAddresses.get(id) != NULL && isPast(meetingAddresses.get(id), now))
+				.mapToObj(id -> (PastMeeting) new PastMeetingView(id)).iterator();
+		Iterable<FutureMeeting> savedFutureMeetings = () -> IntStream.range(0, currentMeetingId)
+				.filter(id -> meetingAddresses.get(id) != NULL && !isPast(meetingAddresses.get(id), now))
+				.mapToObj(id -> (FutureMeeting) new FutureMeetingView(id)).iterator();
+		try {
+			format.save(new File(format.getFileName()), savedContacts,
+					savedPastMeetings, savedFutureMeetings);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the number of bytes of off-heap memory holding the records
+	 * and the tables finding them by id.
+	 *
+	 * @return bytes allocated outside the heap
+	 */
+	public synchronized long getOffHeapBytes() {
+		return memory.capacity() + contactAddresses.capacity() + meetingAddresses.capacity();
+	}
+
+	/**
+	 * Helper function which writes a contact's record and indexes its name.
+	 *
+	 * @param id of the contact
+	 * @param name of the contact
+	 * @param notes about the contact
+	 */
+	private void storeContact(int id, String name, String notes) {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		long address = memory.allocate(CONTACT_NAME + OffHeapMemory.stringSize(nameBytes));
+		memory.putLong(address + CONTACT_MEETINGS, NULL);
+		memory.putLong(address + CONTACT_NOTES, NULL);
+		memory.putLong(address + CONTACT_NOTES + NOTES_TAIL, NULL);
+		memory.putString(address + CONTACT_NAME, nameBytes);
+		appendNotes(address + CONTACT_NOTES, notes);
+		contactAddresses.set(id, address);
+
+		Set<String> seen = new HashSet<String>();
+		for (int i = 0; i + GRAM_LENGTH <= name.length(); i++){
+			String gram = name.substring(i, i + GRAM_LENGTH);
+			if (!seen.add(gram)) continue;
+			Postings postings = contactNames.get(gram);
+			if (postings == null) {
+				postings = new Postings();
+				contactNames.put(gram, postings);
+			}
+			postings.head = addEntry(postings.head, address + CONTACT_NAME, id);
+			postings.size++;
+		}
+	}
+
+	/**
+	 * Helper function which writes a meeting's record and adds it to the
+	 * lists of its contacts and of its day.
+	 *
+	 * @param id of the meeting
+	 * @param time of the meeting in ms since the epoch
+	 * @param contactIds sorted ids of the meeting's contacts
+	 * @param notes about a past meeting, or null for a future meeting
+	 */
+	private void storeMeeting(int id, long time, int[] contactIds, String notes) {
+		long address = memory.allocate(MEETING_CONTACTS + Integer.BYTES * (1 + contactIds.length));
+		memory.putLong(address + MEETING_TIME, time);
+		memory.putInt(address + MEETING_FLAGS, (notes == null) ? 0 : PAST);
+		memory.putLong(address + MEETING_NOTES, NULL);
+		memory.putLong(address + MEETING_NOTES + NOTES_TAIL, NULL);
+		memory.putInt(address + MEETING_CONTACTS, contactIds.length);
+		for (int i = 0; i < contactIds.length; i++){
+			memory.putInt(address + MEETING_CONTACTS + Integer.BYTES * (1 + i), contactIds[i]);
+		}
+		if (notes != null) appendNotes(address + MEETING_NOTES, notes);
+		meetingAddresses.set(id, address);
+
+		int entry = (notes == null) ? id : ~id;
+		for (int contactId : contactIds){
+			long contact = contactAddresses.get(contactId) + CONTACT_MEETINGS;
+			memory.putLong(contact, addEntry(memory.getLong(contact), time, entry));
+		}
+		long day = Math.floorDiv(time, DAY_MS);
+		Long head = meetingsByDay.get(day);
+		meetingsByDay.put(day, addEntry((head == null) ? NULL : head, time, entry));
+	}
+
+	/**
+	 * Helper function which collects the meetings held from one time up to
+	 * another from the lists of the days in between, in chronological order.
+	 *
+	 * @param from time in ms, inclusive
+	 * @param to time in ms, exclusive
+	 * @return list of meetings within the range
+	 */
+	private List<Meeting> getMeetingsInRange(long from, long to) {
+		List<Meeting> found = new ArrayList<Meeting>();
+		if (from >= to) return found;
+
+		MeetingTimeline timeline = collectEntries(meetingsByDay.subMap(Math.floorDiv(from, DAY_MS), true,
+				Math.floorDiv(to - 1, DAY_MS), true).values(), (time, entry) -> time >= from && time < to);
+		for (int i = 0; i < timeline.size(); i++){
+			found.add(getMeeting(timeline.getId(i)));
+		}
+		return found;
+	}
+
+	/**
+	 * Helper function which reads a contact's past or future meetings in date
+	 * order from the contact's list. A meeting is past if it was added as a past
+	 * meeting or its date has passed; notes are only ever added to those.
+	 *
+	 * @param contactId of the contact
+	 * @param past true for the past meetings, false for the future ones
+	 * @return the contact's meetings
+	 */
+	private MeetingTimeline meetingsOf(int contactId, boolean past) {
+		long now = System.currentTimeMillis();
+		long head = memory.getLong(contactAddresses.get(contactId) + CONTACT_MEETINGS);
+		return collectEntries(Collections.singleton(head), (time, entry) -> (entry < 0 || time <= now) == past);
+	}
+
+	/**
+	 * Helper function which collects the meetings of the entries the filter
+	 * accepts from the given lists into primitive arrays, which are then sorted
+	 * into a timeline once.
+	 *
+	 * @param heads addresses of the lists' first blocks
+	 * @param filter choosing the entries to collect
+	 * @return timeline of the chosen meetings
+	 */
+	private MeetingTimeline collectEntries(Collection<Long> heads, EntryFilter filter) {
+		int count = 0;
+		for (long head : heads){
+			for (long block = head; block != NULL; block = memory.getLong(block + BLOCK_NEXT)){
+				count += memory.getInt(block + BLOCK_SIZE);
+			}
+		}
+		long[] times = new long[count];
+		int[] ids = new int[count];
+		int size = 0;
+		for (long head : heads){
+			for (long block = head; block != NULL; block = memory.getLong(block + BLOCK_NEXT)){
+				int blockSize = memory.getInt(block + BLOCK_SIZE);
+				for (int i = 0; i < blockSize; i++){
+					long entry = block + BLOCK_ENTRIES + ENTRY_SIZE * i;
+					long time = memory.getLong(entry);
+					int id = memory.getInt(entry + Long.BYTES);
+					if (!filter.accept(time, id)) continue;
+					times[size] = time;
+					ids[size++] = (id < 0) ? ~id : id;
+				}
+			}
+		}
+		return MeetingTimeline.sorted(times, ids, size);
+	}
+
+	/**
+	 * Helper function which adds an entry to a list, starting a new block
+	 * twice the size of the last one once that is full.
+	 *
+	 * @param head address of the list's first block, or NULL if the list is empty
+	 * @param key of the entry
+	 * @param id of the entry
+	 * @return the new address of the list's first block
+	 */
+	private long addEntry(long head, long key, int id) {
+		int size = (head == NULL) ? 0 : memory.getInt(head + BLOCK_SIZE);
+		int capacity = (head == NULL) ? 0 : memory.getInt(head + BLOCK_CAPACITY);
+		if (size == capacity) {
+			int newCapacity = Math.max(MIN_BLOCK_CAPACITY, Math.min(capacity << 1, MAX_BLOCK_CAPACITY));
+			long block = memory.allocate(BLOCK_ENTRIES + ENTRY_SIZE * newCapacity);
+			memory.putLong(block + BLOCK_NEXT, head);
+			memory.putInt(block + BLOCK_CAPACITY, newCapacity);
+			head = block;
+			size = 0;
+		}
+		long entry = head + BLOCK_ENTRIES + ENTRY_SIZE * size;
+		memory.putLong(entry, key);
+		memory.putInt(entry + Long.BYTES, id);
+		memory.putInt(head + BLOCK_SIZE, size + 1);
+		return head;
+	}
+
+	/**
+	 * Helper function which passes each entry of a list to the visitor,
+	 * newest block first.
+	 *
+	 * @param head address of the list's first block, or NULL if the list is empty
+	 * @param visitor receiving each entry
+	 */
+	private void forEachEntry(long head, EntryVisitor visitor) {
+		for (long block = head; block != NULL; block = memory.getLong(block + BLOCK_NEXT)){
+			int size = memory.getInt(block + BLOCK_SIZE);
+			for (int i = 0; i < size; i++){
+				long entry = block + BLOCK_ENTRIES + ENTRY_SIZE * i;
+				visitor.visit(memory.getLong(entry), memory.getInt(entry + Long.BYTES));
+			}
+		}
+	}
+
+	/**
+	 * Helper function which adds a line to notes, or puts it in place of
+	 * empty notes. Empty notes have no lines at all.
+	 *
+	 * @param notes address of the notes' head, followed by their tail
+	 * @param text the line to add
+	 */
+	private void appendNotes(long notes, String text) {
+		long head = memory.getLong(notes);
+		if (head == NULL && text.isEmpty()) return;
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		long line = memory.allocate(LINE_TEXT + OffHeapMemory.stringSize(bytes));
+		memory.putLong(line + LINE_NEXT, NULL);
+		memory.putString(line + LINE_TEXT, bytes);
+		if (head == NULL) memory.putLong(notes, line);
+		else memory.putLong(memory.getLong(notes + NOTES_TAIL) + LINE_NEXT, line);
+		memory.putLong(notes + NOTES_TAIL, line);
+	}
+
+	/**
+	 * Helper function which joins the lines of notes.
+	 *
+	 * @param notes address of the notes' head
+	 * @return the notes
+	 */
+	private String readNotes(long notes) {
+		long line = memory.getLong(notes);
+		if (line == NULL) return "";
+		if (memory.getLong(line + LINE_NEXT) == NULL) return memory.getString(line + LINE_TEXT);
+		StringBuilder joined = new StringBuilder(memory.getString(line + LINE_TEXT));
+		for (line = memory.getLong(line + LINE_NEXT); line != NULL; line = memory.getLong(line + LINE_NEXT)){
+			joined.append('\n').append(memory.getString(line + LINE_TEXT));
+		}
+		return joined.toString();
+	}
+
+	private boolean isPast(long meeting, long now) {
+		return (memory.getInt(meeting + MEETING_FLAGS) & PAST) != 0
+				|| memory.getLong(meeting + MEETING_TIME) <= now;
+	}
+
+	private void checkNewMeeting(Meeting meeting) {
+		if (meeting.getContacts() == null)
+			throw new NullPointerException("Null parameter!");
+		if (meeting.getContacts().isEmpty())
+			throw new IllegalArgumentException("Must supply contacts!");
+		checkContacts(meeting.getContacts());
+	}
+
+	private void checkContacts(Set<Contact> contacts) {
+		for (Contact contact : contacts){
+			if (!isInDb(contact))
+				throw new IllegalArgumentException("Unknown Contact!");
+		}
+	}
+
+	private boolean isInDb(Contact contact) {
+		return contact != null && contactAddresses.get(contact.getId()) != NULL;
+	}
+
+	private int[] knownAttendees(int[] ids) {
+		return MeetingImpl.sortedIds(Arrays.stream(ids).filter(id -> contactAddresses.get(id) != NULL).toArray());
+	}
+
+	private synchronized String contactName(int id) {
+		return memory.getString(contactAddresses.get(id) + CONTACT_NAME);
+	}
+
+	private synchronized String contactNotes(int id) {
+		return readNotes(contactAddresses.get(id) + CONTACT_NOTES);
+	}
+
+	private synchronized void addContactNotes(int id, String note) {
+		if (note == null) throw new NullPointerException("Notes are null!");
+		appendNotes(contactAddresses.get(id) + CONTACT_NOTES, note);
+	}
+
+	private synchronized long meetingTime(int id) {
+		return memory.getLong(meetingAddresses.get(id) + MEETING_TIME);
+	}
+
+	private synchronized int[] meetingContactIds(int id) {
+		long address = meetingAddresses.get(id) + MEETING_CONTACTS;
+		int[] ids = new int[memory.getInt(address)];
+		for (int i = 0; i < ids.length; i++){
+			ids[i] = memory.getInt(address + Integer.BYTES * (1 + i));
+		}
+		return ids;
+	}
+
+	private synchronized String meetingNotes(int id) {
+		return readNotes(meetingAddresses.get(id) + MEETING_NOTES);
+	}
+
+	/**
+	 * Receives the entries of an off-heap list.
+	 */
+	private interface EntryVisitor {
+		void visit(long key, int id);
+	}
+
+	/**
+	 * Chooses entries of an off-heap list.
+	 */
+	private interface EntryFilter {
+		boolean accept(long key, int id);
+	}
+
+	/**
+	 * Head and length of the off-heap list of contacts sharing a trigram.
+	 */
+	private static class Postings {
+		private long head = NULL;
+		private int size;
+	}
+
+	/**
+	 * Flyweight contact, reading the contact's record on each call.
+	 */
+	private class ContactView implements Contact {
+		private final int id;
+
+		private ContactView(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int getId() {
+			return id;
+		}
+
+		@Override
+		public String getName() {
+			return contactName(id);
+		}
+
+		@Override
+		public String getNotes() {
+			return contactNotes(id);
+		}
+
+		@Override
+		public void addNotes(String note) {
+			addContactNotes(id, note);
+		}
+
+		private OffHeapContactManager owner() {
+			return OffHeapContactManager.this;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof ContactView && ((ContactView) other).owner() == owner()
+					&& ((ContactView) other).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return Integer.hashCode(id);
+		}
+	}
+
+	/**
+	 * Flyweight meeting, reading the meeting's record on each call.
+	 */
+	private abstract class MeetingView implements Meeting {
+		private final int id;
+
+		private MeetingView(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int getId() {
+			return id;
+		}
+
+		@Override
+		public Calendar getDate() {
+			Calendar date = Calendar.getInstance();
+			date.setTimeInMillis(getTimeInMillis());
+			return date;
+		}
+
+		@Override
+		public long getTimeInMillis() {
+			return meetingTime(id);
+		}
+
+		@Override
+		public Set<Contact> getContacts() {
+			int[] ids = getContactIds();
+			Set<Contact> contacts = new HashSet<Contact>(ids.length * 2);
+			for (int contactId : ids){
+				contacts.add(new ContactView(contactId));
+			}
+			return contacts;
+		}
+
+		@Override
+		public int[] getContactIds() {
+			return meetingContactIds(id);
+		}
+
+		private OffHeapContactManager owner() {
+			return OffHeapContactManager.this;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof MeetingView && ((MeetingView) other).owner() == owner()
+					&& ((MeetingView) other).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return Integer.hashCode(id);
+		}
+	}
+
+	private class PastMeetingView extends MeetingView implements PastMeeting {
+		private PastMeetingView(int id) {
+			super(id);
+		}
+
+		@Override
+		public String getNotes() {
+			return meetingNotes(getId());
+		}
+	}
+
+	private class FutureMeetingView extends MeetingView implements FutureMeeting {
+		private FutureMeetingView(int id) {
+			super(id);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * OffHeapContactManager Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class OffHeapContactManagerTest {
+
+	private OffHeapContactManager cm = new OffHeapContactManager(false);
+
+	@Test
+	public void getContacts_byIdAndName_returnStoredContacts() {
+		cm.addNewContact("John Smith", "Notes");
+		cm.addNewContact("Jane Smithers", "");
+		cm.addNewContact("Joan Smyth", "");
+		Contact john = cm.getContacts(0).iterator().next();
+		assertEquals(true, john.getName().equals("John Smith") && john.getNotes().equals("Notes")
+				&& cm.getContacts("Smith").size() == 2 && cm.getContacts("Jo").size() == 2
+				&& cm.getContacts("").size() == 3 && cm.getContacts("Smith").contains(john));
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void getContacts_unknownName_throwIllArgEx() {
+		cm.addNewContact("John Smith", "");
+		cm.getContacts("Smyth");
+	}
+
+	@Test
+	public void addNotes_contactView_notesOnNewLine() {
+		cm.addNewContact("John", "");
+		cm.getContacts(0).iterator().next().addNotes("first");
+		cm.getContacts(0).iterator().next().addNotes("second");
+		assertEquals("first\nsecond", cm.getContacts(0).iterator().next().getNotes());
+	}
+
+	@Test
+	public void getPastMeetingList_meetingsAddedOutOfOrder_returnInDateOrder() {
+		cm.addNewContact("John", "");
+		cm.addNewContact("Jane", "");
+		Set<Contact> contacts = cm.getContacts(0, 1);
+		cm.addNewPastMeeting(contacts, pastDate(3), "three");
+		cm.addNewPastMeeting(contacts, pastDate(1), "one");
+		cm.addNewPastMeeting(cm.getContacts(1), pastDate(2), "two");
+		Calendar future = Calendar.getInstance();
+		future.add(Calendar.YEAR, 1);
+		cm.addFutureMeeting(contacts, future);
+		Contact john = cm.getContacts(0).iterator().next();
+		List<PastMeeting> meetings = cm.getPastMeetingList(john);
+		assertEquals(true, meetings.size() == 2 && meetings.get(0).getNotes().equals("one")
+				&& meetings.get(1).getNotes().equals("three")
+				&& cm.getFutureMeetingList(john).size() == 1
+				&& Arrays.equals(new int[] {0, 1}, meetings.get(0).getContactIds()));
+	}
+
+	@Test
+	public void getPastMeetingList_thousandsOutOfOrder_returnInDateOrder() {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		Random random = new Random(11);
+		for (int i = 0; i < 5000; i++){
+			cm.addNewPastMeeting(contacts, pastDate(-random.nextInt(1000)), "");
+		}
+		List<PastMeeting> meetings = cm.getPastMeetingList(contacts.iterator().next());
+		List<Meeting> between = cm.getMeetingsBetween(pastDate(-1000), pastDate(1));
+		boolean inOrder = meetings.size() == 5000 && between.size() == 5000;
+		for (int i = 1; i < meetings.size(); i++){
+			inOrder &= isBefore(meetings.get(i - 1), meetings.get(i)) && isBefore(between.get(i - 1), between.get(i));
+		}
+		assertEquals(true, inOrder);
+	}
+
+	@Test
+	public void getMeetingsBetween_validRange_returnMeetingsInOrder() {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		cm.addNewPastMeeting(contacts, pastDate(3), "");
+		cm.addNewPastMeeting(contacts, pastDate(1), "");
+		cm.addNewPastMeeting(contacts, pastDate(10), "");
+		List<Meeting> meetings = cm.getMeetingsBetween(pastDate(0), pastDate(5));
+		assertEquals(true, meetings.size() == 2 && meetings.get(0).getDate().equals(pastDate(1))
+				&& cm.getFutureMeetingList(pastDate(10)).size() == 1);
+	}
+
+	@Test
+	public void addMeetingNotes_elapsedFutureMeeting_becomesPastMeeting() throws InterruptedException {
+		cm.addNewContact("John", "");
+		Calendar soon = Calendar.getInstance();
+		soon.add(Calendar.MILLISECOND, 10);
+		int id = cm.addFutureMeeting(cm.getContacts(0), soon);
+		boolean wasFuture = cm.getMeeting(id) instanceof FutureMeeting;
+		Thread.sleep(20);
+		boolean elapsed = cm.getMeeting(id) instanceof PastMeeting;
+		cm.addMeetingNotes(id, "first");
+		cm.addMeetingNotes(id, "second");
+		assertEquals(true, wasFuture && elapsed
+				&& cm.getPastMeeting(id).getNotes().equals("first\nsecond"));
+	}
+
+	@Test (expected = IllegalStateException.class)
+	public void addMeetingNotes_meetingInFuture_throwIllStateEx() {
+		cm.addNewContact("John", "");
+		Calendar date = Calendar.getInstance();
+		date.add(Calendar.YEAR, 1);
+		int id = cm.addFutureMeeting(cm.getContacts("John"), date);
+		cm.addMeetingNotes(id, "Notes");
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void getFutureMeeting_pastMeetingId_throwIllArgEx() {
+		cm.addNewContact("John", "");
+		cm.addNewPastMeeting(cm.getContacts(0), pastDate(0), "");
+		cm.getFutureMeeting(0);
+	}
+
+	@Test
+	public void addNewContacts_manyContacts_allFoundAfterListsGrow() {
+		int numContacts = 5000;
+		List<Contact> batch = new ArrayList<Contact>();
+		for (int i = 0; i < numContacts; i++){
+			batch.add(new ContactImpl(-1, "Contact " + i, "Notes " + i));
+		}
+		int firstId = cm.addNewContacts(batch);
+		Contact last = cm.getContacts(firstId + numContacts - 1).iterator().next();
+		assertEquals(true, cm.getContacts("Contact").size() == numContacts
+				&& last.getNotes().equals("Notes " + (numContacts - 1)) && cm.getOffHeapBytes() > 0);
+	}
+
+	@Test
+	public void flush_savedData_restoreAllData() {
+		cm.addNewContact("John", "Notes");
+		cm.addNewPastMeeting(cm.getContacts("John"), pastDate(0), "Meeting notes");
+		cm.addMeetingNotes(0, "More notes");
+		cm.flush();
+		ContactManager restored = new OffHeapContactManager();
+		Contact contact = restored.getContacts("John").iterator().next();
+		assertEquals(true, contact.getNotes().equals("Notes") && restored.getPastMeetingList(contact)
+				.get(0).getNotes().equals("Meeting notes\nMore notes"));
+	}
+
+	private static boolean isBefore(Meeting first, Meeting second) {
+		return first.getTimeInMillis() < second.getTimeInMillis()
+				|| (first.getTimeInMillis() == second.getTimeInMillis() && first.getId() < second.getId());
+	}
+
+	private static Calendar pastDate(int daysAfter) {
+		Calendar date = Calendar.getInstance();
+		date.clear();
+		date.set(2015, Calendar.JANUARY, 1, 12, 0);
+		date.add(Calendar.DAY_OF_YEAR, daysAfter);
+		return date;
+	}
+}
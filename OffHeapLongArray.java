@@ -0,0 +1,70 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Array of longs outside the Java heap, growing as it is written to. <br />
+ * The longs are kept in direct ByteBuffers of PAGE_SIZE longs each, so the
+ * heap only holds one reference per page and growing never copies a page.
+ * Longs never written read as 0.
+ *
+ * Not thread-safe, callers hold their own lock.
+ *
+ * @author caleb
+ *
+ */
+public final class OffHeapLongArray {
+
+	private static final int PAGE_SHIFT = 16;
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	private ByteBuffer[] pages;
+
+	/**
+	 * Initializes an array of 0s.
+	 */
+	public OffHeapLongArray() {
+		pages = new ByteBuffer[1];
+	}
+
+	/**
+	 * Returns the long at the index.
+	 *
+	 * @param index of the long, not negative
+	 * @return the long, or 0 if it was never written
+	 */
+	public long get(int index) {
+		int page = index >>> PAGE_SHIFT;
+		if (page >= pages.length || pages[page] == null) return 0;
+		return pages[page].getLong((index & PAGE_MASK) << 3);
+	}
+
+	/**
+	 * Writes the long at the index.
+	 *
+	 * @param index of the long, not negative
+	 * @param value to write
+	 */
+	public void set(int index, long value) {
+		int page = index >>> PAGE_SHIFT;
+		if (page >= pages.length) {
+			ByteBuffer[] grown = new ByteBuffer[Math.max(pages.length << 1, page + 1)];
+			System.arraycopy(pages, 0, grown, 0, pages.length);
+			pages = grown;
+		}
+		if (pages[page] == null) pages[page] = ByteBuffer.allocateDirect(PAGE_SIZE << 3);
+		pages[page].putLong((index & PAGE_MASK) << 3, value);
+	}
+
+	/**
+	 * Returns the number of bytes taken from outside the heap.
+	 *
+	 * @return bytes allocated
+	 */
+	public long capacity() {
+		long capacity = 0;
+		for (ByteBuffer page : pages){
+			if (page != null) capacity += page.capacity();
+		}
+		return capacity;
+	}
+}
@@ -0,0 +1,28 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * OffHeapLongArray Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class OffHeapLongArrayTest {
+
+	private OffHeapLongArray array = new OffHeapLongArray();
+
+	@Test
+	public void set_acrossPages_valuesReadBack() {
+		array.set(3, 30);
+		array.set(1 << 20, 42);
+		assertEquals(true, array.get(3) == 30 && array.get(1 << 20) == 42);
+	}
+
+	@Test
+	public void get_neverWritten_returnZero() {
+		array.set(5, 1);
+		assertEquals(true, array.get(4) == 0 && array.get(1 << 24) == 0 && array.get(-1) == 0);
+	}
+}
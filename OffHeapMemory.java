@@ -0,0 +1,202 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Append-only memory outside the Java heap. <br />
+ * Records are allocated from direct ByteBuffers of CHUNK_SIZE bytes, one after
+ * the other, and are addressed by a long holding the chunk's index in its upper
+ * and the offset into the chunk in its lower 32 bits. Records larger than a
+ * chunk get a chunk of their own, so no record spans two chunks.
+ *
+ * Memory is never freed record by record: it is all given back once the
+ * memory itself is no longer reachable. Address 0 is never handed out, so it
+ * can stand for no record.
+ *
+ * Not thread-safe, callers hold their own lock.
+ *
+ * @author caleb
+ *
+ */
+public final class OffHeapMemory {
+
+	/**
+	 * Address standing for no record.
+	 */
+	public static final long NULL = 0;
+
+	private static final int CHUNK_SHIFT = 22;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	private ByteBuffer[] chunks;
+	private int numChunks;
+	private int current;
+	private long reserved;
+
+	/**
+	 * Initializes memory holding no records.
+	 */
+	public OffHeapMemory() {
+		chunks = new ByteBuffer[16];
+		addChunk(CHUNK_SIZE);
+		current = 0;
+		// keeps address 0 free to mean NULL
+		chunks[0].position(Long.BYTES);
+	}
+
+	/**
+	 * Reserves space for a record.
+	 *
+	 * @param size of the record in bytes
+	 * @return address of the record
+	 */
+	public long allocate(int size) {
+		if (size > CHUNK_SIZE) {
+			int chunk = addChunk(size);
+			chunks[chunk].position(size);
+			reserved += size;
+			return address(chunk, 0);
+		}
+		ByteBuffer buffer = chunks[current];
+		if (buffer.remaining() < size) {
+			current = addChunk(CHUNK_SIZE);
+			buffer = chunks[current];
+		}
+		int offset = buffer.position();
+		buffer.position(offset + size);
+		reserved += size;
+		return address(current, offset);
+	}
+
+	/**
+	 * Returns the number of bytes reserved for records.
+	 *
+	 * @return bytes in use
+	 */
+	public long reserved() {
+		return reserved;
+	}
+
+	/**
+	 * Returns the number of bytes taken from outside the heap, including
+	 * the unused ends of chunks.
+	 *
+	 * @return bytes allocated
+	 */
+	public long capacity() {
+		long capacity = 0;
+		for (int i = 0; i < numChunks; i++){
+			capacity += chunks[i].capacity();
+		}
+		return capacity;
+	}
+
+	/**
+	 * Reads an int.
+	 *
+	 * @param address to read from
+	 * @return the value
+	 */
+	public int getInt(long address) {
+		return chunks[chunk(address)].getInt(offset(address));
+	}
+
+	/**
+	 * Writes an int.
+	 *
+	 * @param address to write to
+	 * @param value to write
+	 */
+	public void putInt(long address, int value) {
+		chunks[chunk(address)].putInt(offset(address), value);
+	}
+
+	/**
+	 * Reads a long.
+	 *
+	 * @param address to read from
+	 * @return the value
+	 */
+	public long getLong(long address) {
+		return chunks[chunk(address)].getLong(offset(address));
+	}
+
+	/**
+	 * Writes a long.
+	 *
+	 * @param address to write to
+	 * @param value to write
+	 */
+	public void putLong(long address, long value) {
+		chunks[chunk(address)].putLong(offset(address), value);
+	}
+
+	/**
+	 * Returns the number of bytes a string takes when written with putString.
+	 *
+	 * @param bytes the string's UTF-8 bytes
+	 * @return size in bytes
+	 */
+	public static int stringSize(byte[] bytes) {
+		return Integer.BYTES + bytes.length;
+	}
+
+	/**
+	 * Writes a string as its byte length followed by its UTF-8 bytes.
+	 *
+	 * @param address to write the string to, with stringSize bytes reserved
+	 * @param bytes the string's UTF-8 bytes
+	 */
+	public void putString(long address, byte[] bytes) {
+		ByteBuffer buffer = chunks[chunk(address)].duplicate();
+		buffer.position(offset(address));
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+
+	/**
+	 * Reads a string written with putString.
+	 *
+	 * @param address of the string
+	 * @return the string
+	 */
+	public String getString(long address) {
+		ByteBuffer buffer = chunks[chunk(address)].duplicate();
+		buffer.position(offset(address));
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Returns the byte length of a string written with putString,
+	 * without reading it.
+	 *
+	 * @param address of the string
+	 * @return length of the string in bytes
+	 */
+	public int getStringSize(long address) {
+		return getInt(address);
+	}
+
+	private int addChunk(int size) {
+		if (numChunks == chunks.length) {
+			ByteBuffer[] grown = new ByteBuffer[numChunks << 1];
+			System.arraycopy(chunks, 0, grown, 0, numChunks);
+			chunks = grown;
+		}
+		chunks[numChunks] = ByteBuffer.allocateDirect(size);
+		return numChunks++;
+	}
+
+	private static long address(int chunk, int offset) {
+		return ((long) chunk << 32) | offset;
+	}
+
+	private static int chunk(long address) {
+		return (int) (address >>> 32);
+	}
+
+	private static int offset(long address) {
+		return (int) address;
+	}
+}
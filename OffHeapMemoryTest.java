@@ -0,0 +1,47 @@
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * OffHeapMemory Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class OffHeapMemoryTest {
+
+	private OffHeapMemory memory = new OffHeapMemory();
+
+	@Test
+	public void allocate_manyRecords_valuesKeptAcrossChunks() {
+		int numRecords = 1000000;
+		long[] addresses = new long[numRecords];
+		for (int i = 0; i < numRecords; i++){
+			addresses[i] = memory.allocate(12);
+			memory.putLong(addresses[i], i * 3L);
+			memory.putInt(addresses[i] + 8, i);
+		}
+		boolean kept = addresses[0] != OffHeapMemory.NULL;
+		for (int i = 0; i < numRecords; i++){
+			if (memory.getLong(addresses[i]) != i * 3L || memory.getInt(addresses[i] + 8) != i) kept = false;
+		}
+		assertEquals(true, kept && memory.reserved() == 12L * numRecords);
+	}
+
+	@Test
+	public void putString_largerThanChunk_readBack() {
+		char[] chars = new char[5 << 20];
+		Arrays.fill(chars, 'é');
+		String text = new String(chars);
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		long address = memory.allocate(OffHeapMemory.stringSize(bytes));
+		memory.putString(address, bytes);
+		long next = memory.allocate(8);
+		memory.putLong(next, 42);
+		assertEquals(true, memory.getString(address).equals(text) && memory.getLong(next) == 42);
+	}
+}
@@ -0,0 +1,101 @@
+import java.beans.ConstructorProperties;
+
+/**
+ * Metrics of one contact manager operation at the time they were read. <br />
+ * Latencies are in ns. Result sizes count the meetings or contacts returned,
+ * and are 0 for operations which do not return a collection.
+ *
+ * @author caleb
+ *
+ */
+public class OperationMetrics {
+
+	private final String name;
+	private final long calls;
+	private final long errors;
+	private final double meanLatency;
+	private final long medianLatency;
+	private final long p99Latency;
+	private final long p999Latency;
+	private final long maxLatency;
+	private final double meanResultSize;
+	private final long maxResultSize;
+
+	/**
+	 * Constructor for metrics read from an operation.
+	 *
+	 * @param name of the operation
+	 * @param calls number of calls made
+	 * @param errors number of calls which threw an exception
+	 * @param meanLatency mean time taken by a call
+	 * @param medianLatency time taken by half of the calls or less
+	 * @param p99Latency time taken by 99% of the calls or less
+	 * @param p999Latency time taken by 99.9% of the calls or less
+	 * @param maxLatency longest time taken by a call
+	 * @param meanResultSize mean number of results returned
+	 * @param maxResultSize largest number of results returned
+	 */
+	@ConstructorProperties({"name", "calls", "errors", "meanLatency", "medianLatency",
+			"p99Latency", "p999Latency", "maxLatency", "meanResultSize", "maxResultSize"})
+	public OperationMetrics(String name, long calls, long errors, double meanLatency,
+			long medianLatency, long p99Latency, long p999Latency, long maxLatency,
+			double meanResultSize, long maxResultSize) {
+		this.name = name;
+		this.calls = calls;
+		this.errors = errors;
+		this.meanLatency = meanLatency;
+		this.medianLatency = medianLatency;
+		this.p99Latency = p99Latency;
+		this.p999Latency = p999Latency;
+		this.maxLatency = maxLatency;
+		this.meanResultSize = meanResultSize;
+		this.maxResultSize = maxResultSize;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCalls() {
+		return calls;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public double getMeanLatency() {
+		return meanLatency;
+	}
+
+	public long getMedianLatency() {
+		return medianLatency;
+	}
+
+	public long getP99Latency() {
+		return p99Latency;
+	}
+
+	public long getP999Latency() {
+		return p999Latency;
+	}
+
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+
+	public double getMeanResultSize() {
+		return meanResultSize;
+	}
+
+	public long getMaxResultSize() {
+		return maxResultSize;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d calls, %d errors, latency mean %.0f p50 %d p99 %d p99.9 %d max %d ns, "
+				+ "results mean %.1f max %d", name, calls, errors, meanLatency, medianLatency,
+				p99Latency, p999Latency, maxLatency, meanResultSize, maxResultSize);
+	}
+}
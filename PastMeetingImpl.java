@@ -1,14 +1,17 @@
 import java.util.Calendar;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 /**
  * Implementation for PastMeeting based on MeetingImpl.<br />
+ * Notes are held in a NotesBuffer, so a contact manager can add notes to
+ * a meeting in place without copying the notes so far.
  * 
  * @author caleb
  *
  */
 public class PastMeetingImpl extends MeetingImpl implements PastMeeting {
-	private String notes;
+	private NotesBuffer notes;
 	
 	/**
 	 * Constructor for past meetings. 
@@ -21,6 +24,58 @@ public class PastMeetingImpl extends MeetingImpl implements PastMeeting {
 	public PastMeetingImpl(int id, Calendar date,
 			Set<Contact> contacts, String notes) {
 		super(id, date, contacts);;
+		this.notes = (notes == null) ? null : new NotesBuffer(notes);
+	}
+	
+	/**
+	 * Constructor for past meetings. 
+	 *  
+	 * @param id to identify meeting
+	 * @param time meeting was held, in ms since the epoch
+	 * @param contacts present at meeting
+	 * @param notes concerning meeting
+	 */
+	public PastMeetingImpl(int id, long time,
+			Set<Contact> contacts, String notes) {
+		super(id, time, contacts);
+		this.notes = (notes == null) ? null : new NotesBuffer(notes);
+	}
+
+	/**
+	 * Constructor for past meetings whose attendees are looked up by id. 
+	 *  
+	 * @param id to identify meeting
+	 * @param time meeting was held, in ms since the epoch
+	 * @param contactIds of the contacts present at meeting, kept as given if sorted
+	 * @param directory looking up a contact by id
+	 * @param notes concerning meeting
+	 */
+	public PastMeetingImpl(int id, long time, int[] contactIds,
+			IntFunction<Contact> directory, String notes) {
+		super(id, time, contactIds, directory);
+		this.notes = (notes == null) ? null : new NotesBuffer(notes);
+	}
+
+	/**
+	 * Returns a restored past meeting whose notes are already held in a buffer,
+	 * such as notes left in a data file until they are read. 
+	 *  
+	 * @param id to identify meeting
+	 * @param time meeting was held, in ms since the epoch
+	 * @param contactIds of the contacts present at meeting, kept as given if sorted
+	 * @param directory looking up a contact by id
+	 * @param notes concerning meeting
+	 * @return the past meeting
+	 */
+	static PastMeetingImpl restored(int id, long time, int[] contactIds,
+			IntFunction<Contact> directory, NotesBuffer notes) {
+		PastMeetingImpl meeting = new PastMeetingImpl(id, time, contactIds, directory, "");
+		meeting.notes = notes;
+		return meeting;
+	}
+
+	private PastMeetingImpl(PastMeetingImpl meeting, NotesBuffer notes) {
+		super(meeting);
 		this.notes = notes;
 	}
 
@@ -29,6 +84,37 @@ public class PastMeetingImpl extends MeetingImpl implements PastMeeting {
 	 */
 	@Override
 	public String getNotes() {
-		return notes;
+		return (notes == null) ? null : notes.toString();
+	}
+
+	/**
+	 * Adds notes on a new line, or in place of empty notes.
+	 * 
+	 * @param text the notes to add
+	 */
+	void addNotes(String text) {
+		notes.append(text);
+	}
+
+	/**
+	 * Returns the length of the notes without joining them.
+	 * 
+	 * @return number of chars in the notes
+	 */
+	int notesLength() {
+		return notes.length();
+	}
+
+	/**
+	 * Returns a copy of this meeting with the text added to its notes,
+	 * leaving this meeting as it is. Only the list of lines is copied.
+	 * 
+	 * @param text the notes to add
+	 * @return the copied meeting
+	 */
+	PastMeetingImpl withNotes(String text) {
+		NotesBuffer copied = notes.copy();
+		copied.append(text);
+		return new PastMeetingImpl(this, copied);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable map from long keys to values, ordered by key. <br />
+ * Adding a key returns a new map and leaves this one as it was. The two share
+ * every node except the few on the path to the key, so a version of the map
+ * costs O(log n) new nodes rather than a copy, and any number of versions may
+ * be held and read from any thread at once.
+ *
+ * The map is an AVL tree copied along the path of each change.
+ *
+ * @author caleb
+ *
+ * @param <V> type of the values
+ */
+public final class PersistentLongMap<V> implements Iterable<V> {
+
+	private static final PersistentLongMap<Object> EMPTY = new PersistentLongMap<Object>(null, 0);
+
+	private final Node<V> root;
+	private final int size;
+
+	private PersistentLongMap(Node<V> root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the empty map.
+	 *
+	 * @return a map without keys
+	 */
+	@SuppressWarnings("unchecked")
+	public static <V> PersistentLongMap<V> empty() {
+		return (PersistentLongMap<V>) EMPTY;
+	}
+
+	/**
+	 * Returns the value held for a key.
+	 *
+	 * @param key the key to look up
+	 * @return the value, or null if the key is not in the map
+	 */
+	public V get(long key) {
+		Node<V> node = root;
+		while (node != null){
+			if (key < node.key) node = node.left;
+			else if (key > node.key) node = node.right;
+			else return node.value;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a map holding the value for the key and every other key of
+	 * this map. This map is left unchanged.
+	 *
+	 * @param key the key to add or replace
+	 * @param value the value, may not be null
+	 * @return the new map
+	 * @throws NullPointerException if the value is null
+	 */
+	public PersistentLongMap<V> put(long key, V value) {
+		if (value == null) throw new NullPointerException("Value is null!");
+		boolean added = get(key) == null;
+		return new PersistentLongMap<V>(put(root, key, value), added ? size + 1 : size);
+	}
+
+	/**
+	 * Returns the number of keys in the map.
+	 *
+	 * @return number of keys
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if the map holds no keys.
+	 *
+	 * @return true if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the values in ascending order of their keys.
+	 *
+	 * @return iterator over all values
+	 */
+	@Override
+	public Iterator<V> iterator() {
+		return new RangeIterator<V>(root, Long.MIN_VALUE, Long.MAX_VALUE, true);
+	}
+
+	/**
+	 * Returns the values held for keys from one key up to another,
+	 * in ascending order of their keys.
+	 *
+	 * @param from lowest key, inclusive
+	 * @param to highest key, exclusive
+	 * @return the values within the range
+	 */
+	public Iterable<V> values(long from, long to) {
+		return () -> new RangeIterator<V>(root, from, to, false);
+	}
+
+	/**
+	 * Returns the values held for keys from one key upwards, in ascending
+	 * order of their keys.
+	 *
+	 * @param from lowest key, inclusive
+	 * @return the values from that key on
+	 */
+	public Iterable<V> valuesFrom(long from) {
+		return () -> new RangeIterator<V>(root, from, Long.MAX_VALUE, true);
+	}
+
+	private static <V> Node<V> put(Node<V> node, long key, V value) {
+		if (node == null) return new Node<V>(key, value, null, null);
+		if (key < node.key)
+			return balance(node.key, node.value, put(node.left, key, value), node.right);
+		if (key > node.key)
+			return balance(node.key, node.value, node.left, put(node.right, key, value));
+		return new Node<V>(key, value, node.left, node.right);
+	}
+
+	/**
+	 * Helper function which builds a node from its parts, rotating once or
+	 * twice if one side has become two levels deeper than the other.
+	 */
+	private static <V> Node<V> balance(long key, V value, Node<V> left, Node<V> right) {
+		if (height(left) > height(right) + 1) {
+			if (height(left.left) >= height(left.right))
+				return new Node<V>(left.key, left.value, left.left,
+						new Node<V>(key, value, left.right, right));
+			Node<V> middle = left.right;
+			return new Node<V>(middle.key, middle.value,
+					new Node<V>(left.key, left.value, left.left, middle.left),
+					new Node<V>(key, value, middle.right, right));
+		}
+		if (height(right) > height(left) + 1) {
+			if (height(right.right) >= height(right.left))
+				return new Node<V>(right.key, right.value,
+						new Node<V>(key, value, left, right.left), right.right);
+			Node<V> middle = right.left;
+			return new Node<V>(middle.key, middle.value,
+					new Node<V>(key, value, left, middle.left),
+					new Node<V>(right.key, right.value, middle.right, right.right));
+		}
+		return new Node<V>(key, value, left, right);
+	}
+
+	private static int height(Node<?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private static final class Node<V> {
+		private final long key;
+		private final V value;
+		private final Node<V> left;
+		private final Node<V> right;
+		private final int height;
+
+		private Node(long key, V value, Node<V> left, Node<V> right) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+			this.height = 1 + Math.max(height(left), height(right));
+		}
+	}
+
+	/**
+	 * In-order walk over the nodes with keys in a range, keeping the path
+	 * still to visit on a stack.
+	 */
+	private static final class RangeIterator<V> implements Iterator<V> {
+		private final Deque<Node<V>> path = new ArrayDeque<Node<V>>();
+		private final long to;
+		private final boolean toInclusive;
+
+		private RangeIterator(Node<V> root, long from, long to, boolean toInclusive) {
+			this.to = to;
+			this.toInclusive = toInclusive;
+			Node<V> node = root;
+			while (node != null){
+				if (node.key >= from) {
+					path.push(node);
+					node = node.left;
+				} else {
+					node = node.right;
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (path.isEmpty()) return false;
+			long key = path.peek().key;
+			return key < to || (toInclusive && key == to);
+		}
+
+		@Override
+		public V next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			Node<V> node = path.pop();
+			for (Node<V> next = node.right; next != null; next = next.left){
+				path.push(next);
+			}
+			return node.value;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * PersistentLongMap Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class PersistentLongMapTest {
+
+	private PersistentLongMap<String> map = PersistentLongMap.empty();
+
+	@Test
+	public void put_newKey_oldVersionUnchanged() {
+		PersistentLongMap<String> first = map.put(1, "one");
+		PersistentLongMap<String> second = first.put(2, "two").put(1, "uno");
+		assertEquals(true, first.size() == 1 && first.get(2) == null && first.get(1).equals("one")
+				&& second.size() == 2 && second.get(1).equals("uno"));
+	}
+
+	@Test (expected = NullPointerException.class)
+	public void put_nullValue_throwNullPtrEx() {
+		map.put(1, null);
+	}
+
+	@Test
+	public void iterator_randomKeys_matchTreeMap() {
+		TreeMap<Long, String> expected = new TreeMap<Long, String>();
+		Random random = new Random(7);
+		for (int i = 0; i < 5000; i++){
+			long key = random.nextInt(2000) - 1000;
+			expected.put(key, "v" + i);
+			map = map.put(key, "v" + i);
+		}
+		List<String> values = new ArrayList<String>();
+		for (String value : map){
+			values.add(value);
+		}
+		assertEquals(true, values.equals(new ArrayList<String>(expected.values()))
+				&& map.size() == expected.size());
+	}
+
+	@Test
+	public void values_range_returnValuesFromInclusiveToExclusive() {
+		for (long key = 0; key < 100; key += 10){
+			map = map.put(key, "v" + key);
+		}
+		List<String> values = new ArrayList<String>();
+		for (String value : map.values(15, 40)){
+			values.add(value);
+		}
+		assertEquals(true, values.size() == 2 && values.get(0).equals("v20") && values.get(1).equals("v30"));
+	}
+
+	@Test
+	public void valuesFrom_maxKey_returnValuesFromInclusiveToLast() {
+		map = map.put(5, "five").put(Long.MAX_VALUE, "max").put(20, "twenty");
+		List<String> values = new ArrayList<String>();
+		for (String value : map.valuesFrom(10)){
+			values.add(value);
+		}
+		assertEquals(true, values.size() == 2 && values.get(0).equals("twenty") && values.get(1).equals("max"));
+	}
+}
@@ -0,0 +1,105 @@
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A contact manager for read-mostly use from many threads. <br />
+ * Contacts and meetings looked up by id are read without taking any lock,
+ * checking afterwards through a StampedLock that no change was made while they
+ * were read. Only when a change did overlap is the lookup run again under the
+ * read lock, so such lookups do not contend with each other while nothing is
+ * written. An id lookup reads a bounded number of slots of the contact table
+ * or the meeting map, so a torn read gives a missing or stale record at worst,
+ * which the check then discards along with anything the lookup throws.
+ *
+ * Queries walking the timelines or the time index would not be safe without
+ * the lock: run over half updated tree maps and timelines they could loop
+ * forever or throw an error long before the check discards their result.
+ * Instead each change publishes a snapshot of the data (see
+ * ContactManagerSnapshot) and those queries read the latest snapshot, which
+ * never changes, so they take no lock at all. Name searches still run under
+ * the read lock, as snapshots keep no name index.
+ *
+ * @author caleb
+ *
+ */
+public class StampedContactManager extends LockedContactManager {
+
+	private final StampedLock lock;
+	private volatile ContactManagerSnapshot published;
+
+	/**
+	 * Constructor to initialize new contact manager.
+	 * If previous data has been saved to an xml file the file will be loaded
+	 */
+	public StampedContactManager() {
+		this(true);
+	}
+
+	/**
+	 * Constructor to initialize new contact manager.
+	 * Includes parameter to ignore saved data if desired.
+	 *
+	 * @param restoreData boolean, false ignores saved data and loads initial values
+	 */
+	public StampedContactManager(boolean restoreData) {
+		super(new ContactManagerImpl(restoreData));
+		lock = new StampedLock();
+		published = snapshot();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected <T> T read(Supplier<T> query) {
+		long stamp = lock.readLock();
+		try {
+			return query.get();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Runs optimistically, falling back to the read lock if a change overlapped.
+	 */
+	@Override
+	protected <T> T lookup(Supplier<T> query) {
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			try {
+				T result = query.get();
+				if (lock.validate(stamp)) return result;
+			} catch (Throwable e) {
+				if (lock.validate(stamp)) throw e;
+			}
+		}
+		return read(query);
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Runs against the snapshot published by the last change.
+	 */
+	@Override
+	protected <T> T timeline(Function<ContactManager, T> query) {
+		return query.apply(published);
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Publishes a snapshot of the data once the change is made.
+	 */
+	@Override
+	protected <T> T write(Supplier<T> change) {
+		long stamp = lock.writeLock();
+		try {
+			return change.get();
+		} finally {
+			published = snapshot();
+			lock.unlockWrite(stamp);
+		}
+	}
+}
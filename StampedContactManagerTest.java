@@ -0,0 +1,150 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * StampedContactManager Tests
+ * @author caleb
+ *
+ * Test cases follow the naming used in ContactManagerTest:
+ * Scope of test_Context tested_Expected Result
+ */
+public class StampedContactManagerTest {
+
+	private static final int MEETINGS = 2000;
+
+	private ContactManager cm = new StampedContactManager(false);
+
+	@Test
+	public void getPastMeetingList_addedMeetings_returnMeetings() {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		cm.addNewPastMeeting(contacts, pastDate(), "Notes");
+		cm.addMeetingNotes(0, "More notes");
+		List<PastMeeting> meetings = cm.getPastMeetingList(contacts.iterator().next());
+		assertEquals(true, meetings.size() == 1 && meetings.get(0).getNotes().equals("Notes\nMore notes"));
+	}
+
+	@Test (expected = IllegalArgumentException.class)
+	public void getContacts_unknownId_throwIllArgEx() {
+		cm.getContacts(1);
+	}
+
+	@Test
+	public void getPastMeetingList_readDuringWrites_listsNeverShrink() throws Exception {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		Contact contact = contacts.iterator().next();
+
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+		try {
+			Future<?> writer = threads.submit(() -> {
+				for (int i = 0; i < MEETINGS; i++){
+					cm.addNewPastMeeting(contacts, pastDate(), "Notes");
+				}
+			});
+			Future<Boolean> reader = threads.submit(() -> {
+				int previousSize = 0;
+				while (previousSize < MEETINGS){
+					int size = cm.getPastMeetingList(contact).size();
+					if (size < previousSize) return false;
+					previousSize = size;
+				}
+				return true;
+			});
+			writer.get();
+			assertEquals(true, reader.get());
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+	@Test
+	public void getContacts_lookupsDuringWrites_addedContactsFound() throws Exception {
+		cm.addNewContact("John", "");
+
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+		try {
+			Future<?> writer = threads.submit(() -> {
+				for (int i = 1; i < MEETINGS; i++){
+					cm.addNewContact("Contact " + i, "");
+				}
+			});
+			Future<Boolean> reader = threads.submit(() -> {
+				for (int id = 1; id < MEETINGS; id++){
+					Contact found = null;
+					while (found == null){
+						try {
+							found = cm.getContacts(id).iterator().next();
+						} catch (IllegalArgumentException e) {
+							// not added yet
+						}
+					}
+					if (!found.getName().equals("Contact " + id)) return false;
+				}
+				return true;
+			});
+			writer.get();
+			assertEquals(true, reader.get());
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+	@Test
+	public void getMeeting_lookupsDuringWrites_addedMeetingsFound() throws Exception {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+
+		ExecutorService threads = Executors.newFixedThreadPool(4);
+		try {
+			Future<?> writer = threads.submit(() -> {
+				for (int i = 0; i < MEETINGS; i++){
+					cm.addNewPastMeeting(contacts, pastDate(), "Notes " + i);
+				}
+			});
+			Future<Boolean> reader = threads.submit(() -> {
+				for (int id = 0; id < MEETINGS; id++){
+					Meeting found = null;
+					while (found == null){
+						found = cm.getMeeting(id);
+					}
+					if (!((PastMeeting) found).getNotes().equals("Notes " + id)) return false;
+				}
+				return true;
+			});
+			writer.get();
+			assertEquals(true, reader.get());
+		} finally {
+			threads.shutdown();
+		}
+	}
+
+	@Test
+	public void getPastMeetingList_elapsedMeeting_returnPromotedMeeting() throws InterruptedException {
+		cm.addNewContact("John", "");
+		Set<Contact> contacts = cm.getContacts("John");
+		Calendar soon = Calendar.getInstance();
+		soon.add(Calendar.MILLISECOND, 20);
+		int id = cm.addFutureMeeting(contacts, soon);
+		Contact contact = contacts.iterator().next();
+		boolean futureFirst = cm.getFutureMeetingList(contact).size() == 1;
+		Thread.sleep(40);
+		List<PastMeeting> meetings = cm.getPastMeetingList(contact);
+		assertEquals(true, futureFirst && meetings.size() == 1 && meetings.get(0).getId() == id
+				&& cm.getFutureMeetingList(contact).isEmpty() && cm.getPastMeeting(id) != null);
+	}
+
+	private static Calendar pastDate() {
+		Calendar date = Calendar.getInstance();
+		date.add(Calendar.YEAR, -1);
+		return date;
+	}
+}
@@ -0,0 +1,189 @@
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * The data set and operations measured by ContactManagerBenchmark. <br />
+ * JMH only runs benchmarks in a named package, and classes in a named package
+ * cannot refer to the contact manager's classes in the default package. So
+ * this class, in the default package itself, builds the data set and hands
+ * each operation out by name as a LongSupplier, which the benchmark calls.
+ * Each operation returns a value derived from its result, so that JMH can
+ * consume it and no call is optimised away.
+ *
+ * The data set has as many contacts as meetings, each meeting with a few
+ * random attendees, half of them in the past and half in the future. The
+ * operations which add data keep adding to the same data set.
+ *
+ * @author caleb
+ *
+ */
+public class ContactManagerWorkload implements Function<String, LongSupplier> {
+
+	private static final int ATTENDEES = 4;
+	private static final int BATCH_SIZE = 100;
+	private static final int STREAMED = 10;
+	private static final long DAY = 24L * 60 * 60 * 1000;
+	private static final long SEED = 42;
+
+	private final int size;
+	private final DataFormat format;
+	private final Random random;
+	private final List<Integer> pastMeetingIds;
+	private final List<Integer> futureMeetingIds;
+	private final ContactManager cm;
+	private final long now;
+
+	/**
+	 * Constructor which fills a new contact manager with the data set.
+	 *
+	 * @param size number of contacts and of meetings
+	 * @param format name of the DataFormat flush and restore use
+	 */
+	public ContactManagerWorkload(int size, String format) {
+		this.size = size;
+		this.format = DataFormat.valueOf(format);
+		random = new Random(SEED);
+		pastMeetingIds = new ArrayList<Integer>();
+		futureMeetingIds = new ArrayList<Integer>();
+		cm = new ContactManagerImpl(false, false, this.format);
+		now = System.currentTimeMillis();
+		for (int i = 0; i < size; i++){
+			cm.addNewContact("Contact " + i, "Notes about contact " + i);
+		}
+		for (int i = 0; i < size; i++){
+			if (i % 2 == 0) {
+				cm.addNewPastMeeting(randomContacts(), randomDate(-3650, -1), "Notes about meeting " + i);
+				pastMeetingIds.add(i);
+			} else {
+				futureMeetingIds.add(cm.addFutureMeeting(randomContacts(), randomDate(1, 3650)));
+			}
+		}
+	}
+
+	/**
+	 * Returns the operation of the given name, ready to be called repeatedly.
+	 *
+	 * @param operation name of the operation, as listed in ContactManagerBenchmark
+	 * @return the operation
+	 * @throws IllegalArgumentException if there is no operation of that name
+	 */
+	@Override
+	public LongSupplier apply(String operation) {
+		switch (operation){
+		// queries
+		case "getPastMeeting":
+			return () -> cm.getPastMeeting(randomId(pastMeetingIds)).getId();
+		case "getFutureMeeting":
+			return () -> cm.getFutureMeeting(randomId(futureMeetingIds)).getId();
+		case "getMeeting":
+			return () -> cm.getMeeting(random.nextInt(size)).getId();
+		case "getFutureMeetingListByContact":
+			return () -> cm.getFutureMeetingList(randomContact()).size();
+		case "getFutureMeetingListByDay":
+			return () -> cm.getFutureMeetingList(randomDate(1, 3650)).size();
+		case "getMeetingsBetweenWeek":
+			return () -> {
+				Calendar start = randomDate(-3650, 3650);
+				Calendar end = (Calendar) start.clone();
+				end.add(Calendar.DAY_OF_YEAR, 7);
+				return cm.getMeetingsBetween(start, end).size();
+			};
+		case "getPastMeetingList":
+			return () -> cm.getPastMeetingList(randomContact()).size();
+		case "getContactsById":
+			return () -> cm.getContacts(random.nextInt(size), random.nextInt(size)).size();
+		case "getContactsByName":
+			return () -> cm.getContacts("Contact " + random.nextInt(size)).size();
+		// streams, of which only the first few results are taken
+		case "streamPastMeetings":
+			return () -> cm.streamPastMeetings(randomContact()).limit(STREAMED).count();
+		case "streamFutureMeetings":
+			return () -> cm.streamFutureMeetings(randomContact()).limit(STREAMED).count();
+		case "streamContacts":
+			return () -> cm.streamContacts("Contact " + random.nextInt(size)).limit(STREAMED).count();
+		// changes
+		case "addFutureMeeting":
+			return () -> {
+				int id = cm.addFutureMeeting(randomContacts(), randomDate(1, 3650));
+				futureMeetingIds.add(id);
+				return id;
+			};
+		case "addNewPastMeeting":
+			return () -> {
+				cm.addNewPastMeeting(randomContacts(), randomDate(-3650, -1), "Notes");
+				return 0;
+			};
+		case "addMeetingNotes":
+			return () -> {
+				cm.addMeetingNotes(randomId(pastMeetingIds), "More notes");
+				return 0;
+			};
+		case "addNewContact":
+			return () -> {
+				cm.addNewContact("Contact", "Notes");
+				return 0;
+			};
+		// batches of BATCH_SIZE records, built before they are measured
+		case "addNewContacts":
+			List<Contact> contacts = new ArrayList<Contact>(BATCH_SIZE);
+			for (int i = 0; i < BATCH_SIZE; i++){
+				contacts.add(new ContactImpl(-1, "Contact", "Notes"));
+			}
+			return () -> cm.addNewContacts(contacts);
+		case "addNewPastMeetings":
+			List<PastMeeting> pastMeetings = new ArrayList<PastMeeting>(BATCH_SIZE);
+			for (int i = 0; i < BATCH_SIZE; i++){
+				pastMeetings.add(new PastMeetingImpl(-1, randomDate(-3650, -1), randomContacts(), "Notes"));
+			}
+			return () -> cm.addNewPastMeetings(pastMeetings);
+		case "addFutureMeetings":
+			List<FutureMeeting> futureMeetings = new ArrayList<FutureMeeting>(BATCH_SIZE);
+			for (int i = 0; i < BATCH_SIZE; i++){
+				futureMeetings.add(new FutureMeetingImpl(-1, randomDate(1, 3650), randomContacts()));
+			}
+			return () -> cm.addFutureMeetings(futureMeetings);
+		// persistence, always of the data set as filled
+		case "flush":
+			return () -> {
+				cm.flush();
+				return 0;
+			};
+		case "restore":
+			cm.flush();
+			return () -> new ContactManagerImpl(true, false, format).getContacts(0).size();
+		default:
+			throw new IllegalArgumentException("Unknown operation " + operation);
+		}
+	}
+
+	private Set<Contact> randomContacts() {
+		int[] ids = new int[ATTENDEES];
+		for (int i = 0; i < ids.length; i++){
+			ids[i] = random.nextInt(size);
+		}
+		return cm.getContacts(ids);
+	}
+
+	private Contact randomContact() {
+		return cm.getContacts(random.nextInt(size)).iterator().next();
+	}
+
+	private int randomId(List<Integer> ids) {
+		return ids.get(random.nextInt(ids.size()));
+	}
+
+	/**
+	 * Returns a random time between the given numbers of days from when
+	 * the data set was filled.
+	 */
+	private Calendar randomDate(int fromDay, int toDay) {
+		Calendar date = Calendar.getInstance();
+		date.setTimeInMillis(now + fromDay * DAY + (long) (random.nextDouble() * (toDay - fromDay) * DAY));
+		return date;
+	}
+}
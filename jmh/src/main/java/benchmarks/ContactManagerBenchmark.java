@@ -0,0 +1,119 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures every ContactManager operation, plus flush and restoring saved
+ * data, on generated data sets of increasing size. <br />
+ * Each combination of operation, size and data format is a JMH trial of its
+ * own, in a forked JVM with a freshly filled data set (see
+ * ContactManagerWorkload), so operations adding data never change what
+ * another operation is measured on. Both throughput and time per call are
+ * measured, and main always adds the gc profiler, so bytes allocated per
+ * call are reported too.
+ *
+ * flush and restore read and write the data file in the working directory,
+ * so the benchmark should be run from a scratch directory.
+ *
+ * Usage: java -jar jmh/target/benchmarks.jar [JMH options]
+ * e.g. java -jar benchmarks.jar -p size=100000 -p format=BINARY
+ *
+ * @author caleb
+ *
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContactManagerBenchmark {
+
+	// in the default package, which this package cannot refer to by name
+	private static final String WORKLOAD = "ContactManagerWorkload";
+
+	@Param({"getPastMeeting", "getFutureMeeting", "getMeeting", "getFutureMeetingListByContact",
+			"getFutureMeetingListByDay", "getMeetingsBetweenWeek", "getPastMeetingList",
+			"getContactsById", "getContactsByName", "streamPastMeetings", "streamFutureMeetings",
+			"streamContacts", "addFutureMeeting", "addNewPastMeeting", "addMeetingNotes",
+			"addNewContact", "addNewContacts", "addNewPastMeetings", "addFutureMeetings",
+			"flush", "restore"})
+	public String operation;
+
+	@Param({"1000", "100000", "1000000"})
+	public int size;
+
+	@Param({"XML"})
+	public String format;
+
+	private LongSupplier call;
+
+	/**
+	 * Fills the data set and picks the operation to measure.
+	 *
+	 * @throws ReflectiveOperationException if the workload cannot be created
+	 */
+	@Setup(Level.Trial)
+	@SuppressWarnings("unchecked")
+	public void fill() throws ReflectiveOperationException {
+		Function<String, LongSupplier> workload = (Function<String, LongSupplier>) Class.forName(WORKLOAD)
+				.getConstructor(int.class, String.class).newInstance(size, format);
+		call = workload.apply(operation);
+	}
+
+	/**
+	 * Calls the operation once.
+	 *
+	 * @return a value derived from the operation's result
+	 */
+	@Benchmark
+	public long run() {
+		return call.getAsLong();
+	}
+
+	/**
+	 * Runs the benchmark with the gc profiler, passing on any JMH options.
+	 * Options which only list or explain are left to JMH's own main.
+	 *
+	 * @param args JMH command line options
+	 * @throws CommandLineOptionException if the options cannot be parsed
+	 * @throws RunnerException if the benchmark fails
+	 * @throws IOException if JMH's own main fails to list
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions options = new CommandLineOptions(args);
+		if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+				|| options.shouldListProfilers() || options.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+		new Runner(new OptionsBuilder()
+				.parent(options)
+				.include(ContactManagerBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}